@@ -4,6 +4,8 @@ import java.util.Arrays;
 
 import com.vijayiyer97.util.BitSet;
 import com.vijayiyer97.util.BitSetBE;
+import com.vijayiyer97.util.LimbArithmetic;
+import com.vijayiyer97.util.Primality;
 
 public final class BigInteger extends Number implements Comparable<BigInteger> {
 
@@ -12,6 +14,16 @@ public final class BigInteger extends Number implements Comparable<BigInteger> {
 	 */
 	private static final long serialVersionUID = -591565568046932669L;
 
+	/**
+	 * Largest power of ten below {@code 2^31}, the base in which decimal digits are converted.
+	 */
+	private static final int DECIMAL_GROUP = 1000000000;
+
+	/**
+	 * Certainty in bits of the primes returned by {@code nextProbablePrime}.
+	 */
+	private static final int PRIME_CERTAINTY = 100;
+
 	/**
 	 * 	Stores the binary representation of {@code BigInteger} in big-endian format.
 	 */
@@ -45,7 +57,29 @@ public final class BigInteger extends Number implements Comparable<BigInteger> {
 	}
 
 	/**
-	 * Initializes a {@code BigInteger} instance from a {@code String} decimal value.
+	 * Initializes a {@code BigInteger} instance from the result of a {@code BitSet} operation.
+	 * 
+	 * @param bits Bits of {@code BigInteger}.
+	 */
+	private BigInteger(BitSet bits) {
+		this.bits = bits;
+	}
+
+	/**
+	 * Initializes a {@code BigInteger} instance from a signature and a magnitude stored as
+	 * little-endian 32-bit limbs.
+	 * 
+	 * @param signum Signature of {@code BigInteger}.
+	 * @param magnitude Magnitude of {@code BigInteger}.
+	 */
+	BigInteger(int signum, int[] magnitude) {
+		bits = new BitSetBE(signum, magnitude);
+	}
+
+	/**
+	 * Initializes a {@code BigInteger} instance from a {@code String} decimal value, with an optional
+	 * leading minus sign. The digits are read nine at a time, the most that fit in an {@code int},
+	 * and each group is folded in by one multiply-add pass over the limbs read so far.
 	 * 
 	 * @param val {@code String} representation of decimal value.
 	 */
@@ -53,41 +87,373 @@ public final class BigInteger extends Number implements Comparable<BigInteger> {
 		this();
 
 		char[] chars = val.toCharArray(); // digit cache
+		int sign = chars.length > 0 && chars[0] == '-' ? -1 : 1;
+		int first = sign < 0 ? 1 : 0;
 
-		for (char c: chars) {
-			if (c < '0' || c > '9') {
+		if (first == chars.length && sign < 0) {
+			throw new NumberFormatException(val + " is not a valid integer");
+		}
+
+		for (int i = first; i < chars.length; i++) {
+			if (chars[i] < '0' || chars[i] > '9') {
 				throw new NumberFormatException(val + " is not a valid integer");
 			}
 		}
 		
-		int start = 0;
-		for (char c: chars) {
-			if (c != '0') {
-				break;
-			}
-
+		int start = first;
+		while (start < chars.length && chars[start] == '0') {
 			start++;
 		}
 		
 		chars = Arrays.copyOfRange(chars, start, chars.length);
-		
-		
+
+		int[] mag = new int[chars.length / 9 + 1];
+		int len = 0;
+
+		for (int i = 0, digits = (chars.length - 1) % 9 + 1; i < chars.length; i += digits, digits = 9) {
+			int group = 0;
+
+			for (int j = i; j < i + digits; j++) {
+				group = 10 * group + chars[j] - '0';
+			}
+
+			int carry = LimbArithmetic.multiplyAdd(mag, mag, len, DECIMAL_GROUP, group);
+
+			if (carry != 0) {
+				mag[len++] = carry;
+			}
+		}
+
+		if (len > 0) {
+			bits = new BitSetBE(sign, Arrays.copyOf(mag, len));
+		}
+	}
+
+	/**
+	 * Getter method for the signature of this {@code BigInteger}.
+	 * 
+	 * @return {@code -1}, {@code 0} or {@code 1}.
+	 */
+	public int signum() {
+		return bits.signum();
+	}
+
+	/**
+	 * Getter method for the magnitude of this {@code BigInteger} as little-endian 32-bit limbs.
+	 * 
+	 * @return A new magnitude array.
+	 */
+	int[] magnitude() {
+		return bits.magnitude();
+	}
+
+	/**
+	 * Multiplies this {@code BigInteger} by another. Long operands are multiplied by Karatsuba,
+	 * Toom-3 or number-theoretic transform multiplication, as chosen by {@code LimbArithmetic}.
+	 * 
+	 * @param val {@code BigInteger} to multiply by.
+	 * @return {@code this * val}.
+	 */
+	public BigInteger multiply(BigInteger val) {
+		return new BigInteger(bits.multiply(val.bits));
+	}
+
+	/**
+	 * Multiplies this {@code BigInteger} by a {@code long} in a single pass over its limbs.
+	 *
+	 * @param val Value to multiply by.
+	 * @return {@code this * val}.
+	 */
+	public BigInteger multiply(long val) {
+		return new BigInteger(bits.multiply(val));
+	}
+
+	/**
+	 * Adds a {@code long} to this {@code BigInteger} in a single pass over its limbs.
+	 *
+	 * @param val Value to add.
+	 * @return {@code this + val}.
+	 */
+	public BigInteger add(long val) {
+		return new BigInteger(bits.add(val));
+	}
+
+	/**
+	 * Multiplies this {@code BigInteger} by an {@code int} and adds another, in a single pass over its
+	 * limbs.
+	 *
+	 * @param multiplier Value to multiply by.
+	 * @param addend Value to add after multiplying.
+	 * @return {@code this * multiplier + addend}.
+	 */
+	public BigInteger multiplyAdd(int multiplier, int addend) {
+		return new BigInteger(bits.multiplyAdd(multiplier, addend));
+	}
+
+	/**
+	 * Divides this {@code BigInteger} by an {@code int} in a single pass over its limbs, rounding
+	 * toward zero. Throws {@code ArithmeticException} if {@code val} is zero.
+	 *
+	 * @param val Value to divide by.
+	 * @return {@code this / val}.
+	 */
+	public BigInteger divide(int val) {
+		return new BigInteger(bits.divide(val));
+	}
+
+	/**
+	 * Computes the remainder of this {@code BigInteger} divided by an {@code int}, in a single pass
+	 * over its limbs. Throws {@code ArithmeticException} if {@code val} is zero.
+	 *
+	 * @param val Value to divide by.
+	 * @return {@code this % val}, which takes the sign of this {@code BigInteger}.
+	 */
+	public int remainder(int val) {
+		return bits.remainder(val);
+	}
+
+	/**
+	 * Divides this {@code BigInteger} by another, and returns the quotient and remainder together.
+	 * The quotient is rounded toward zero, and the remainder takes the sign of this
+	 * {@code BigInteger}. Throws {@code ArithmeticException} if {@code val} is zero.
+	 * 
+	 * @param val {@code BigInteger} to divide by.
+	 * @return An array holding {@code this / val} followed by {@code this % val}.
+	 */
+	public BigInteger[] divideAndRemainder(BigInteger val) {
+		BitSet[] result = bits.divideAndRemainder(val.bits);
+
+		return new BigInteger[] { new BigInteger(result[0]), new BigInteger(result[1]) };
+	}
+
+	/**
+	 * Raises this {@code BigInteger} to a power, by left-to-right sliding-window exponentiation. The
+	 * trailing zero bits are factored out of the base and restored by one shift of the result. Throws
+	 * {@code ArithmeticException} if the exponent is negative.
+	 *
+	 * @param exponent Non-negative exponent.
+	 * @return {@code this^exponent}.
+	 */
+	public BigInteger pow(int exponent) {
+		int[] power = LimbArithmetic.pow(magnitude(), exponent);
+
+		if (LimbArithmetic.length(power) == 0) {
+			return new BigInteger(0, power);
+		}
+
+		return new BigInteger(signum() < 0 && (exponent & 1) == 1 ? -1 : 1, power);
+	}
+
+	/**
+	 * Raises this {@code BigInteger} to a power modulo another. The result is always non-negative.
+	 * An odd modulus is reduced by Montgomery multiplication with a sliding window over the exponent,
+	 * and an even modulus is split into its odd part and a power of two. A negative exponent raises
+	 * the modular inverse of this {@code BigInteger}. Throws {@code ArithmeticException} if the
+	 * modulus is not positive, or if the exponent is negative and this {@code BigInteger} is not
+	 * invertible.
+	 *
+	 * @param exponent Exponent.
+	 * @param modulus Positive modulus.
+	 * @return {@code this^exponent mod modulus}.
+	 */
+	public BigInteger modPow(BigInteger exponent, BigInteger modulus) {
+		if (modulus.signum() <= 0) {
+			throw new ArithmeticException("modulus not positive");
+		} else if (exponent.signum() < 0) {
+			return modInverse(modulus).modPow(new BigInteger(1, exponent.magnitude()), modulus);
+		}
+
+		int[] e = exponent.magnitude();
+		int[] m = modulus.magnitude();
+		int[] result = LimbArithmetic.modPow(magnitude(), e, m);
+
+		// (-x)^e is -(x^e) for odd e, whose residue is m - x^e mod m.
+		if (signum() < 0 && exponent.signum() > 0 && (e[0] & 1) == 1 && LimbArithmetic.length(result) > 0) {
+			result = LimbArithmetic.subtract(m, result);
+		}
+
+		return new BigInteger(LimbArithmetic.length(result) == 0 ? 0 : 1, result);
 	}
-	
 
+	/**
+	 * Computes the greatest common divisor of the absolute values of this {@code BigInteger} and
+	 * another, by binary GCD, Lehmer's algorithm or the half-GCD method as the operands grow.
+	 *
+	 * @param val Other {@code BigInteger}.
+	 * @return {@code gcd(|this|, |val|)}, which is zero only if both are zero.
+	 */
+	public BigInteger gcd(BigInteger val) {
+		int[] g = LimbArithmetic.gcd(magnitude(), val.magnitude());
+		return new BigInteger(LimbArithmetic.length(g) == 0 ? 0 : 1, g);
+	}
+
+	/**
+	 * Computes the greatest common divisor of this {@code BigInteger} and another together with the
+	 * cofactors of Bezout's identity, by Lehmer's extended algorithm.
+	 *
+	 * @param val Other {@code BigInteger}.
+	 * @return An array holding {@code g = gcd(|this|, |val|)} followed by {@code x} and {@code y}
+	 * with {@code this x + val y = g}.
+	 */
+	public BigInteger[] extendedGcd(BigInteger val) {
+		if (signum() == 0) {
+			int[] g = val.magnitude();
+			int sign = val.signum();
+
+			return new BigInteger[] { new BigInteger(Math.abs(sign), g), new BigInteger(0, new int[0]),
+					new BigInteger(sign, sign == 0 ? new int[0] : new int[] { 1 }) };
+		}
+
+		// |this| x - |val| y = g, so the signs of the operands carry over to the cofactors.
+		int[][] gxy = LimbArithmetic.extendedGcd(magnitude(), val.magnitude());
+		int ySign = LimbArithmetic.length(gxy[2]) == 0 ? 0 : -val.signum();
+
+		return new BigInteger[] { new BigInteger(1, gxy[0]), new BigInteger(signum(), gxy[1]),
+				new BigInteger(ySign, gxy[2]) };
+	}
+
+	/**
+	 * Computes the inverse of this {@code BigInteger} modulo a positive modulus. Throws
+	 * {@code ArithmeticException} if the modulus is not positive, or if this {@code BigInteger}
+	 * shares a factor with it.
+	 *
+	 * @param modulus Positive modulus.
+	 * @return {@code x} in {@code [0, modulus)} with {@code this x = 1 mod modulus}.
+	 */
+	public BigInteger modInverse(BigInteger modulus) {
+		if (modulus.signum() <= 0) {
+			throw new ArithmeticException("modulus not positive");
+		}
+
+		int[] m = modulus.magnitude();
+		int[] inverse = LimbArithmetic.modInverse(magnitude(), m);
+
+		// the inverse of -a is the negation of the inverse of a.
+		if (signum() < 0 && LimbArithmetic.length(inverse) > 0) {
+			inverse = LimbArithmetic.subtract(m, inverse);
+		}
+
+		return new BigInteger(LimbArithmetic.length(inverse) == 0 ? 0 : 1, inverse);
+	}
+
+	/**
+	 * Computes the integer square root of this {@code BigInteger}, by Newton's method with precision
+	 * doubling. Throws {@code ArithmeticException} if this {@code BigInteger} is negative.
+	 *
+	 * @return {@code floor(sqrt(this))}.
+	 */
+	public BigInteger sqrt() {
+		return nthRoot(2);
+	}
+
+	/**
+	 * Computes the integer square root of this {@code BigInteger} together with its remainder. Throws
+	 * {@code ArithmeticException} if this {@code BigInteger} is negative.
+	 *
+	 * @return An array holding {@code s = floor(sqrt(this))} followed by {@code this - s * s}.
+	 */
+	public BigInteger[] sqrtAndRemainder() {
+		if (signum() < 0) {
+			throw new ArithmeticException("negative magnitude");
+		}
+
+		int[][] sr = LimbArithmetic.sqrtAndRemainder(magnitude());
+
+		return new BigInteger[] { new BigInteger(LimbArithmetic.length(sr[0]) == 0 ? 0 : 1, sr[0]),
+				new BigInteger(LimbArithmetic.length(sr[1]) == 0 ? 0 : 1, sr[1]) };
+	}
+
+	/**
+	 * Computes the integer {@code k}-th root of this {@code BigInteger}, rounded toward zero. A
+	 * negative {@code BigInteger} has a root only for odd {@code k}. Throws
+	 * {@code ArithmeticException} if {@code k} is not positive, or if this {@code BigInteger} is
+	 * negative and {@code k} is even.
+	 *
+	 * @param k Degree of the root.
+	 * @return {@code this^(1/k)}, rounded toward zero.
+	 */
+	public BigInteger nthRoot(int k) {
+		if (signum() < 0 && (k & 1) == 0) {
+			throw new ArithmeticException("negative magnitude");
+		}
+
+		// the odd root of -x is the negation of the root of x.
+		int[] root = LimbArithmetic.nthRoot(magnitude(), k);
+		return new BigInteger(LimbArithmetic.length(root) == 0 ? 0 : signum(), root);
+	}
+
+	/**
+	 * Tests whether the magnitude of this {@code BigInteger} is probably prime. Small primes are tried
+	 * as divisors first, then the Baillie-PSW test and enough Miller-Rabin rounds to bound the error.
+	 *
+	 * @param certainty Certainty in bits; the result is {@code true} if it is not positive.
+	 * @return {@code false} if {@code |this|} is certainly composite, {@code true} if the probability
+	 *         that it is composite is below {@code 2^-certainty}.
+	 */
+	public boolean isProbablePrime(int certainty) {
+		return Primality.isProbablePrime(magnitude(), certainty);
+	}
+
+	/**
+	 * Tests whether the magnitude of this {@code BigInteger} is a Baillie-PSW probable prime. Unlike
+	 * {@code isProbablePrime}, the result does not depend on random bases, and it is exact below
+	 * {@code 2^64}.
+	 *
+	 * @return {@code false} if {@code |this|} is certainly composite, {@code true} if it is probably prime.
+	 */
+	public boolean isBailliePswPrime() {
+		return Primality.isBailliePswPrime(magnitude());
+	}
+
+	/**
+	 * Finds the least probable prime greater than this {@code BigInteger}. Throws
+	 * {@code ArithmeticException} if this {@code BigInteger} is negative.
+	 *
+	 * @return The least integer greater than {@code this} which is probably prime.
+	 */
+	public BigInteger nextProbablePrime() {
+		if (signum() < 0) {
+			throw new ArithmeticException("negative magnitude");
+		}
+
+		return new BigInteger(1, Primality.nextProbablePrime(magnitude(), PRIME_CERTAINTY));
+	}
+
+	/**
+	 * Formats this {@code BigInteger} in decimal. The digits are extracted nine at a time, each group by
+	 * one division pass over the limbs.
+	 */
 	@Override
 	public String toString() {
-		String str = "";
-		int value = 0;
-		byte[] bitArray = bits.toByteArray();
+		int[] mag = magnitude();
+		int len = LimbArithmetic.length(mag);
 
-		for (int i = 0; i < bitArray.length; i++) {
-			value += bitArray[i] * (1 << i);			
+		if (len == 0) {
+			return "0";
 		}
 
-		str += value;
+		int[] groups = new int[len * 32 / 29 + 1];
+		int count = 0;
+
+		while (len > 0) {
+			groups[count++] = LimbArithmetic.divideByInt(mag, mag, len, DECIMAL_GROUP);
+			len = LimbArithmetic.length(mag);
+		}
+
+		StringBuilder str = new StringBuilder(count * 9 + 1);
+
+		if (signum() < 0) {
+			str.append('-');
+		}
+
+		str.append(groups[count - 1]);
+
+		for (int i = count - 2; i >= 0; i--) {
+			String group = Integer.toString(groups[i]);
+			str.append("000000000", group.length(), 9).append(group);
+		}
 
-		return str;
+		return str.toString();
 	}
 
 	@Override
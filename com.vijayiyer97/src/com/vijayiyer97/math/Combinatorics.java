@@ -0,0 +1,247 @@
+package com.vijayiyer97.math;
+
+import java.util.Arrays;
+
+import com.vijayiyer97.util.LimbArithmetic;
+import com.vijayiyer97.util.PrimeSieve;
+
+/**
+ * {@code Combinatorics} computes factorials, binomial coefficients and primorials. Each result is
+ * assembled from its prime factorization: the primes come from {@code PrimeSieve}, their powers are
+ * packed into words, and the words are multiplied by a balanced product tree, so the final products
+ * are between operands of similar length and fall to the fast multiplication kernels of
+ * {@code LimbArithmetic}.
+ * <p>
+ * Factorials use Luschny's prime-swing algorithm: {@code n! = ((n/2)!)^2 swing(n)}, where the swing
+ * {@code n! / ((n/2)!)^2} has a factorization read directly from the digits of {@code n} in each prime
+ * base. Powers of two are left out of every product and restored by a single shift.
+ *
+ * @author Vijay Iyer
+ *
+ */
+public final class Combinatorics {
+
+	private static final long LONG_MASK = 0xFFFFFFFFL;
+
+	/**
+	 * Number of words a leaf of a product tree multiplies sequentially, one scalar pass each.
+	 */
+	private static final int LEAF = 16;
+
+	private Combinatorics() {
+	}
+
+	/// COMBINATORICS
+
+
+	/**
+	 * Computes the factorial of a non-negative integer by the prime-swing algorithm. Throws
+	 * {@code ArithmeticException} if {@code n} is negative.
+	 *
+	 * @param n Non-negative integer.
+	 * @return {@code n!}.
+	 */
+	public static BigInteger factorial(int n) {
+		if (n < 0) {
+			throw new ArithmeticException("negative argument");
+		}
+
+		int[] odd = oddFactorial(n, primes(n));
+		return new BigInteger(1, LimbArithmetic.shiftLeft(odd, n - Integer.bitCount(n)));
+	}
+
+	/**
+	 * Computes a binomial coefficient from its prime factorization, where the exponent of each prime
+	 * {@code p} is the number of borrows in the subtraction {@code n - k} in base {@code p} (Kummer's
+	 * theorem). Throws {@code ArithmeticException} if {@code n} is negative.
+	 *
+	 * @param n Non-negative integer.
+	 * @param k Integer.
+	 * @return {@code n! / (k! (n - k)!)}, or zero if {@code k} is negative or greater than {@code n}.
+	 */
+	public static BigInteger binomial(int n, int k) {
+		if (n < 0) {
+			throw new ArithmeticException("negative argument");
+		} else if (k < 0 || k > n) {
+			return new BigInteger(0, new int[0]);
+		}
+
+		k = Math.min(k, n - k);
+
+		int[] primes = primes(n);
+		Words words = new Words();
+		int twos = 0;
+
+		for (int p : primes) {
+			int e = 0;
+
+			// a prime above n - k divides n! but neither k! nor (n - k)!.
+			if (p > n - k) {
+				e = 1;
+			} else {
+				for (long q = p; q <= n; q *= p) {
+					e += (int) (n / q - k / q - (n - k) / q);
+				}
+			}
+
+			if (p == 2) {
+				twos = e;
+			} else {
+				words.add(p, e);
+			}
+		}
+
+		return new BigInteger(1, LimbArithmetic.shiftLeft(words.product(), twos));
+	}
+
+	/**
+	 * Computes the primorial of a non-negative integer, the product of the primes up to it. Throws
+	 * {@code ArithmeticException} if {@code n} is negative.
+	 *
+	 * @param n Non-negative integer.
+	 * @return {@code n#}.
+	 */
+	public static BigInteger primorial(int n) {
+		if (n < 0) {
+			throw new ArithmeticException("negative argument");
+		}
+
+		Words words = new Words();
+		int twos = 0;
+
+		for (int p : primes(n)) {
+			if (p == 2) {
+				twos = 1;
+			} else {
+				words.add(p, 1);
+			}
+		}
+
+		return new BigInteger(1, LimbArithmetic.shiftLeft(words.product(), twos));
+	}
+
+	/// HELPERS
+
+
+	/**
+	 * Computes the odd part of {@code n!} as {@code oddpart((n/2)!)^2 oddswing(n)}.
+	 */
+	private static int[] oddFactorial(int n, int[] primes) {
+		if (n < 21) {
+			long f = 1;
+
+			for (int i = 2; i <= n; i++) {
+				f *= i;
+			}
+
+			f >>>= Long.numberOfTrailingZeros(f);
+			return new int[] { (int) f, (int) (f >>> 32) };
+		}
+
+		int[] half = oddFactorial(n / 2, primes);
+		return LimbArithmetic.multiply(LimbArithmetic.square(half), oddSwing(n, primes));
+	}
+
+	/**
+	 * Computes the odd part of the swing {@code n! / ((n/2)!)^2}. The exponent of a prime {@code p}
+	 * is the number of odd quotients {@code floor(n / p^i)}: one for the primes above {@code n/2},
+	 * none for those between {@code n/3} and {@code n/2}, and at most one above {@code sqrt(n)}. Every
+	 * prime power in the swing is at most {@code n}.
+	 */
+	private static int[] oddSwing(int n, int[] primes) {
+		Words words = new Words();
+
+		for (int i = 1; i < primes.length && primes[i] <= n; i++) {
+			int p = primes[i];
+
+			if (p > n / 2) {
+				words.add(p, 1);
+			} else if (p > n / 3) {
+				continue;
+			} else if ((long) p * p > n) {
+				words.add(p, (n / p) & 1);
+			} else {
+				int e = 0;
+
+				for (int q = n / p; q > 0; q /= p) {
+					e += q & 1;
+				}
+
+				words.add(p, e);
+			}
+		}
+
+		return words.product();
+	}
+
+	/**
+	 * Lists the primes up to {@code n}.
+	 */
+	private static int[] primes(int n) {
+		return new PrimeSieve(n).primes().toArray();
+	}
+
+	/**
+	 * Prime powers packed into words below {@code 2^32}, which multiply into one product.
+	 */
+	private static final class Words {
+
+		private long[] words = new long[16];
+		private int count;
+		private long word = 1;
+
+		/**
+		 * Multiplies {@code p^e} into the product.
+		 */
+		void add(long p, int e) {
+			for (int i = 0; i < e; i++) {
+				if (word * p > LONG_MASK) {
+					append(word);
+					word = 1;
+				}
+
+				word *= p;
+			}
+		}
+
+		/**
+		 * Multiplies the words by a balanced product tree.
+		 */
+		int[] product() {
+			if (word != 1) {
+				append(word);
+				word = 1;
+			}
+
+			return count == 0 ? new int[] { 1 } : product(0, count);
+		}
+
+		private int[] product(int from, int to) {
+			if (to - from <= LEAF) {
+				int[] result = new int[to - from];
+				int len = 0;
+
+				for (int i = from; i < to; i++) {
+					int carry = len == 0 ? (int) words[i] : LimbArithmetic.multiplyAdd(result, result, len, (int) words[i], 0);
+
+					if (carry != 0) {
+						result[len++] = carry;
+					}
+				}
+
+				return result;
+			}
+
+			int middle = (from + to) >>> 1;
+			return LimbArithmetic.multiply(product(from, middle), product(middle, to));
+		}
+
+		private void append(long w) {
+			if (count == words.length) {
+				words = Arrays.copyOf(words, 2 * count);
+			}
+
+			words[count++] = w;
+		}
+	}
+}
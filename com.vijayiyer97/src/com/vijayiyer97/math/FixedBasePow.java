@@ -0,0 +1,158 @@
+package com.vijayiyer97.math;
+
+import com.vijayiyer97.util.LimbArithmetic;
+
+/**
+ * {@code FixedBasePow} raises one fixed base to many exponents, with the comb method of Lim and Lee.
+ * The bits of an exponent of up to {@code B} bits are read as {@code h} rows of {@code d = B / h}
+ * bits, and the table holds, for every column pattern {@code j} of {@code h} bits, the product of
+ * {@code base^(2^(i d))} over the bits {@code i} set in {@code j}. A power then costs {@code d}
+ * squarings and at most {@code d} multiplications by table entries, instead of the {@code B}
+ * squarings of sliding-window exponentiation, and the table is computed once, when the instance is
+ * created.
+ * <p>
+ * The trailing zero bits of the base are factored out and restored by a shift, so the table covers
+ * only its odd part. Instances are immutable and may be shared between threads.
+ *
+ * @author Vijay Iyer
+ *
+ */
+public final class FixedBasePow {
+
+	/**
+	 * Largest number of rows of the comb, which bounds the table at {@code 2^TEETH} entries.
+	 */
+	private static final int TEETH = 4;
+
+	private final BigInteger base;
+	private final int maxExponent;
+	private final int zeros;
+
+	// the comb: table[j] is the product of odd^(2^(i spacing)) over the bits i of j.
+	private final int[][] table;
+	private final int spacing;
+
+	/// INITIALIZERS
+
+
+	/**
+	 * Initializes a {@code FixedBasePow} instance for a base and the largest exponent it will be
+	 * raised to. Throws {@code ArithmeticException} if {@code maxExponent} is negative.
+	 *
+	 * @param base Base.
+	 * @param maxExponent Largest exponent covered by the table.
+	 */
+	public FixedBasePow(BigInteger base, int maxExponent) {
+		if (maxExponent < 0) {
+			throw new ArithmeticException("negative exponent");
+		}
+
+		this.base = base;
+		this.maxExponent = maxExponent;
+
+		int[] magnitude = base.magnitude();
+		boolean zero = LimbArithmetic.length(magnitude) == 0;
+		int bits = 32 - Integer.numberOfLeadingZeros(maxExponent);
+		int teeth = Math.max(Math.min(TEETH, bits), 1);
+
+		this.zeros = zero ? 0 : LimbArithmetic.trailingZeros(magnitude);
+		this.spacing = Math.max((bits + teeth - 1) / teeth, 1);
+		this.table = new int[1 << teeth][];
+
+		int[] odd = zero ? magnitude : LimbArithmetic.shiftRight(magnitude, zeros);
+		table[0] = new int[] { 1 };
+
+		// table[2^i] = odd^(2^(i spacing)), by repeated squaring.
+		int[] tooth = LimbArithmetic.trim(odd);
+
+		for (int i = 0; i < teeth; i++) {
+			table[1 << i] = tooth;
+
+			if (i + 1 < teeth) {
+				for (int k = 0; k < spacing; k++) {
+					tooth = LimbArithmetic.trim(LimbArithmetic.square(tooth));
+				}
+			}
+		}
+
+		for (int j = 3; j < table.length; j++) {
+			int high = Integer.highestOneBit(j);
+
+			if (j != high) {
+				table[j] = LimbArithmetic.trim(LimbArithmetic.multiply(table[j - high], table[high]));
+			}
+		}
+	}
+
+	/// GETTERS
+
+
+	/**
+	 * Getter method for the base.
+	 *
+	 * @return Base.
+	 */
+	public BigInteger base() {
+		return base;
+	}
+
+	/**
+	 * Getter method for the largest exponent covered by the table.
+	 *
+	 * @return Largest exponent.
+	 */
+	public int maxExponent() {
+		return maxExponent;
+	}
+
+	/// EXPONENTIATION
+
+
+	/**
+	 * Raises the base to a power. Exponents above {@code maxExponent} fall back to
+	 * {@code BigInteger.pow}. Throws {@code ArithmeticException} if the exponent is negative.
+	 *
+	 * @param exponent Non-negative exponent.
+	 * @return {@code base^exponent}.
+	 */
+	public BigInteger pow(int exponent) {
+		if (exponent < 0) {
+			throw new ArithmeticException("negative exponent");
+		} else if (exponent > maxExponent) {
+			return base.pow(exponent);
+		} else if (exponent == 0) {
+			return new BigInteger(1, new int[] { 1 });
+		} else if (base.signum() == 0) {
+			return base;
+		}
+
+		int[] acc = null;
+
+		for (int k = spacing - 1; k >= 0; k--) {
+			if (acc != null) {
+				acc = LimbArithmetic.trim(LimbArithmetic.square(acc));
+			}
+
+			int column = 0;
+
+			for (int i = 0, bit = k; bit < 31 && (1 << i) < table.length; i++, bit += spacing) {
+				column |= ((exponent >>> bit) & 1) << i;
+			}
+
+			if (column != 0) {
+				acc = acc == null ? table[column] : LimbArithmetic.trim(LimbArithmetic.multiply(acc, table[column]));
+			}
+		}
+
+		long shift = (long) zeros * exponent;
+
+		if (shift > Integer.MAX_VALUE) {
+			throw new ArithmeticException("overflow");
+		}
+
+		int[] power = LimbArithmetic.shiftLeft(acc, (int) shift);
+		int sign = base.signum() < 0 && (exponent & 1) == 1 ? -1 : 1;
+
+		return new BigInteger(sign, power);
+	}
+}
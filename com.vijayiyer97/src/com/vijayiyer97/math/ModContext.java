@@ -0,0 +1,309 @@
+package com.vijayiyer97.math;
+
+import java.util.Arrays;
+
+import com.vijayiyer97.util.Barrett;
+import com.vijayiyer97.util.LimbArithmetic;
+import com.vijayiyer97.util.Montgomery;
+
+/**
+ * {@code ModContext} performs arithmetic modulo a single fixed modulus. The reduction constants are
+ * computed once, when the context is created: an odd modulus uses the constants of Montgomery
+ * multiplication, and an even modulus the reciprocal of Barrett reduction. Each operation then
+ * reduces by multiplications instead of a long division.
+ * <p>
+ * Values are held as {@code Residue} instances, which stay in the internal domain of the context
+ * (Montgomery form for an odd modulus) between operations, so a chain of operations converts only
+ * its inputs and its final result. The {@code BigInteger} overloads convert on every call, and suit
+ * single operations. Contexts and residues are immutable and may be shared between threads.
+ *
+ * @author Vijay Iyer
+ *
+ */
+public final class ModContext {
+
+	private final BigInteger modulus;
+	private final int[] m;
+	private final int n;
+
+	// exactly one of these reduces, by the parity of the modulus.
+	private final Montgomery montgomery;
+	private final Barrett barrett;
+
+	/**
+	 * A value modulo the modulus of a context, in the internal domain of that context.
+	 *
+	 * @author Vijay Iyer
+	 *
+	 */
+	public static final class Residue {
+
+		private final ModContext context;
+		private final int[] limbs;
+
+		private Residue(ModContext context, int[] limbs) {
+			this.context = context;
+			this.limbs = limbs;
+		}
+
+		/**
+		 * Getter method for the context of this residue.
+		 *
+		 * @return The context which created this residue.
+		 */
+		public ModContext context() {
+			return context;
+		}
+
+		/**
+		 * Converts this residue out of the internal domain.
+		 *
+		 * @return A {@code BigInteger} in {@code [0, modulus)}.
+		 */
+		public BigInteger toBigInteger() {
+			return context.value(this);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Residue)) {
+				return false;
+			}
+
+			Residue other = (Residue) obj;
+			return context == other.context && Arrays.equals(limbs, other.limbs);
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(limbs);
+		}
+
+		@Override
+		public String toString() {
+			return toBigInteger().toString();
+		}
+	}
+
+	/// INITIALIZERS
+
+
+	/**
+	 * Initializes a {@code ModContext} instance for a positive modulus. Throws
+	 * {@code ArithmeticException} if the modulus is not positive.
+	 *
+	 * @param modulus Modulus.
+	 */
+	public ModContext(BigInteger modulus) {
+		if (modulus.signum() <= 0) {
+			throw new ArithmeticException("modulus not positive");
+		}
+
+		this.modulus = modulus;
+		this.m = LimbArithmetic.trim(modulus.magnitude());
+		this.n = m.length;
+
+		boolean odd = (m[0] & 1) == 1 && (n > 1 || m[0] != 1);
+		this.montgomery = odd ? new Montgomery(m) : null;
+		this.barrett = odd ? null : new Barrett(m);
+	}
+
+	/// GETTERS
+
+
+	/**
+	 * Getter method for the modulus.
+	 *
+	 * @return Modulus.
+	 */
+	public BigInteger modulus() {
+		return modulus;
+	}
+
+	/// CONVERSIONS
+
+
+	/**
+	 * Converts a value of any sign and size into the internal domain.
+	 *
+	 * @param val Value.
+	 * @return The residue of {@code val mod modulus}.
+	 */
+	public Residue residue(BigInteger val) {
+		int[] magnitude = val.magnitude();
+		int[] limbs = montgomery != null ? montgomery.toMontgomery(magnitude) : barrett.reduce(magnitude);
+
+		// the domain is linear, so the residue of -x is the negation of the residue of x.
+		if (val.signum() < 0 && LimbArithmetic.length(limbs) > 0) {
+			limbs = Arrays.copyOf(LimbArithmetic.subtract(m, limbs), n);
+		}
+
+		return new Residue(this, limbs);
+	}
+
+	/**
+	 * Converts a residue out of the internal domain.
+	 *
+	 * @param a Residue.
+	 * @return A {@code BigInteger} in {@code [0, modulus)}.
+	 */
+	public BigInteger value(Residue a) {
+		int[] limbs = montgomery != null ? montgomery.fromMontgomery(check(a)) : check(a);
+		return new BigInteger(LimbArithmetic.length(limbs) == 0 ? 0 : 1, limbs);
+	}
+
+	/// RESIDUE ARITHMETIC
+
+
+	/**
+	 * Adds two residues.
+	 *
+	 * @param a Residue.
+	 * @param b Residue.
+	 * @return {@code a + b mod modulus}.
+	 */
+	public Residue addMod(Residue a, Residue b) {
+		int[] sum = new int[n];
+		int carry = LimbArithmetic.add(sum, check(a), n, check(b), n);
+
+		if (carry != 0 || LimbArithmetic.compare(sum, m) >= 0) {
+			LimbArithmetic.subtract(sum, sum, n, m, n);
+		}
+
+		return new Residue(this, sum);
+	}
+
+	/**
+	 * Subtracts one residue from another.
+	 *
+	 * @param a Residue.
+	 * @param b Residue.
+	 * @return {@code a - b mod modulus}.
+	 */
+	public Residue subtractMod(Residue a, Residue b) {
+		int[] difference = new int[n];
+		int borrow = LimbArithmetic.subtract(difference, check(a), n, check(b), n);
+
+		if (borrow != 0) {
+			LimbArithmetic.add(difference, difference, n, m, n);
+		}
+
+		return new Residue(this, difference);
+	}
+
+	/**
+	 * Multiplies two residues.
+	 *
+	 * @param a Residue.
+	 * @param b Residue.
+	 * @return {@code a * b mod modulus}.
+	 */
+	public Residue mulMod(Residue a, Residue b) {
+		int[] product = montgomery != null ? montgomery.multiply(check(a), check(b)) : barrett.multiply(check(a), check(b));
+		return new Residue(this, product);
+	}
+
+	/**
+	 * Raises a residue to a power. Throws {@code ArithmeticException} if the exponent is negative
+	 * and the residue has no inverse.
+	 *
+	 * @param a Residue.
+	 * @param exponent Exponent of any sign.
+	 * @return {@code a^exponent mod modulus}.
+	 */
+	public Residue powMod(Residue a, BigInteger exponent) {
+		Residue base = exponent.signum() < 0 ? inverse(a) : a;
+		int[] e = exponent.magnitude();
+
+		int[] power = montgomery != null ? montgomery.exponentiate(check(base), e) : barrett.pow(check(base), e);
+		return new Residue(this, power);
+	}
+
+	/**
+	 * Computes the multiplicative inverse of a residue. Throws {@code ArithmeticException} if the
+	 * residue shares a factor with the modulus.
+	 *
+	 * @param a Residue.
+	 * @return {@code a^-1 mod modulus}.
+	 */
+	public Residue inverse(Residue a) {
+		if (montgomery == null) {
+			return new Residue(this, Arrays.copyOf(LimbArithmetic.modInverse(check(a), m), n));
+		}
+
+		int[] inverse = LimbArithmetic.modInverse(montgomery.fromMontgomery(check(a)), m);
+		return new Residue(this, montgomery.toMontgomery(inverse));
+	}
+
+	/// BIGINTEGER ARITHMETIC
+
+
+	/**
+	 * Adds two values modulo the modulus.
+	 *
+	 * @param a Value.
+	 * @param b Value.
+	 * @return {@code a + b mod modulus}, in {@code [0, modulus)}.
+	 */
+	public BigInteger addMod(BigInteger a, BigInteger b) {
+		return value(addMod(residue(a), residue(b)));
+	}
+
+	/**
+	 * Subtracts one value from another modulo the modulus.
+	 *
+	 * @param a Value.
+	 * @param b Value.
+	 * @return {@code a - b mod modulus}, in {@code [0, modulus)}.
+	 */
+	public BigInteger subtractMod(BigInteger a, BigInteger b) {
+		return value(subtractMod(residue(a), residue(b)));
+	}
+
+	/**
+	 * Multiplies two values modulo the modulus.
+	 *
+	 * @param a Value.
+	 * @param b Value.
+	 * @return {@code a * b mod modulus}, in {@code [0, modulus)}.
+	 */
+	public BigInteger mulMod(BigInteger a, BigInteger b) {
+		return value(mulMod(residue(a), residue(b)));
+	}
+
+	/**
+	 * Raises a value to a power modulo the modulus.
+	 *
+	 * @param a Value.
+	 * @param exponent Exponent of any sign.
+	 * @return {@code a^exponent mod modulus}, in {@code [0, modulus)}.
+	 */
+	public BigInteger powMod(BigInteger a, BigInteger exponent) {
+		return value(powMod(residue(a), exponent));
+	}
+
+	/**
+	 * Computes the multiplicative inverse of a value modulo the modulus.
+	 *
+	 * @param a Value.
+	 * @return {@code a^-1 mod modulus}, in {@code [0, modulus)}.
+	 */
+	public BigInteger inverse(BigInteger a) {
+		return value(inverse(residue(a)));
+	}
+
+	/// HELPERS
+
+
+	/**
+	 * Returns the limbs of a residue of this context. Throws {@code IllegalArgumentException} if the
+	 * residue belongs to another context.
+	 */
+	private int[] check(Residue a) {
+		if (a.context != this) {
+			throw new IllegalArgumentException("residue of another context");
+		}
+
+		return a.limbs;
+	}
+}
@@ -0,0 +1,329 @@
+package com.vijayiyer97.math;
+
+import java.util.Arrays;
+
+import com.vijayiyer97.util.LimbArithmetic;
+import com.vijayiyer97.util.ResidueNumberSystem;
+
+/**
+ * {@code MultiModContext} performs exact integer arithmetic in a residue number system: each value
+ * is held by its residues modulo a set of word-sized primes, whose product {@code M} exceeds
+ * {@code 2^(capacity + 2)}, so the centered range {@code (-M/2, M/2]} holds every value of magnitude
+ * below {@code 2^capacity}. Addition, subtraction and multiplication work on every residue
+ * independently, concurrently for long vectors, and intermediate values never grow, which suits
+ * long chains of products such as determinants and polynomial arithmetic whose results are known to
+ * be bounded.
+ * <p>
+ * Values are held as {@code Residues} instances. The integer of a {@code Residues} is reconstructed
+ * by the Chinese remainder theorem only when it is first asked for, and is then kept. A result of
+ * magnitude at least {@code 2^capacity} is reconstructed modulo {@code M}, into
+ * {@code (-M/2, M/2]}. Contexts and residues are immutable and may be shared between threads.
+ *
+ * @author Vijay Iyer
+ *
+ */
+public final class MultiModContext {
+
+	private final ResidueNumberSystem system;
+	private final int[] m;
+
+	// floor(M / 2), the largest magnitude reconstructed as positive.
+	private final int[] half;
+
+	/**
+	 * A value of a context, as its residues modulo the primes of that context.
+	 *
+	 * @author Vijay Iyer
+	 *
+	 */
+	public static final class Residues {
+
+		private final MultiModContext context;
+		private final int[] residues;
+
+		// the reconstructed value, kept from the first conversion.
+		private volatile BigInteger value;
+
+		private Residues(MultiModContext context, int[] residues) {
+			this.context = context;
+			this.residues = residues;
+		}
+
+		/**
+		 * Getter method for the context of these residues.
+		 *
+		 * @return The context which created these residues.
+		 */
+		public MultiModContext context() {
+			return context;
+		}
+
+		/**
+		 * Converts these residues to the integer they represent, reconstructing it on the first call.
+		 *
+		 * @return A {@code BigInteger} in {@code (-M/2, M/2]}.
+		 */
+		public BigInteger toBigInteger() {
+			return context.value(this);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Residues)) {
+				return false;
+			}
+
+			Residues other = (Residues) obj;
+			return context == other.context && Arrays.equals(residues, other.residues);
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(residues);
+		}
+
+		@Override
+		public String toString() {
+			return toBigInteger().toString();
+		}
+	}
+
+	/// INITIALIZERS
+
+
+	/**
+	 * Initializes a {@code MultiModContext} instance which represents every integer of magnitude
+	 * below {@code 2^capacity}. Throws {@code IllegalArgumentException} if the capacity is negative.
+	 *
+	 * @param capacity Capacity in bits.
+	 */
+	public MultiModContext(int capacity) {
+		this.system = new ResidueNumberSystem(capacity);
+		this.m = system.modulus();
+		this.half = LimbArithmetic.shiftRight(m, 1);
+	}
+
+	/// GETTERS
+
+
+	/**
+	 * Getter method for the capacity.
+	 *
+	 * @return Bits of magnitude which every value of this context fits in.
+	 */
+	public int capacity() {
+		return (int) system.capacity();
+	}
+
+	/**
+	 * Getter method for the number of primes, which is the number of residues of every value.
+	 *
+	 * @return Number of primes.
+	 */
+	public int length() {
+		return system.length();
+	}
+
+	/// CONVERSIONS
+
+
+	/**
+	 * Converts a value into residues. Throws {@code ArithmeticException} if the value does not fit the
+	 * capacity of this context.
+	 *
+	 * @param val Value.
+	 * @return The residues of {@code val}.
+	 */
+	public Residues residues(BigInteger val) {
+		int[] magnitude = val.magnitude();
+
+		if (LimbArithmetic.bitLength(magnitude) > system.capacity()) {
+			throw new ArithmeticException("overflow");
+		}
+
+		int[] residues = system.residues(magnitude);
+
+		// the system is linear, so the residues of -x are the negations of the residues of x.
+		Residues result = new Residues(this, val.signum() < 0 ? system.negate(residues) : residues);
+		result.value = val;
+		return result;
+	}
+
+	/**
+	 * Converts residues to the integer they represent, reconstructing it on the first call.
+	 *
+	 * @param a Residues.
+	 * @return A {@code BigInteger} in {@code (-M/2, M/2]}.
+	 */
+	public BigInteger value(Residues a) {
+		BigInteger value = a.value;
+
+		if (value == null) {
+			int[] x = system.reconstruct(check(a));
+
+			if (LimbArithmetic.compare(x, half) > 0) {
+				int[] magnitude = LimbArithmetic.trim(LimbArithmetic.subtract(m, x));
+				value = new BigInteger(-1, magnitude);
+			} else {
+				value = new BigInteger(x.length == 0 ? 0 : 1, x);
+			}
+
+			a.value = value;
+		}
+
+		return value;
+	}
+
+	/// RESIDUE ARITHMETIC
+
+
+	/**
+	 * Adds two values.
+	 *
+	 * @param a Residues.
+	 * @param b Residues.
+	 * @return {@code a + b}.
+	 */
+	public Residues add(Residues a, Residues b) {
+		return new Residues(this, system.add(check(a), check(b)));
+	}
+
+	/**
+	 * Subtracts one value from another.
+	 *
+	 * @param a Residues.
+	 * @param b Residues.
+	 * @return {@code a - b}.
+	 */
+	public Residues subtract(Residues a, Residues b) {
+		return new Residues(this, system.subtract(check(a), check(b)));
+	}
+
+	/**
+	 * Negates a value.
+	 *
+	 * @param a Residues.
+	 * @return {@code -a}.
+	 */
+	public Residues negate(Residues a) {
+		return new Residues(this, system.negate(check(a)));
+	}
+
+	/**
+	 * Multiplies two values.
+	 *
+	 * @param a Residues.
+	 * @param b Residues.
+	 * @return {@code a * b}.
+	 */
+	public Residues multiply(Residues a, Residues b) {
+		return new Residues(this, system.multiply(check(a), check(b)));
+	}
+
+	/**
+	 * Computes the determinant of a square matrix, by a separate Gaussian elimination modulo each
+	 * prime. Throws {@code IllegalArgumentException} if the matrix is not square.
+	 *
+	 * @param matrix Square matrix.
+	 * @return The determinant of {@code matrix}.
+	 */
+	public Residues determinant(Residues[][] matrix) {
+		int[][][] entries = new int[matrix.length][][];
+
+		for (int i = 0; i < matrix.length; i++) {
+			if (matrix[i].length != matrix.length) {
+				throw new IllegalArgumentException("matrix not square");
+			}
+
+			entries[i] = new int[matrix.length][];
+
+			for (int j = 0; j < matrix.length; j++) {
+				entries[i][j] = check(matrix[i][j]);
+			}
+		}
+
+		return new Residues(this, system.determinant(entries));
+	}
+
+	/// BIGINTEGER ARITHMETIC
+
+
+	/**
+	 * Computes the determinant of a square matrix of integers. The capacity of this context must
+	 * cover the determinant, for example through Hadamard's bound: the product of the Euclidean norms
+	 * of the rows. Throws {@code IllegalArgumentException} if the matrix is not square.
+	 *
+	 * @param matrix Square matrix.
+	 * @return The determinant of {@code matrix}.
+	 */
+	public BigInteger determinant(BigInteger[][] matrix) {
+		Residues[][] residues = new Residues[matrix.length][];
+
+		for (int i = 0; i < matrix.length; i++) {
+			residues[i] = new Residues[matrix[i].length];
+
+			for (int j = 0; j < matrix[i].length; j++) {
+				residues[i][j] = residues(matrix[i][j]);
+			}
+		}
+
+		return value(determinant(residues));
+	}
+
+	/**
+	 * Multiplies two polynomials with integer coefficients. Each coefficient of the product is summed
+	 * in residues, so the capacity of this context must cover the coefficients of the product.
+	 *
+	 * @param a Coefficients, from the constant term up.
+	 * @param b Coefficients, from the constant term up.
+	 * @return The coefficients of {@code a * b}, from the constant term up.
+	 */
+	public BigInteger[] multiply(BigInteger[] a, BigInteger[] b) {
+		if (a.length == 0 || b.length == 0) {
+			return new BigInteger[0];
+		}
+
+		Residues[] x = new Residues[a.length];
+		Residues[] y = new Residues[b.length];
+
+		for (int i = 0; i < a.length; i++) {
+			x[i] = residues(a[i]);
+		}
+
+		for (int j = 0; j < b.length; j++) {
+			y[j] = residues(b[j]);
+		}
+
+		Residues[] product = new Residues[a.length + b.length - 1];
+		Arrays.fill(product, new Residues(this, new int[system.length()]));
+
+		for (int i = 0; i < a.length; i++) {
+			for (int j = 0; j < b.length; j++) {
+				product[i + j] = add(product[i + j], multiply(x[i], y[j]));
+			}
+		}
+
+		BigInteger[] result = new BigInteger[product.length];
+
+		for (int k = 0; k < result.length; k++) {
+			result[k] = value(product[k]);
+		}
+
+		return result;
+	}
+
+	/// HELPERS
+
+
+	/**
+	 * Returns the residue vector of residues of this context. Throws {@code IllegalArgumentException}
+	 * if the residues belong to another context.
+	 */
+	private int[] check(Residues a) {
+		if (a.context != this) {
+			throw new IllegalArgumentException("residues of another context");
+		}
+
+		return a.residues;
+	}
+}
@@ -0,0 +1,413 @@
+package com.vijayiyer97.math;
+
+import java.util.Arrays;
+
+import com.vijayiyer97.util.LimbArithmetic;
+
+/**
+ * {@code MutableBigInteger} is an accumulator for long runs of arithmetic on a single value, such as
+ * sums and Horner evaluation of polynomials. Unlike {@code BigInteger}, every operation updates the
+ * value in place, in a limb buffer which only grows when a result no longer fits. A loop that
+ * reuses one accumulator therefore allocates nothing once its buffer has reached the size of the
+ * largest intermediate value.
+ * <p>
+ * The value is held as a signature and a magnitude of little-endian 32-bit limbs, and the kernels of
+ * {@code LimbArithmetic} operate on the buffer directly. Instances are not thread-safe.
+ *
+ * @author Vijay Iyer
+ *
+ */
+public final class MutableBigInteger {
+
+	// magnitude, with every limb at or above length zero.
+	private int[] value;
+	private int length;
+	private int signum;
+
+	/// INITIALIZERS
+
+
+	/**
+	 * Initializes a {@code MutableBigInteger} instance holding zero.
+	 */
+	public MutableBigInteger() {
+		value = new int[4];
+	}
+
+	/**
+	 * Initializes a {@code MutableBigInteger} instance holding a {@code long} value.
+	 *
+	 * @param val Initial value.
+	 */
+	public MutableBigInteger(long val) {
+		this();
+		set(val);
+	}
+
+	/**
+	 * Initializes a {@code MutableBigInteger} instance holding the value of a {@code BigInteger}.
+	 *
+	 * @param val Initial value.
+	 */
+	public MutableBigInteger(BigInteger val) {
+		this();
+		set(val);
+	}
+
+	/// GETTERS
+
+
+	/**
+	 * Getter method for the signature of the value.
+	 *
+	 * @return {@code -1}, {@code 0} or {@code 1}.
+	 */
+	public int signum() {
+		return signum;
+	}
+
+	/**
+	 * Checks whether the value is zero.
+	 *
+	 * @return {@code true} if the value is zero, {@code false} otherwise.
+	 */
+	public boolean isZero() {
+		return signum == 0;
+	}
+
+	/**
+	 * Getter method for a copy of the magnitude as little-endian 32-bit limbs.
+	 *
+	 * @return A new magnitude array.
+	 */
+	int[] magnitude() {
+		return Arrays.copyOf(value, length);
+	}
+
+	/**
+	 * Converts the value to an immutable {@code BigInteger} instance.
+	 *
+	 * @return A new {@code BigInteger} instance.
+	 */
+	public BigInteger toBigInteger() {
+		return new BigInteger(signum, magnitude());
+	}
+
+	/// SETTERS
+
+
+	/**
+	 * Sets the value to zero, keeping the buffer.
+	 */
+	public void clear() {
+		Arrays.fill(value, 0, length, 0);
+		length = 0;
+		signum = 0;
+	}
+
+	/**
+	 * Sets the value to a {@code long} value, keeping the buffer.
+	 *
+	 * @param val New value.
+	 */
+	public void set(long val) {
+		clear();
+
+		long magnitude = Math.abs(val);
+		value[0] = (int) magnitude;
+		value[1] = (int) (magnitude >>> 32);
+		length = value[1] != 0 ? 2 : value[0] != 0 ? 1 : 0;
+		signum = Long.signum(val);
+	}
+
+	/**
+	 * Sets the value to the value of a {@code BigInteger}, keeping the buffer if it is large enough.
+	 *
+	 * @param val New value.
+	 */
+	public void set(BigInteger val) {
+		int[] magnitude = val.magnitude();
+		int n = LimbArithmetic.length(magnitude);
+
+		clear();
+		ensureCapacity(n);
+		System.arraycopy(magnitude, 0, value, 0, n);
+		length = n;
+		signum = n == 0 ? 0 : val.signum();
+	}
+
+	/// IN-PLACE ARITHMETIC
+
+
+	/**
+	 * Adds a value to this accumulator in place.
+	 *
+	 * @param val Value to add.
+	 */
+	public void addTo(MutableBigInteger val) {
+		accumulate(val.value, val.length, val.signum);
+	}
+
+	/**
+	 * Adds a value to this accumulator in place.
+	 *
+	 * @param val Value to add.
+	 */
+	public void addTo(BigInteger val) {
+		int[] magnitude = val.magnitude();
+		accumulate(magnitude, LimbArithmetic.length(magnitude), val.signum());
+	}
+
+	/**
+	 * Adds a value to this accumulator in place.
+	 *
+	 * @param val Value to add.
+	 */
+	public void addTo(long val) {
+		long magnitude = Math.abs(val);
+		int[] limbs = { (int) magnitude, (int) (magnitude >>> 32) };
+		accumulate(limbs, LimbArithmetic.length(limbs), Long.signum(val));
+	}
+
+	/**
+	 * Subtracts a value from this accumulator in place.
+	 *
+	 * @param val Value to subtract.
+	 */
+	public void subtractFrom(MutableBigInteger val) {
+		accumulate(val.value, val.length, -val.signum);
+	}
+
+	/**
+	 * Subtracts a value from this accumulator in place.
+	 *
+	 * @param val Value to subtract.
+	 */
+	public void subtractFrom(BigInteger val) {
+		int[] magnitude = val.magnitude();
+		accumulate(magnitude, LimbArithmetic.length(magnitude), -val.signum());
+	}
+
+	/**
+	 * Subtracts a value from this accumulator in place.
+	 *
+	 * @param val Value to subtract.
+	 */
+	public void subtractFrom(long val) {
+		long magnitude = Math.abs(val);
+		int[] limbs = { (int) magnitude, (int) (magnitude >>> 32) };
+		accumulate(limbs, LimbArithmetic.length(limbs), -Long.signum(val));
+	}
+
+	/**
+	 * Multiplies this accumulator by an {@code int} and adds another in place, in a single pass over
+	 * the buffer unless the addend has the opposite sign of the product. Repeated calls evaluate a
+	 * polynomial with small coefficients by Horner's rule.
+	 *
+	 * @param multiplier Value to multiply by.
+	 * @param addend Value to add after multiplying.
+	 */
+	public void multiplyAdd(int multiplier, int addend) {
+		if (multiplier == 0 || signum == 0) {
+			set(addend);
+			return;
+		}
+
+		if (multiplier < 0) {
+			signum = -signum;
+		}
+
+		// an addend of the product's sign is added by the kernel itself, and only one of the other
+		// sign takes a second pass.
+		boolean fused = Integer.signum(addend) != -signum;
+
+		ensureCapacity(length + 1);
+
+		int carry = LimbArithmetic.multiplyAdd(value, value, length, (int) Math.abs((long) multiplier),
+				fused ? (int) Math.abs((long) addend) : 0);
+		value[length] = carry;
+
+		if (carry != 0) {
+			length++;
+		}
+
+		if (!fused) {
+			addTo(addend);
+		}
+	}
+
+	/**
+	 * Shifts this accumulator in place, to the left for a positive distance and to the right for a
+	 * negative one. A right shift discards the bits shifted out of the magnitude, so it rounds toward
+	 * zero.
+	 *
+	 * @param n Number of bits to shift left by.
+	 */
+	public void shiftInPlace(int n) {
+		if (n == 0 || signum == 0) {
+			return;
+		} else if (n > 0) {
+			shiftLeft(n);
+		} else {
+			shiftRight(-n);
+		}
+	}
+
+	/**
+	 * Divides this accumulator by an {@code int} in place, rounding toward zero. Throws
+	 * {@code ArithmeticException} if the divisor is zero.
+	 *
+	 * @param divisor Value to divide by.
+	 * @return The remainder, which takes the signature of the dividend.
+	 */
+	public int divideByInt(int divisor) {
+		if (divisor == 0) {
+			throw new ArithmeticException("division by zero");
+		} else if (signum == 0) {
+			return 0;
+		}
+
+		int sign = signum;
+		int remainder = LimbArithmetic.divideByInt(value, value, length, (int) Math.abs((long) divisor));
+
+		normalize();
+
+		if (signum != 0 && divisor < 0) {
+			signum = -signum;
+		}
+
+		return sign < 0 ? -remainder : remainder;
+	}
+
+	/// HELPERS
+
+
+	/**
+	 * Adds {@code sign * b} to the value in place.
+	 */
+	private void accumulate(int[] b, int bLen, int sign) {
+		if (sign == 0 || bLen == 0) {
+			return;
+		} else if (signum == 0) {
+			ensureCapacity(bLen);
+			System.arraycopy(b, 0, value, 0, bLen);
+			length = bLen;
+			signum = sign;
+			return;
+		}
+
+		if (sign == signum) {
+			int n = Math.max(length, bLen);
+			ensureCapacity(n + 1);
+
+			int carry = bLen <= length
+					? LimbArithmetic.add(value, value, n, b, bLen)
+					: LimbArithmetic.add(value, b, n, value, length);
+
+			value[n] = carry;
+			length = carry != 0 ? n + 1 : n;
+			return;
+		}
+
+		int cmp = compareMagnitude(b, bLen);
+
+		if (cmp == 0) {
+			clear();
+		} else if (cmp > 0) {
+			LimbArithmetic.subtract(value, value, length, b, bLen);
+			normalize();
+		} else {
+			ensureCapacity(bLen);
+			LimbArithmetic.subtract(value, b, bLen, value, length);
+			length = bLen;
+			signum = sign;
+			normalize();
+		}
+	}
+
+	private int compareMagnitude(int[] b, int bLen) {
+		if (length != bLen) {
+			return length - bLen;
+		}
+
+		for (int i = length - 1; i >= 0; i--) {
+			if (value[i] != b[i]) {
+				return Integer.compareUnsigned(value[i], b[i]);
+			}
+		}
+
+		return 0;
+	}
+
+	private void shiftLeft(int n) {
+		int limbs = n >>> 5;
+		int bits = n & 31;
+
+		ensureCapacity(length + limbs + 1);
+
+		if (bits == 0) {
+			System.arraycopy(value, 0, value, limbs, length);
+		} else {
+			value[length + limbs] = value[length - 1] >>> (32 - bits);
+
+			for (int i = length - 1; i > 0; i--) {
+				value[i + limbs] = (value[i] << bits) | (value[i - 1] >>> (32 - bits));
+			}
+
+			value[limbs] = value[0] << bits;
+		}
+
+		Arrays.fill(value, 0, limbs, 0);
+		length += limbs + 1;
+		normalize();
+	}
+
+	private void shiftRight(int n) {
+		int limbs = n >>> 5;
+		int bits = n & 31;
+
+		if (limbs >= length) {
+			clear();
+			return;
+		}
+
+		int newLength = length - limbs;
+
+		if (bits == 0) {
+			System.arraycopy(value, limbs, value, 0, newLength);
+		} else {
+			for (int i = 0; i < newLength - 1; i++) {
+				value[i] = (value[i + limbs] >>> bits) | (value[i + limbs + 1] << (32 - bits));
+			}
+
+			value[newLength - 1] = value[length - 1] >>> bits;
+		}
+
+		Arrays.fill(value, newLength, length, 0);
+		length = newLength;
+		normalize();
+	}
+
+	/**
+	 * Drops leading zero limbs from the length, and resets the signature of a zero value.
+	 */
+	private void normalize() {
+		while (length > 0 && value[length - 1] == 0) {
+			length--;
+		}
+
+		if (length == 0) {
+			signum = 0;
+		}
+	}
+
+	/**
+	 * Grows the buffer to hold at least {@code n} limbs, at least doubling it so that a growing value
+	 * is copied a logarithmic number of times.
+	 */
+	private void ensureCapacity(int n) {
+		if (value.length < n) {
+			value = Arrays.copyOf(value, Math.max(n, value.length * 2));
+		}
+	}
+}
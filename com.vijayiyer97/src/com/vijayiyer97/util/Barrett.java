@@ -0,0 +1,177 @@
+package com.vijayiyer97.util;
+
+import java.util.Arrays;
+
+/**
+ * Barrett reduction modulo a fixed modulus {@code m} of {@code n} limbs, which may be even. The
+ * reciprocal {@code mu = floor(2^(64n) / m)} is computed once, when the instance is created, and
+ * reduces any value below {@code m^2} with two multiplications and at most two subtractions,
+ * instead of a long division.
+ * <p>
+ * Residues are arrays of exactly {@code n} limbs. Instances are immutable and may be shared between
+ * threads.
+ *
+ * @author Vijay Iyer
+ *
+ */
+public final class Barrett {
+
+	private static final long LONG_MASK = LimbArithmetic.LONG_MASK;
+
+	private final int[] modulus;
+	private final int n;
+	private final int[] mu;
+
+	/// INITIALIZERS
+
+
+	/**
+	 * Initializes a {@code Barrett} instance for a non-zero modulus. Throws
+	 * {@code ArithmeticException} if the modulus is zero.
+	 *
+	 * @param modulus Modulus, as little-endian 32-bit limbs.
+	 */
+	public Barrett(int[] modulus) {
+		this.n = LimbArithmetic.length(modulus);
+
+		if (n == 0) {
+			throw new ArithmeticException("division by zero");
+		}
+
+		this.modulus = Arrays.copyOf(modulus, n);
+		this.mu = LimbArithmetic.trim(
+				LimbArithmetic.divideAndRemainder(LimbArithmetic.shiftLeft(LimbArithmetic.ONE, 64 * n), modulus)[0]);
+	}
+
+	/// GETTERS
+
+
+	/**
+	 * Getter method for the modulus.
+	 *
+	 * @return A new magnitude array.
+	 */
+	public int[] modulus() {
+		return modulus.clone();
+	}
+
+	/**
+	 * Getter method for the number of limbs of a residue.
+	 *
+	 * @return Number of limbs.
+	 */
+	public int length() {
+		return n;
+	}
+
+	/// ARITHMETIC
+
+
+	/**
+	 * Reduces a magnitude modulo the modulus. Values below {@code 2^(64n)}, which include every
+	 * product of two residues, take Barrett's method, and longer values a long division.
+	 *
+	 * @param a Magnitude.
+	 * @return A new residue.
+	 */
+	public int[] reduce(int[] a) {
+		int aLen = LimbArithmetic.length(a);
+
+		if (aLen < n || (aLen == n && LimbArithmetic.compare(a, modulus, n) < 0)) {
+			return Arrays.copyOf(a, n);
+		} else if (aLen > 2 * n) {
+			return Arrays.copyOf(LimbArithmetic.divideAndRemainder(a, modulus)[1], n);
+		}
+
+		int[] x = Arrays.copyOf(a, 2 * n);
+		int k = n + 1;
+
+		// q = floor(floor(x / b^(n - 1)) mu / b^(n + 1)), with b = 2^32, falls short of x / m by at
+		// most two. Columns of the product below n - 1 are skipped, which costs at most one more.
+		int[] p = new int[2 * k + 1];
+
+		for (int i = 0; i < k; i++) {
+			long qi = x[n - 1 + i] & LONG_MASK;
+			long carry = 0;
+			int j = Math.max(0, n - 1 - i);
+
+			for (; j < mu.length; j++) {
+				carry += (p[i + j] & LONG_MASK) + qi * (mu[j] & LONG_MASK);
+				p[i + j] = (int) carry;
+				carry >>>= 32;
+			}
+
+			p[i + j] = (int) carry;
+		}
+
+		// r = x - q m modulo b^(n + 1), which is exact since the difference is below 3m.
+		int[] r = Arrays.copyOf(x, k);
+		int[] qm = new int[k];
+
+		for (int i = 0; i < k; i++) {
+			long qi = p[k + i] & LONG_MASK;
+			long carry = 0;
+
+			for (int j = 0; j < n && i + j < k; j++) {
+				carry += (qm[i + j] & LONG_MASK) + qi * (modulus[j] & LONG_MASK);
+				qm[i + j] = (int) carry;
+				carry >>>= 32;
+			}
+
+			if (i + n < k) {
+				qm[i + n] = (int) carry;
+			}
+		}
+
+		LimbArithmetic.subtract(r, r, k, qm, k);
+
+		while (r[n] != 0 || LimbArithmetic.compare(r, modulus, n) >= 0) {
+			LimbArithmetic.subtract(r, r, k, modulus, n);
+		}
+
+		return Arrays.copyOf(r, n);
+	}
+
+	/**
+	 * Multiplies two residues.
+	 *
+	 * @param a Residue.
+	 * @param b Residue.
+	 * @return A new residue of the product.
+	 */
+	public int[] multiply(int[] a, int[] b) {
+		return reduce(LimbArithmetic.multiply(a, b));
+	}
+
+	/**
+	 * Squares a residue.
+	 *
+	 * @param a Residue.
+	 * @return A new residue of the square.
+	 */
+	public int[] square(int[] a) {
+		return reduce(LimbArithmetic.square(a));
+	}
+
+	/**
+	 * Raises a residue to a power by left-to-right binary exponentiation.
+	 *
+	 * @param base Residue.
+	 * @param exponent Non-negative exponent.
+	 * @return A new residue, {@code base^exponent mod m}.
+	 */
+	public int[] pow(int[] base, int[] exponent) {
+		long bits = LimbArithmetic.bitLength(exponent);
+		int[] result = reduce(LimbArithmetic.ONE);
+
+		for (long i = bits - 1; i >= 0; i--) {
+			result = square(result);
+
+			if ((exponent[(int) (i >>> 5)] >>> i & 1) == 1) {
+				result = multiply(result, base);
+			}
+		}
+
+		return result;
+	}
+}
@@ -0,0 +1,397 @@
+package com.vijayiyer97.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.util.NoSuchElementException;
+
+/**
+ * A stream of bit fields read from a {@code ByteBuffer}, a {@code ReadableByteChannel}, a byte array
+ * or a {@code BitSet}. The source is loaded into a 64-bit accumulator a whole word at a time, and
+ * fields of up to 64 bits are extracted from it with shifts. Bits are read in the order
+ * {@code BitOutput} writes them, and every code written by {@code BitOutput} has a matching read
+ * method here.
+ * <p>
+ * Reading past the end of the source throws {@code NoSuchElementException}.
+ *
+ * @author Vijay Iyer
+ *
+ */
+public final class BitInput implements Closeable {
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private final ByteBuffer buffer;
+	private final ReadableByteChannel channel;
+
+	// whether the channel has reached the end of its stream.
+	private boolean eof = false;
+
+	// unread bits, right-aligned.
+	private long acc = 0;
+	private int count = 0;
+
+	private long position = 0;
+
+	// number of bits in the source, if known in advance.
+	private final long limit;
+
+	/// INITIALIZERS
+
+
+	/**
+	 * Initializes a {@code BitInput} instance that reads from a {@code ByteBuffer}, starting at its
+	 * current position.
+	 *
+	 * @param buffer Buffer to read from.
+	 */
+	public BitInput(ByteBuffer buffer) {
+		this.buffer = buffer;
+		this.channel = null;
+		this.limit = Long.MAX_VALUE;
+	}
+
+	/**
+	 * Initializes a {@code BitInput} instance that reads from a byte array.
+	 *
+	 * @param bytes Bytes to read from.
+	 */
+	public BitInput(byte[] bytes) {
+		this(ByteBuffer.wrap(bytes));
+	}
+
+	/**
+	 * Initializes a {@code BitInput} instance that reads from a {@code ReadableByteChannel} through an
+	 * internal buffer.
+	 *
+	 * @param channel Channel to read from.
+	 */
+	public BitInput(ReadableByteChannel channel) {
+		this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		this.buffer.limit(0);
+		this.channel = channel;
+		this.limit = Long.MAX_VALUE;
+	}
+
+	/**
+	 * Initializes a {@code BitInput} instance that reads the significand of a {@code BitSet}, where bit
+	 * {@code i} of the stream is bit {@code i} of the set.
+	 *
+	 * @param bitSet Bit set to read from.
+	 */
+	public BitInput(BitSet bitSet) {
+		long[] words = bitSet.toWords();
+		byte[] bytes = new byte[(bitSet.len + 7) >>> 3];
+
+		for (int j = 0; j < bytes.length; j++) {
+			int b = (int) (words[j >>> 3] >>> ((j & 7) << 3)) & 0xFF;
+			bytes[j] = (byte) (Integer.reverse(b) >>> 24);
+		}
+
+		this.buffer = ByteBuffer.wrap(bytes);
+		this.channel = null;
+		this.limit = bitSet.len;
+	}
+
+	/// GETTERS
+
+
+	/**
+	 * Getter method for the number of bits read so far.
+	 *
+	 * @return Number of bits read.
+	 */
+	public long position() {
+		return position;
+	}
+
+	/**
+	 * Checks whether at least one more bit can be read.
+	 *
+	 * @return {@code true} if more bits remain, {@code false} otherwise.
+	 */
+	public boolean hasNext() {
+		if (position >= limit) {
+			return false;
+		} else if (count == 0) {
+			refill();
+		}
+
+		return count > 0;
+	}
+
+	/// BIT FIELDS
+
+
+	/**
+	 * Reads a single bit.
+	 *
+	 * @return The bit read.
+	 */
+	public int readBit() {
+		return (int) readBits(1);
+	}
+
+	/**
+	 * Reads an {@code n}-bit field, most significant bit first.
+	 *
+	 * @param n Number of bits, from 0 to 64.
+	 * @return The field, right-aligned.
+	 */
+	public long readBits(int n) {
+		if (n < 0 || n > 64) {
+			throw BitSet.ILLEGAL_OPERATION;
+		} else if (n == 0) {
+			return 0;
+		} else if (position + n > limit) {
+			throw new NoSuchElementException("end of bit stream.");
+		}
+
+		position += n;
+
+		if (n <= count) {
+			count -= n;
+			return (acc >>> count) & mask(n);
+		}
+
+		long high = acc & mask(count);
+		int need = n - count;
+
+		count = 0;
+		refill();
+
+		if (count < need) {
+			throw new NoSuchElementException("end of bit stream.");
+		}
+
+		count -= need;
+		long low = (acc >>> count) & mask(need);
+
+		return need == 64 ? low : (high << need) | low;
+	}
+
+	/**
+	 * Reads a unary code: the number of zero bits before the next one bit. Whole runs of zeros in the
+	 * accumulator are skipped with a single leading-zero count.
+	 *
+	 * @return The value read.
+	 */
+	public long readUnary() {
+		long n = 0;
+
+		while (true) {
+			if (count == 0) {
+				refill();
+
+				if (count == 0) {
+					throw new NoSuchElementException("end of bit stream.");
+				}
+			}
+
+			long bits = acc & mask(count);
+
+			if (bits == 0) {
+				n += count;
+				position += count;
+				count = 0;
+			} else {
+				int zeros = Long.numberOfLeadingZeros(bits) - (64 - count);
+
+				n += zeros;
+				count -= zeros + 1;
+				position += zeros + 1;
+
+				if (position > limit) {
+					throw new NoSuchElementException("end of bit stream.");
+				}
+
+				return n;
+			}
+		}
+	}
+
+	/// VARIABLE-LENGTH CODES
+
+
+	/**
+	 * Reads an unsigned LEB128 varint.
+	 *
+	 * @return The value read.
+	 */
+	public long readVarint() {
+		long value = 0;
+
+		for (int shift = 0; shift < 64; shift += 7) {
+			long b = readBits(8);
+			value |= (b & 0x7F) << shift;
+
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+
+		throw new NumberFormatException("varint is longer than 64 bits.");
+	}
+
+	/**
+	 * Reads a zigzag-encoded varint.
+	 *
+	 * @return The value read.
+	 */
+	public long readZigZag() {
+		long value = readVarint();
+
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	/**
+	 * Reads an Elias gamma code.
+	 *
+	 * @return The value read.
+	 */
+	public long readEliasGamma() {
+		int n = (int) readUnary();
+
+		if (n > 63) {
+			throw new NumberFormatException("Elias gamma code is longer than 64 bits.");
+		}
+
+		return (1L << n) | readBits(n);
+	}
+
+	/**
+	 * Reads an Elias delta code.
+	 *
+	 * @return The value read.
+	 */
+	public long readEliasDelta() {
+		long n = readEliasGamma() - 1;
+
+		if (n > 63) {
+			throw new NumberFormatException("Elias delta code is longer than 64 bits.");
+		}
+
+		return (1L << n) | readBits((int) n);
+	}
+
+	/**
+	 * Reads a Golomb-Rice code with parameter {@code 2^k}.
+	 *
+	 * @param k Rice parameter, from 0 to 63.
+	 * @return The value read.
+	 */
+	public long readRice(int k) {
+		if (k < 0 || k > 63) {
+			throw BitSet.ILLEGAL_OPERATION;
+		}
+
+		long q = readUnary();
+
+		return (q << k) | readBits(k);
+	}
+
+	/**
+	 * Reads a Golomb code with parameter {@code m}.
+	 *
+	 * @param m Golomb parameter. Must be positive.
+	 * @return The value read.
+	 */
+	public long readGolomb(long m) {
+		if (m <= 0) {
+			throw BitSet.ILLEGAL_OPERATION;
+		}
+
+		long q = readUnary();
+
+		if (m == 1) {
+			return q;
+		}
+
+		int b = 64 - Long.numberOfLeadingZeros(m - 1);
+		long cutoff = (1L << b) - m;
+		long r = readBits(b - 1);
+
+		if (r >= cutoff) {
+			r = ((r << 1) | readBits(1)) - cutoff;
+		}
+
+		return q * m + r;
+	}
+
+	/// STREAM CONTROL
+
+
+	/**
+	 * Skips the remaining bits of the current byte.
+	 */
+	public void alignToByte() {
+		int skip = (int) ((8 - (position & 7)) & 7);
+
+		if (skip > 0) {
+			readBits(skip);
+		}
+	}
+
+	/**
+	 * Closes the channel, if any.
+	 */
+	@Override
+	public void close() {
+		if (channel != null) {
+			try {
+				channel.close();
+			} catch (IOException except) {
+				throw new IllegalStateException(except);
+			}
+		}
+	}
+
+	/// HELPERS
+
+
+	private static long mask(int n) {
+		return n == 0 ? 0 : -1L >>> (64 - n);
+	}
+
+	/**
+	 * Loads the next word of the source into the empty accumulator, or as many bytes as remain if
+	 * the source holds less than a word.
+	 */
+	private void refill() {
+		if (buffer.remaining() < 8 && channel != null && !eof) {
+			fill();
+		}
+
+		if (buffer.remaining() >= 8) {
+			long word = buffer.getLong();
+			acc = buffer.order() == ByteOrder.BIG_ENDIAN ? word : Long.reverseBytes(word);
+			count = 64;
+		} else {
+			acc = 0;
+
+			while (buffer.hasRemaining()) {
+				acc = (acc << 8) | (buffer.get() & 0xFF);
+				count += 8;
+			}
+		}
+	}
+
+	private void fill() {
+		buffer.compact();
+
+		try {
+			while (buffer.position() < 8) {
+				if (channel.read(buffer) < 0) {
+					eof = true;
+					break;
+				}
+			}
+		} catch (IOException except) {
+			throw new IllegalStateException(except);
+		}
+
+		buffer.flip();
+	}
+}
@@ -0,0 +1,586 @@
+package com.vijayiyer97.util;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A two-dimensional bit matrix. Each row is packed into contiguous 64-bit words, so row operations,
+ * transposition and boolean matrix multiplication all run a word at a time rather than a bit at a
+ * time. Rows are exchanged with the rest of the library as {@code BitSet} instances, where column
+ * {@code j} of a row is bit {@code j} of the set.
+ *
+ * @author Vijay Iyer
+ *
+ */
+public final class BitMatrix implements Cloneable, Serializable {
+
+	/**
+	 * Allows serialization of this object.
+	 */
+	private static final long serialVersionUID = 2188563617041951604L;
+
+	/**
+	 * Number of rows of the multiplicand combined into each lookup table of the four Russians method.
+	 */
+	private static final int RUSSIANS_BITS = 8;
+
+	private final int rows;
+	private final int columns;
+
+	// the number of words used to store a single row.
+	private final int stride;
+
+	/**
+	 * The packed rows of the matrix. Row {@code i} occupies words {@code [i * stride, (i + 1) * stride)}.
+	 * Bits beyond the last column are always zero.
+	 */
+	private final long[] words;
+
+	/// INITIALIZERS
+
+
+	/**
+	 * Initializes a zero matrix with the given dimensions.
+	 *
+	 * @param rows Number of rows.
+	 * @param columns Number of columns.
+	 */
+	public BitMatrix(int rows, int columns) {
+		if (rows < 0 || columns < 0) {
+			throw new NegativeArraySizeException("matrix dimensions must be non-negative.");
+		}
+
+		this.rows = rows;
+		this.columns = columns;
+		this.stride = (columns + 63) >>> 6;
+		this.words = new long[rows * stride];
+	}
+
+	/**
+	 * Initializes a matrix from an array of rows. Bits of a row beyond the last column are ignored.
+	 *
+	 * @param rows Rows of the matrix.
+	 * @param columns Number of columns.
+	 */
+	public BitMatrix(BitSet[] rows, int columns) {
+		this(rows.length, columns);
+
+		for (int i = 0; i < rows.length; i++) {
+			setRow(i, rows[i]);
+		}
+	}
+
+	/**
+	 * Initializes a square matrix from an array of rows, such as the rows of an adjacency matrix.
+	 *
+	 * @param rows Rows of the matrix.
+	 */
+	public BitMatrix(BitSet[] rows) {
+		this(rows, rows.length);
+	}
+
+	/**
+	 * Initializes a {@code BitMatrix} instance from another {@code BitMatrix} instance.
+	 *
+	 * @param other {@code BitMatrix} instance.
+	 */
+	public BitMatrix(BitMatrix other) {
+		this.rows = other.rows;
+		this.columns = other.columns;
+		this.stride = other.stride;
+		this.words = other.words.clone();
+	}
+
+	/**
+	 * Creates an identity matrix.
+	 *
+	 * @param n Number of rows and columns.
+	 * @return A new {@code BitMatrix} instance.
+	 */
+	public static BitMatrix identity(int n) {
+		BitMatrix identity = new BitMatrix(n, n);
+
+		for (int i = 0; i < n; i++) {
+			identity.set(i, i);
+		}
+
+		return identity;
+	}
+
+	@Override
+	public BitMatrix clone() {
+		return new BitMatrix(this);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+
+		if (!(obj instanceof BitMatrix)) {
+			return false;
+		}
+
+		BitMatrix other = (BitMatrix) obj;
+		return rows == other.rows && columns == other.columns && Arrays.equals(words, other.words);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * (31 * rows + columns) + Arrays.hashCode(words);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder str = new StringBuilder(rows * (columns + 1));
+
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < columns; j++) {
+				str.append(get(i, j));
+			}
+
+			if (i < rows - 1) {
+				str.append('\n');
+			}
+		}
+
+		return str.toString();
+	}
+
+	/// GETTERS
+
+
+	/**
+	 * Getter method for the number of rows.
+	 *
+	 * @return Number of rows.
+	 */
+	public int rows() {
+		return rows;
+	}
+
+	/**
+	 * Getter method for the number of columns.
+	 *
+	 * @return Number of columns.
+	 */
+	public int columns() {
+		return columns;
+	}
+
+	/**
+	 * Getter method for a single bit in the matrix. Throws {@code UnsupportedOperationException} if
+	 * the position lies outside of the matrix.
+	 *
+	 * @param row Row index.
+	 * @param column Column index.
+	 * @return Bit at the given position.
+	 */
+	public int get(int row, int column) {
+		int index = index(row, column);
+
+		return (int) (words[index] >>> column) & 1;
+	}
+
+	/**
+	 * Copies a row of the matrix into a new {@code BitSet} instance.
+	 *
+	 * @param row Row index.
+	 * @return A new {@code BitSetLE} instance.
+	 */
+	public BitSetLE getRow(int row) {
+		checkRow(row);
+
+		long[] rowWords = Arrays.copyOfRange(words, row * stride, (row + 1) * stride);
+
+		return new BitSetLE(rowWords, columns);
+	}
+
+	/**
+	 * Counts the set bits of a row.
+	 *
+	 * @param row Row index.
+	 * @return Number of set bits.
+	 */
+	public int cardinality(int row) {
+		checkRow(row);
+
+		int count = 0;
+
+		for (int k = row * stride; k < (row + 1) * stride; k++) {
+			count += Long.bitCount(words[k]);
+		}
+
+		return count;
+	}
+
+	/**
+	 * Counts the set bits of the matrix.
+	 *
+	 * @return Number of set bits.
+	 */
+	public int cardinality() {
+		int count = 0;
+
+		for (long word: words) {
+			count += Long.bitCount(word);
+		}
+
+		return count;
+	}
+
+	/// BIT MANIPULATION
+
+
+	/**
+	 * Sets the bit at a given position to {@code 1}.
+	 *
+	 * @param row Row index.
+	 * @param column Column index.
+	 */
+	public void set(int row, int column) {
+		words[index(row, column)] |= 1L << column;
+	}
+
+	/**
+	 * Sets the bit at a given position to {@code 0}.
+	 *
+	 * @param row Row index.
+	 * @param column Column index.
+	 */
+	public void clear(int row, int column) {
+		words[index(row, column)] &= ~(1L << column);
+	}
+
+	/**
+	 * Inverts the bit at a given position.
+	 *
+	 * @param row Row index.
+	 * @param column Column index.
+	 */
+	public void flip(int row, int column) {
+		words[index(row, column)] ^= 1L << column;
+	}
+
+	/**
+	 * Replaces a row of the matrix with the bits of a {@code BitSet} instance. Bits beyond the last
+	 * column are ignored.
+	 *
+	 * @param row Row index.
+	 * @param bitSet Bits of the new row.
+	 */
+	public void setRow(int row, BitSet bitSet) {
+		checkRow(row);
+
+		long[] rowWords = bitSet.toWords();
+		int n = rowWords.length < stride ? rowWords.length : stride;
+		int offset = row * stride;
+
+		Arrays.fill(words, offset, offset + stride, 0L);
+		System.arraycopy(rowWords, 0, words, offset, n);
+		maskRow(row);
+	}
+
+	/**
+	 * Performs the bitwise AND ({@code &}) of one row into another.
+	 *
+	 * @param target Index of the row to modify.
+	 * @param source Index of the row to mask with.
+	 */
+	public void andRow(int target, int source) {
+		checkRow(target);
+		checkRow(source);
+
+		int t = target * stride;
+		int s = source * stride;
+
+		for (int k = 0; k < stride; k++) {
+			words[t + k] &= words[s + k];
+		}
+	}
+
+	/**
+	 * Performs the bitwise OR ({@code |}) of one row into another.
+	 *
+	 * @param target Index of the row to modify.
+	 * @param source Index of the row to mask with.
+	 */
+	public void orRow(int target, int source) {
+		checkRow(target);
+		checkRow(source);
+
+		orRow(words, target * stride, words, source * stride, stride);
+	}
+
+	/**
+	 * Performs the bitwise XOR ({@code ^}) of one row into another.
+	 *
+	 * @param target Index of the row to modify.
+	 * @param source Index of the row to mask with.
+	 */
+	public void xorRow(int target, int source) {
+		checkRow(target);
+		checkRow(source);
+
+		int t = target * stride;
+		int s = source * stride;
+
+		for (int k = 0; k < stride; k++) {
+			words[t + k] ^= words[s + k];
+		}
+	}
+
+	/**
+	 * Exchanges two rows of the matrix.
+	 *
+	 * @param i Index of the first row.
+	 * @param j Index of the second row.
+	 */
+	public void swapRows(int i, int j) {
+		checkRow(i);
+		checkRow(j);
+
+		int a = i * stride;
+		int b = j * stride;
+
+		for (int k = 0; k < stride; k++) {
+			long temp = words[a + k];
+			words[a + k] = words[b + k];
+			words[b + k] = temp;
+		}
+	}
+
+	/// BITWISE OPERATIONS
+
+
+	/**
+	 * Performs the element-wise bitwise AND ({@code &}) operation.
+	 *
+	 * @param other {@code BitMatrix} to mask with.
+	 * @return This {@code BitMatrix} instance.
+	 */
+	public BitMatrix and(BitMatrix other) {
+		checkDimensions(other);
+
+		for (int k = 0; k < words.length; k++) {
+			words[k] &= other.words[k];
+		}
+
+		return this;
+	}
+
+	/**
+	 * Performs the element-wise bitwise OR ({@code |}) operation.
+	 *
+	 * @param other {@code BitMatrix} to mask with.
+	 * @return This {@code BitMatrix} instance.
+	 */
+	public BitMatrix or(BitMatrix other) {
+		checkDimensions(other);
+
+		for (int k = 0; k < words.length; k++) {
+			words[k] |= other.words[k];
+		}
+
+		return this;
+	}
+
+	/**
+	 * Performs the element-wise bitwise XOR ({@code ^}) operation.
+	 *
+	 * @param other {@code BitMatrix} to mask with.
+	 * @return This {@code BitMatrix} instance.
+	 */
+	public BitMatrix xor(BitMatrix other) {
+		checkDimensions(other);
+
+		for (int k = 0; k < words.length; k++) {
+			words[k] ^= other.words[k];
+		}
+
+		return this;
+	}
+
+	/// MATRIX OPERATIONS
+
+
+	/**
+	 * Transposes the matrix. The matrix is processed in 64 by 64 blocks, each of which is loaded into
+	 * 64 words, transposed in registers and stored into the opposite block of the result.
+	 *
+	 * @return A new {@code BitMatrix} instance.
+	 */
+	public BitMatrix transpose() {
+		BitMatrix result = new BitMatrix(columns, rows);
+		long[] block = new long[64];
+
+		for (int bi = 0; bi < rows; bi += 64) {
+			for (int bj = 0; bj < stride; bj++) {
+				int n = rows - bi < 64 ? rows - bi : 64;
+
+				for (int k = 0; k < n; k++) {
+					block[k] = words[(bi + k) * stride + bj];
+				}
+
+				Arrays.fill(block, n, 64, 0L);
+				transpose64(block);
+
+				int m = columns - (bj << 6) < 64 ? columns - (bj << 6) : 64;
+
+				for (int k = 0; k < m; k++) {
+					result.words[((bj << 6) + k) * result.stride + (bi >>> 6)] = block[k];
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Transposes a 64 by 64 bit block in place, where bit {@code j} of word {@code i} is the entry in
+	 * row {@code i} and column {@code j}. Quadrants of decreasing size are swapped recursively.
+	 *
+	 * @param a Block of 64 words.
+	 */
+	static void transpose64(long[] a) {
+		long m = 0x00000000FFFFFFFFL;
+
+		for (int j = 32; j != 0; j >>>= 1, m ^= m << j) {
+			for (int k = 0; k < 64; k = ((k | j) + 1) & ~j) {
+				long t = ((a[k] >>> j) ^ a[k | j]) & m;
+				a[k] ^= t << j;
+				a[k | j] ^= t;
+			}
+		}
+	}
+
+	/**
+	 * Performs the boolean matrix product of this matrix and another, where addition is OR and
+	 * multiplication is AND. Uses the method of four Russians: the rows of {@code other} are grouped
+	 * into blocks of {@value #RUSSIANS_BITS}, the OR of every subset of each block is tabulated, and each
+	 * row of the product then takes one table lookup per block instead of one row operation per bit.
+	 *
+	 * @param other {@code BitMatrix} to multiply by.
+	 * @return A new {@code BitMatrix} instance.
+	 */
+	public BitMatrix multiply(BitMatrix other) {
+		if (columns != other.rows) {
+			throw new UnsupportedOperationException("matrix dimensions do not agree.");
+		}
+
+		BitMatrix result = new BitMatrix(rows, other.columns);
+		int width = other.stride;
+		long[] table = new long[(1 << RUSSIANS_BITS) * width];
+
+		for (int g = 0; g < columns; g += RUSSIANS_BITS) {
+			int k = columns - g < RUSSIANS_BITS ? columns - g : RUSSIANS_BITS;
+
+			// table entry s is the OR of the rows g + i of other for every bit i set in s.
+			for (int s = 1; s < 1 << k; s++) {
+				int low = Integer.numberOfTrailingZeros(s);
+				int rest = s & (s - 1);
+
+				System.arraycopy(table, rest * width, table, s * width, width);
+				orRow(table, s * width, other.words, (g + low) * width, width);
+			}
+
+			int word = g >>> 6;
+			int shift = g & 63;
+			int mask = (1 << k) - 1;
+
+			for (int i = 0; i < rows; i++) {
+				int s = (int) (words[i * stride + word] >>> shift) & mask;
+
+				if (s != 0) {
+					orRow(result.words, i * width, table, s * width, width);
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Computes the transitive closure of a square matrix, treating it as the adjacency matrix of a
+	 * directed graph. Entry {@code (i, j)} of the result is set when {@code j} is reachable from
+	 * {@code i} by a path of at least one edge. Uses Warshall's algorithm, where each step is a single
+	 * row operation.
+	 *
+	 * @return A new {@code BitMatrix} instance.
+	 */
+	public BitMatrix transitiveClosure() {
+		if (rows != columns) {
+			throw new UnsupportedOperationException("matrix is not square.");
+		}
+
+		BitMatrix result = new BitMatrix(this);
+		long[] w = result.words;
+
+		for (int k = 0; k < rows; k++) {
+			int word = k >>> 6;
+			long bit = 1L << k;
+
+			for (int i = 0; i < rows; i++) {
+				if ((w[i * stride + word] & bit) != 0) {
+					orRow(w, i * stride, w, k * stride, stride);
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Computes the reflexive transitive closure of a square matrix. Entry {@code (i, j)} of the result
+	 * is set when {@code j} is reachable from {@code i} by a path of any length.
+	 *
+	 * @return A new {@code BitMatrix} instance.
+	 */
+	public BitMatrix reachability() {
+		BitMatrix result = transitiveClosure();
+
+		for (int i = 0; i < rows; i++) {
+			result.set(i, i);
+		}
+
+		return result;
+	}
+
+	/// HELPERS
+
+
+	private static void orRow(long[] target, int t, long[] source, int s, int n) {
+		for (int k = 0; k < n; k++) {
+			target[t + k] |= source[s + k];
+		}
+	}
+
+	private void maskRow(int row) {
+		if ((columns & 63) != 0) {
+			words[(row + 1) * stride - 1] &= -1L >>> (64 - (columns & 63));
+		}
+	}
+
+	private int index(int row, int column) {
+		if (column < 0 || column >= columns) {
+			throw BitSet.ILLEGAL_ACCESS;
+		}
+
+		checkRow(row);
+
+		return row * stride + (column >>> 6);
+	}
+
+	private void checkRow(int row) {
+		if (row < 0 || row >= rows) {
+			throw BitSet.ILLEGAL_ACCESS;
+		}
+	}
+
+	private void checkDimensions(BitMatrix other) {
+		if (rows != other.rows || columns != other.columns) {
+			throw new UnsupportedOperationException("matrix dimensions do not agree.");
+		}
+	}
+}
@@ -0,0 +1,399 @@
+package com.vijayiyer97.util;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A stream of bit fields written to a {@code ByteBuffer}, a {@code WritableByteChannel} or an
+ * in-memory buffer that can be read back as a {@code BitSet}. Fields of up to 64 bits are gathered
+ * in a 64-bit accumulator and stored a whole word at a time. Bits are written most significant
+ * first, and the first bit of the stream is the most significant bit of the first byte.
+ * <p>
+ * Along with raw fields the stream provides the variable-length integer codes read back by
+ * {@code BitInput}: LEB128 varints, zigzag varints, unary, Elias gamma and delta, and Golomb and
+ * Golomb-Rice codes.
+ *
+ * @author Vijay Iyer
+ *
+ */
+public final class BitOutput implements Flushable, Closeable {
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private ByteBuffer buffer;
+	private final WritableByteChannel channel;
+
+	// whether the buffer is owned by this stream and grows on demand.
+	private final boolean growable;
+
+	// pending bits, right-aligned.
+	private long acc = 0;
+	private int count = 0;
+
+	private long position = 0;
+
+	/// INITIALIZERS
+
+
+	/**
+	 * Initializes a {@code BitOutput} instance that writes to a growable in-memory buffer.
+	 */
+	public BitOutput() {
+		buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		channel = null;
+		growable = true;
+	}
+
+	/**
+	 * Initializes a {@code BitOutput} instance that writes into a {@code ByteBuffer}, starting at its
+	 * current position. Throws {@code BufferOverflowException} once the buffer is full.
+	 *
+	 * @param buffer Buffer to write to.
+	 */
+	public BitOutput(ByteBuffer buffer) {
+		this.buffer = buffer;
+		channel = null;
+		growable = false;
+	}
+
+	/**
+	 * Initializes a {@code BitOutput} instance that writes to a {@code WritableByteChannel} through an
+	 * internal buffer.
+	 *
+	 * @param channel Channel to write to.
+	 */
+	public BitOutput(WritableByteChannel channel) {
+		this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		this.channel = channel;
+		growable = false;
+	}
+
+	/// GETTERS
+
+
+	/**
+	 * Getter method for the number of bits written so far.
+	 *
+	 * @return Number of bits written.
+	 */
+	public long position() {
+		return position;
+	}
+
+	/**
+	 * Copies the contents of an in-memory stream, with the final partial byte padded with zeros.
+	 * Throws {@code UnsupportedOperationException} unless the stream was created without a
+	 * destination.
+	 *
+	 * @return A new byte array.
+	 */
+	public byte[] toByteArray() {
+		if (!growable) {
+			throw BitSet.ILLEGAL_OPERATION;
+		}
+
+		int n = buffer.position();
+		byte[] bytes = new byte[(int) ((position + 7) >>> 3)];
+
+		buffer.flip();
+		buffer.get(bytes, 0, n);
+		buffer.limit(buffer.capacity());
+		buffer.position(n);
+
+		for (int i = count - 8; i > -8; i -= 8) {
+			bytes[n++] = (byte) (i >= 0 ? acc >>> i : acc << -i);
+		}
+
+		return bytes;
+	}
+
+	/**
+	 * Copies the contents of an in-memory stream into a {@code BitSet} instance, where bit {@code i}
+	 * of the set is bit {@code i} of the stream. Throws {@code UnsupportedOperationException} unless
+	 * the stream was created without a destination.
+	 *
+	 * @return A new {@code BitSetLE} instance.
+	 */
+	public BitSetLE toBitSet() {
+		byte[] bytes = toByteArray();
+		long[] words = new long[(bytes.length + 7) >>> 3];
+
+		for (int j = 0; j < bytes.length; j++) {
+			long reversed = Integer.reverse(bytes[j] & 0xFF) >>> 24;
+			words[j >>> 3] |= reversed << ((j & 7) << 3);
+		}
+
+		BitSetLE bitSet = new BitSetLE(words, (int) position);
+
+		// trailing zeros of the stream are kept as leading zeros of the significand.
+		while (bitSet.len < position) {
+			bitSet.append(0);
+		}
+
+		return bitSet;
+	}
+
+	/// BIT FIELDS
+
+
+	/**
+	 * Writes a single bit.
+	 *
+	 * @param bit Bit to write.
+	 */
+	public void writeBit(int bit) {
+		if (bit != 0 && bit != 1) {
+			throw BitSet.ILLEGAL_VALUE;
+		}
+
+		writeBits(bit, 1);
+	}
+
+	/**
+	 * Writes the low {@code n} bits of a value, most significant first.
+	 *
+	 * @param value Value to write.
+	 * @param n Number of bits, from 0 to 64.
+	 */
+	public void writeBits(long value, int n) {
+		if (n < 0 || n > 64) {
+			throw BitSet.ILLEGAL_OPERATION;
+		} else if (n == 0) {
+			return;
+		}
+
+		value &= mask(n);
+		position += n;
+
+		int free = 64 - count;
+
+		if (n < free) {
+			acc = (acc << n) | value;
+			count += n;
+		} else {
+			int rest = n - free;
+
+			putLong(free == 64 ? value : (acc << free) | (value >>> rest));
+			acc = value & mask(rest);
+			count = rest;
+		}
+	}
+
+	/**
+	 * Writes {@code n} zero bits followed by a one bit.
+	 *
+	 * @param n Value to write. Must be non-negative.
+	 */
+	public void writeUnary(long n) {
+		if (n < 0) {
+			throw new NumberFormatException(n + " is negative.");
+		}
+
+		for (; n >= 64; n -= 64) {
+			writeBits(0, 64);
+		}
+
+		writeBits(1, (int) n + 1);
+	}
+
+	/// VARIABLE-LENGTH CODES
+
+
+	/**
+	 * Writes an unsigned LEB128 varint: seven bits of the value per byte, least significant group
+	 * first, with the high bit of each byte set when more bytes follow.
+	 *
+	 * @param value Value to write, treated as unsigned.
+	 */
+	public void writeVarint(long value) {
+		while ((value & ~0x7FL) != 0) {
+			writeBits((value & 0x7F) | 0x80, 8);
+			value >>>= 7;
+		}
+
+		writeBits(value, 8);
+	}
+
+	/**
+	 * Writes a signed value as a zigzag-encoded varint, so values of small magnitude take few bytes
+	 * whatever their sign.
+	 *
+	 * @param value Value to write.
+	 */
+	public void writeZigZag(long value) {
+		writeVarint((value << 1) ^ (value >> 63));
+	}
+
+	/**
+	 * Writes an Elias gamma code: the bit length of the value less one in unary, followed by the value
+	 * without its leading one.
+	 *
+	 * @param value Value to write. Must be positive.
+	 */
+	public void writeEliasGamma(long value) {
+		if (value <= 0) {
+			throw new NumberFormatException(value + " is not positive.");
+		}
+
+		int n = 63 - Long.numberOfLeadingZeros(value);
+
+		writeUnary(n);
+		writeBits(value, n);
+	}
+
+	/**
+	 * Writes an Elias delta code: the bit length of the value as an Elias gamma code, followed by the
+	 * value without its leading one.
+	 *
+	 * @param value Value to write. Must be positive.
+	 */
+	public void writeEliasDelta(long value) {
+		if (value <= 0) {
+			throw new NumberFormatException(value + " is not positive.");
+		}
+
+		int n = 63 - Long.numberOfLeadingZeros(value);
+
+		writeEliasGamma(n + 1);
+		writeBits(value, n);
+	}
+
+	/**
+	 * Writes a Golomb-Rice code with parameter {@code 2^k}: the quotient {@code value >>> k} in unary,
+	 * followed by the low {@code k} bits of the value.
+	 *
+	 * @param value Value to write. Must be non-negative.
+	 * @param k Rice parameter, from 0 to 63.
+	 */
+	public void writeRice(long value, int k) {
+		if (k < 0 || k > 63) {
+			throw BitSet.ILLEGAL_OPERATION;
+		} else if (value < 0) {
+			throw new NumberFormatException(value + " is negative.");
+		}
+
+		writeUnary(value >>> k);
+		writeBits(value, k);
+	}
+
+	/**
+	 * Writes a Golomb code with parameter {@code m}: the quotient {@code value / m} in unary, followed
+	 * by the remainder in truncated binary.
+	 *
+	 * @param value Value to write. Must be non-negative.
+	 * @param m Golomb parameter. Must be positive.
+	 */
+	public void writeGolomb(long value, long m) {
+		if (m <= 0) {
+			throw BitSet.ILLEGAL_OPERATION;
+		} else if (value < 0) {
+			throw new NumberFormatException(value + " is negative.");
+		}
+
+		writeUnary(value / m);
+
+		if (m > 1) {
+			long r = value % m;
+			int b = 64 - Long.numberOfLeadingZeros(m - 1);
+			long cutoff = (1L << b) - m;
+
+			if (r < cutoff) {
+				writeBits(r, b - 1);
+			} else {
+				writeBits(r + cutoff, b);
+			}
+		}
+	}
+
+	/// STREAM CONTROL
+
+
+	/**
+	 * Writes every complete byte of the accumulator to the destination, and drains the internal
+	 * buffer to the channel, if any. Bits of an incomplete byte are kept until more bits are written
+	 * or the stream is closed.
+	 */
+	@Override
+	public void flush() {
+		while (count >= 8) {
+			count -= 8;
+			ensureRemaining(1);
+			buffer.put((byte) (acc >>> count));
+		}
+
+		acc &= mask(count);
+		drain();
+	}
+
+	/**
+	 * Pads the final byte with zeros, flushes the stream and closes the channel, if any.
+	 */
+	@Override
+	public void close() {
+		if (count % 8 != 0) {
+			writeBits(0, 8 - count % 8);
+		}
+
+		flush();
+
+		if (channel != null) {
+			try {
+				channel.close();
+			} catch (IOException except) {
+				throw new IllegalStateException(except);
+			}
+		}
+	}
+
+	/// HELPERS
+
+
+	private static long mask(int n) {
+		return n == 0 ? 0 : -1L >>> (64 - n);
+	}
+
+	private void putLong(long word) {
+		ensureRemaining(8);
+
+		if (buffer.order() == ByteOrder.BIG_ENDIAN) {
+			buffer.putLong(word);
+		} else {
+			buffer.putLong(Long.reverseBytes(word));
+		}
+	}
+
+	private void ensureRemaining(int n) {
+		if (buffer.remaining() >= n) {
+			return;
+		} else if (channel != null) {
+			drain();
+		} else if (growable) {
+			ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+			buffer.flip();
+			larger.put(buffer);
+			buffer = larger;
+		}
+	}
+
+	private void drain() {
+		if (channel == null) {
+			return;
+		}
+
+		buffer.flip();
+
+		try {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		} catch (IOException except) {
+			throw new IllegalStateException(except);
+		}
+
+		buffer.clear();
+	}
+}
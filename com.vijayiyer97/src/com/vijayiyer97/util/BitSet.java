@@ -1,6 +1,8 @@
 package com.vijayiyer97.util;
 
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.PriorityQueue;
 
 /**
  * A dynamically mutable bit array wrapper class. Stores {@code n} bits where {@code n} is one greater
@@ -272,6 +274,105 @@ public abstract class BitSet implements Comparable<BitSet>, Cloneable, Serializa
 	public byte[] toByteArray() {
 		return bits.clone();
 	}
+
+	/**
+	 * Getter method for the significand bits in little-endian order. Only the first {@code len}
+	 * elements are meaningful, and the returned array may be shared with this instance, so it must
+	 * not be modified.
+	 *
+	 * @return Little-endian bit array.
+	 */
+	abstract byte[] littleEndianBits();
+
+	/**
+	 * Packs the significand of this bit set into 64-bit words, least significant word first. Bit
+	 * {@code i} of the set is stored in bit {@code i % 64} of word {@code i / 64}. The complement
+	 * extension beyond the significand is not represented.
+	 *
+	 * @return A new array of packed words.
+	 */
+	long[] toWords() {
+		byte[] bitArray = littleEndianBits();
+		long[] words = new long[(len + 63) >>> 6];
+
+		for (int i = 0; i < len; i++) {
+			words[i >>> 6] |= (long) bitArray[i] << i;
+		}
+
+		return words;
+	}
+
+	/**
+	 * Getter method for the magnitude of the bit set as little-endian 32-bit limbs, the form used by
+	 * {@code LimbArithmetic}. A set in complement form yields the magnitude of its two's complement.
+	 *
+	 * @return A new magnitude array.
+	 */
+	public int[] magnitude() {
+		byte[] bitArray = littleEndianBits();
+		int[] mag = new int[(len >>> 5) + 1];
+		boolean zero = true;
+
+		for (int i = 0; i < len; i++) {
+			if (bitArray[i] == 1) {
+				mag[i >>> 5] |= 1 << i;
+				zero = false;
+			}
+		}
+
+		if (complement == 1 && !zero) {
+			// the significand holds 2^len minus the magnitude, and the complement of zero is zero.
+			long borrow = 0;
+
+			for (int i = 0; i < mag.length; i++) {
+				borrow = borrow - (mag[i] & LimbArithmetic.LONG_MASK);
+				mag[i] = (int) borrow;
+				borrow >>= 32;
+			}
+
+			if ((len & 31) != 0) {
+				mag[len >>> 5] &= (1 << len) - 1;
+			} else {
+				mag[len >>> 5] = 0;
+			}
+		}
+
+		return mag;
+	}
+
+	/**
+	 * Getter method for the signature of the value as used by binary arithmetic. A set in complement
+	 * form is read as the standard form {@code twosComplement()} returns it to, so its signature is
+	 * inverted.
+	 *
+	 * @return {@code -1}, {@code 0} or {@code 1}.
+	 */
+	public int signum() {
+		if (LimbArithmetic.length(magnitude()) == 0) {
+			return 0;
+		}
+
+		return signature();
+	}
+
+	/**
+	 * Signature of a value already known to be non-zero.
+	 */
+	private int signature() {
+		int sign = complement == 1 ? -signum : signum;
+
+		return sign == -1 ? -1 : 1;
+	}
+
+	/**
+	 * Initializes a new instance with the same endianness as this one from a signature and a
+	 * magnitude.
+	 *
+	 * @param signum Signature of the new instance.
+	 * @param magnitude Magnitude of the new instance, as little-endian 32-bit limbs.
+	 * @return A new {@code BitSet} instance.
+	 */
+	abstract BitSet fromMagnitude(int signum, int[] magnitude);
 	
 	/**
 	 * Checks for an empty bit array.
@@ -568,11 +669,390 @@ public abstract class BitSet implements Comparable<BitSet>, Cloneable, Serializa
 		
 		return this;
 	}
-	
-	
+
+
+	/// SIMILARITY
+
+
+	/**
+	 * Counts the set bits of the significand.
+	 *
+	 * @return Number of set bits.
+	 */
+	public int cardinality() {
+		return cardinality(littleEndianBits(), len);
+	}
+
+	/**
+	 * Counts the set bits of the bitwise AND ({@code &}) of two significands, without computing the
+	 * AND itself. Neither instance is modified.
+	 *
+	 * @param bitSet {@code BitSet} to mask with.
+	 * @return Number of set bits in the intersection.
+	 */
+	public int andCardinality(BitSet bitSet) {
+		return andCardinality(this.littleEndianBits(), this.len, bitSet.littleEndianBits(), bitSet.len);
+	}
+
+	/**
+	 * Counts the set bits of the bitwise OR ({@code |}) of two significands, without computing the OR
+	 * itself. Neither instance is modified.
+	 *
+	 * @param bitSet {@code BitSet} to mask with.
+	 * @return Number of set bits in the union.
+	 */
+	public int orCardinality(BitSet bitSet) {
+		byte[] a = this.littleEndianBits();
+		byte[] b = bitSet.littleEndianBits();
+
+		return cardinality(a, len) + cardinality(b, bitSet.len) - andCardinality(a, len, b, bitSet.len);
+	}
+
+	/**
+	 * Counts the positions at which two significands differ, which is the number of set bits of their
+	 * bitwise XOR ({@code ^}). Neither instance is modified.
+	 *
+	 * @param bitSet {@code BitSet} to compare with.
+	 * @return Hamming distance between the two instances.
+	 */
+	public int hammingDistance(BitSet bitSet) {
+		byte[] a = this.littleEndianBits();
+		byte[] b = bitSet.littleEndianBits();
+
+		return cardinality(a, len) + cardinality(b, bitSet.len) - 2 * andCardinality(a, len, b, bitSet.len);
+	}
+
+	/**
+	 * Computes the Jaccard similarity of two significands: the size of their intersection divided by
+	 * the size of their union. Two empty instances have a similarity of {@code 1}.
+	 *
+	 * @param bitSet {@code BitSet} to compare with.
+	 * @return Similarity in the range [0, 1].
+	 */
+	public double jaccard(BitSet bitSet) {
+		byte[] a = this.littleEndianBits();
+		byte[] b = bitSet.littleEndianBits();
+
+		return jaccard(a, len, cardinality(a, len), b, bitSet.len);
+	}
+
+	/**
+	 * Finds the members of a corpus most similar to a query by Jaccard similarity. Similarities are
+	 * computed in parallel, and the query is unpacked only once for the whole batch.
+	 *
+	 * @param query {@code BitSet} to compare with.
+	 * @param corpus {@code BitSet} instances to search.
+	 * @param k Number of results.
+	 * @return Indices into the corpus of the {@code k} most similar instances, most similar first.
+	 * Ties are ordered by index.
+	 */
+	public static int[] topKSimilar(BitSet query, BitSet[] corpus, int k) {
+		if (k < 0) {
+			throw BitSet.ILLEGAL_OPERATION;
+		}
+
+		byte[] q = query.littleEndianBits();
+		int qLen = query.len;
+		int qCount = cardinality(q, qLen);
+
+		double[] scores = new double[corpus.length];
+		Arrays.parallelSetAll(scores, i -> jaccard(q, qLen, qCount, corpus[i].littleEndianBits(), corpus[i].len));
+
+		// the head of the queue is the weakest of the results kept so far.
+		PriorityQueue<Integer> heap = new PriorityQueue<>(k + 1, (i, j) -> scores[i] != scores[j]
+				? Double.compare(scores[i], scores[j]) : Integer.compare(j, i));
+
+		for (int i = 0; i < corpus.length; i++) {
+			heap.add(i);
+
+			if (heap.size() > k) {
+				heap.poll();
+			}
+		}
+
+		int[] result = new int[heap.size()];
+
+		for (int i = result.length - 1; i >= 0; i--) {
+			result[i] = heap.poll();
+		}
+
+		return result;
+	}
+
+	private static int cardinality(byte[] a, int aLen) {
+		int count = 0;
+
+		for (int i = 0; i < aLen; i++) {
+			count += a[i];
+		}
+
+		return count;
+	}
+
+	private static int andCardinality(byte[] a, int aLen, byte[] b, int bLen) {
+		int nbit = aLen < bLen ? aLen : bLen;
+		int count = 0;
+
+		for (int i = 0; i < nbit; i++) {
+			count += a[i] & b[i];
+		}
+
+		return count;
+	}
+
+	private static double jaccard(byte[] a, int aLen, int aCount, byte[] b, int bLen) {
+		int intersection = andCardinality(a, aLen, b, bLen);
+		int union = aCount + cardinality(b, bLen) - intersection;
+
+		return union == 0 ? 1.0 : (double) intersection / union;
+	}
+
+
 	/// BINARY ARITHMETIC
 	
 	
+	/**
+	 * Adds a given {@code BitSet} instance, or its negation, to this instance using
+	 * {@code LimbArithmetic}. Neither instance is modified.
+	 *
+	 * @param bitSet {@code BitSet} instance to add.
+	 * @param negate Whether to subtract {@code bitSet} instead.
+	 * @return A new {@code BitSet} instance with the endianness of this instance.
+	 */
+	BitSet addition(BitSet bitSet, boolean negate) {
+		int[] a = this.magnitude();
+		int[] b = bitSet.magnitude();
+
+		int aSign = LimbArithmetic.length(a) == 0 ? 0 : this.signature();
+		int bSign = LimbArithmetic.length(b) == 0 ? 0 : bitSet.signature();
+
+		if (negate) {
+			bSign = -bSign;
+		}
+
+		if (bSign == 0) {
+			return fromMagnitude(aSign, a);
+		} else if (aSign == 0) {
+			return fromMagnitude(bSign, b);
+		} else if (aSign == bSign) {
+			return fromMagnitude(aSign, LimbArithmetic.add(a, b));
+		}
+
+		int cmp = LimbArithmetic.compare(a, b);
+
+		if (cmp > 0) {
+			return fromMagnitude(aSign, LimbArithmetic.subtract(a, b));
+		} else if (cmp < 0) {
+			return fromMagnitude(bSign, LimbArithmetic.subtract(b, a));
+		}
+
+		return fromMagnitude(0, LimbArithmetic.ZERO);
+	}
+
+	/**
+	 * Multiplies this instance by a given {@code BitSet} instance using {@code LimbArithmetic}.
+	 * Neither instance is modified.
+	 *
+	 * @param bitSet {@code BitSet} instance to multiply.
+	 * @return A new {@code BitSet} instance with the endianness of this instance.
+	 */
+	BitSet multiplication(BitSet bitSet) {
+		int[] a = this.magnitude();
+		int[] b = bitSet.magnitude();
+
+		if (LimbArithmetic.length(a) == 0 || LimbArithmetic.length(b) == 0) {
+			return fromMagnitude(0, LimbArithmetic.ZERO);
+		}
+
+		int sign = this.signature() * bitSet.signature();
+
+		if (LimbArithmetic.compare(a, b) == 0) {
+			return fromMagnitude(sign, LimbArithmetic.square(a));
+		}
+
+		return fromMagnitude(sign, LimbArithmetic.multiply(a, b));
+	}
+
+	/**
+	 * Squares this instance using {@code LimbArithmetic}, at about half the cost of multiplying it by
+	 * itself. This instance is not modified.
+	 *
+	 * @return A new {@code BitSet} instance with the endianness of this instance.
+	 */
+	public BitSet square() {
+		return fromMagnitude(1, LimbArithmetic.square(this.magnitude()));
+	}
+
+	/**
+	 * Divides this instance by a given {@code BitSet} instance using {@code LimbArithmetic}, and
+	 * returns the quotient and remainder together. The quotient is rounded toward zero, and the
+	 * remainder takes the signature of this instance. Neither instance is modified. Throws
+	 * {@code ArithmeticException} if {@code bitSet} is zero.
+	 *
+	 * @param bitSet {@code BitSet} instance to divide by.
+	 * @return A new array holding the quotient followed by the remainder, both with the endianness of
+	 * this instance.
+	 */
+	public BitSet[] divideAndRemainder(BitSet bitSet) {
+		int[] a = this.magnitude();
+		int[] b = bitSet.magnitude();
+
+		if (LimbArithmetic.length(b) == 0) {
+			if (LimbArithmetic.length(a) == 0) {
+				throw new ArithmeticException("indeterminate operation");
+			}
+
+			throw new ArithmeticException("division by zero");
+		}
+
+		int sign = LimbArithmetic.length(a) == 0 ? 0 : this.signature();
+		int[][] result = LimbArithmetic.divideAndRemainder(a, b);
+
+		return new BitSet[] {
+				fromMagnitude(sign * bitSet.signature(), result[0]),
+				fromMagnitude(sign, result[1])
+		};
+	}
+
+	/**
+	 * Adds a {@code long} to this instance in a single pass over the limbs of this instance, without
+	 * building a {@code BitSet} for the operand. This instance is not modified.
+	 *
+	 * @param val Value to add.
+	 * @return A new {@code BitSet} instance with the endianness of this instance.
+	 */
+	public BitSet add(long val) {
+		int[] a = this.magnitude();
+		int aSign = LimbArithmetic.length(a) == 0 ? 0 : this.signature();
+		int bSign = Long.signum(val);
+
+		// the absolute value of Long.MIN_VALUE is itself, which is 2^63 read as unsigned.
+		long b = Math.abs(val);
+
+		if (bSign == 0) {
+			return fromMagnitude(aSign, a);
+		} else if (aSign == 0) {
+			return fromMagnitude(bSign, new int[] { (int) b, (int) (b >>> 32) });
+		} else if (aSign == bSign) {
+			return fromMagnitude(aSign, LimbArithmetic.add(a, b));
+		}
+
+		int cmp = LimbArithmetic.compare(a, b);
+
+		if (cmp > 0) {
+			return fromMagnitude(aSign, LimbArithmetic.subtract(a, b));
+		} else if (cmp < 0) {
+			return fromMagnitude(bSign, LimbArithmetic.subtract(new int[] { (int) b, (int) (b >>> 32) }, a));
+		}
+
+		return fromMagnitude(0, LimbArithmetic.ZERO);
+	}
+
+	/**
+	 * Multiplies this instance by a {@code long} in a single pass over the limbs of this instance.
+	 * This instance is not modified.
+	 *
+	 * @param val Value to multiply by.
+	 * @return A new {@code BitSet} instance with the endianness of this instance.
+	 */
+	public BitSet multiply(long val) {
+		int[] a = this.magnitude();
+
+		if (LimbArithmetic.length(a) == 0 || val == 0) {
+			return fromMagnitude(0, LimbArithmetic.ZERO);
+		}
+
+		return fromMagnitude(this.signature() * Long.signum(val), LimbArithmetic.multiply(a, Math.abs(val)));
+	}
+
+	/**
+	 * Multiplies this instance by an {@code int} and adds another, in a single pass over the limbs of
+	 * this instance when the product and the addend have the same signature. Repeated calls evaluate a
+	 * polynomial with small coefficients, such as the digits of a decimal string, by Horner's rule.
+	 * This instance is not modified.
+	 *
+	 * @param multiplier Value to multiply by.
+	 * @param addend Value to add after multiplying.
+	 * @return A new {@code BitSet} instance with the endianness of this instance.
+	 */
+	public BitSet multiplyAdd(int multiplier, int addend) {
+		int[] a = this.magnitude();
+		int aLen = LimbArithmetic.length(a);
+
+		if (aLen == 0 || multiplier == 0) {
+			return fromMagnitude(0, LimbArithmetic.ZERO).add(addend);
+		}
+
+		int sign = this.signature() * Integer.signum(multiplier);
+		int m = (int) Math.abs((long) multiplier);
+		int c = (int) Math.abs((long) addend);
+		int[] product = new int[aLen + 1];
+
+		if (addend == 0 || Integer.signum(addend) == sign) {
+			product[aLen] = LimbArithmetic.multiplyAdd(product, a, aLen, m, c);
+			return fromMagnitude(sign, product);
+		}
+
+		product[aLen] = LimbArithmetic.multiplyAdd(product, a, aLen, m, 0);
+		return fromMagnitude(sign, product).add(addend);
+	}
+
+	/**
+	 * Divides this instance by an {@code int} in a single pass over its limbs, rounding toward zero.
+	 * This instance is not modified. Throws {@code ArithmeticException} if {@code val} is zero.
+	 *
+	 * @param val Value to divide by.
+	 * @return A new {@code BitSet} instance with the endianness of this instance.
+	 */
+	public BitSet divide(int val) {
+		int[] a = this.magnitude();
+		int aLen = checkDivision(a, val);
+
+		if (aLen == 0) {
+			return fromMagnitude(0, LimbArithmetic.ZERO);
+		}
+
+		int[] quotient = new int[aLen];
+		LimbArithmetic.divideByInt(quotient, a, aLen, (int) Math.abs((long) val));
+
+		return fromMagnitude(this.signature() * Integer.signum(val), quotient);
+	}
+
+	/**
+	 * Computes the remainder of this instance divided by an {@code int}, in a single pass over its
+	 * limbs which stores no quotient. Repeated remainders by a power of ten extract decimal digits.
+	 * Throws {@code ArithmeticException} if {@code val} is zero.
+	 *
+	 * @param val Value to divide by.
+	 * @return The remainder, which takes the signature of this instance.
+	 */
+	public int remainder(int val) {
+		int[] a = this.magnitude();
+		int aLen = checkDivision(a, val);
+
+		if (aLen == 0) {
+			return 0;
+		}
+
+		// |val| is at most 2^31, so the remainder fits in an int.
+		int remainder = LimbArithmetic.remainderByInt(a, aLen, (int) Math.abs((long) val));
+		return this.signature() < 0 ? -remainder : remainder;
+	}
+
+	/**
+	 * Throws {@code ArithmeticException} for a division by zero, and returns the limb count of the
+	 * dividend otherwise.
+	 */
+	private static int checkDivision(int[] a, int val) {
+		int aLen = LimbArithmetic.length(a);
+
+		if (val == 0) {
+			throw new ArithmeticException(aLen == 0 ? "indeterminate operation" : "division by zero");
+		}
+
+		return aLen;
+	}
+
 	/**
 	 * Adds a given {@code BitSet} instance to this instance.
 	 * 
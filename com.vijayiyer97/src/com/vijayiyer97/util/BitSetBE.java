@@ -130,6 +130,30 @@ public final class BitSetBE extends BitSet {
 		this.bits = other.reverseBits();
 	}
 
+	/**
+	 * Initializes a {@code BitSetBE} instance from a signature and a magnitude stored as
+	 * little-endian 32-bit limbs. Throws {@code NumberFormatException} if the signature is neither
+	 * -1, 0 nor 1.
+	 * 
+	 * @param signum Signature of instance.
+	 * @param magnitude Magnitude of instance.
+	 */
+	public BitSetBE(int signum, int[] magnitude) {
+		if (signum < -1 || signum > 1) {
+			throw new NumberFormatException(signum + " is neither -1, 0 nor 1.");
+		}
+
+		len = (int) LimbArithmetic.bitLength(magnitude);
+		size = len;
+		bits = new byte[len > 0 ? len : 1];
+
+		for (int i = 0; i < len; i++) {
+			this.bits[len - i - 1] = (byte) ((magnitude[i >>> 5] >>> i) & 1);
+		}
+
+		this.signum = (byte) (len == 0 ? 0 : signum);
+	}
+
 	@Override
 	protected void convertToBin(DecimalSet decimal) {
 		this.size = (int) (decimal.digits.length/Math.log10(2)) + 1;
@@ -225,6 +249,16 @@ public final class BitSetBE extends BitSet {
 		return new BitSetBE(this);
 	}
 
+	@Override
+	BitSet fromMagnitude(int signum, int[] magnitude) {
+		return new BitSetBE(signum, magnitude);
+	}
+
+	@Override
+	byte[] littleEndianBits() {
+		return reverseBits();
+	}
+
 	@Override
 	public int get(int index) {
 		if (index < 0) {
@@ -460,252 +494,23 @@ public final class BitSetBE extends BitSet {
 		return this;
 	}
 
-	/**
-	 * Adds two bit sets.
-	 * 
-	 * @param A {@code BitSet} instance.
-	 * @param B {@code BitSet} instance.
-	 * @return A new {@code BitSet} instance.
-	 */
-	private BitSet addition(BitSet A, BitSet B) {
-		int nbit = A.len > B.len ? A.len : B.len; // to allow proper addition
-		nbit++;
-
-		BitSet result = new BitSetBE(1, nbit);
-
-		boolean recomplement = false;
-
-		if (A.signum == B.signum) {
-			result.signum = A.signum;
-		} else {
-			if (A.signum == -1) {
-				if (A.compareMagnitudes(B) > 0) {
-					recomplement = true;
-				}
-
-				A.twosComplement();
-			} else {
-				if (B.compareMagnitudes(A) > 0) {
-					recomplement = true;
-				}
-
-				B.twosComplement();
-			}
-		}
-
-		int carry = 0;
-
-		for (int i = 0; i <= nbit; i++) {
-			int a = A.get(i);
-			int b = B.get(i);
-			int c = carry + a + b;
-			int sum = c & 1;
-			carry = c >> 1;
-
-		result.append(sum);
-		}
-
-		result.pop();
-
-		if (recomplement) {
-			result.complement = 1;
-			result.twosComplement();
-		}
-
-		return result;
-	}
-
 	@Override
 	public BitSet add(BitSet bitSet) {
-		BitSet A = this.clone();
-		BitSet B = bitSet.toBigEndian();
-
-		if (A.complement == 1) {
-			A.twosComplement();
-		} if (B.complement == 1) {
-			B.twosComplement();
-		}
-
-		if (A.equals(B)) {
-			return A.lshift(1);
-		} else if (A.equals(BitSet.ZERO)) {
-			return B;
-		} else if (B.equals(BitSet.ZERO)) {
-			return A;
-		} else if (A.signum == B.signum) { 
-			if (A.equals(BitSet.ONE)) {
-				for (int i = 0; i <= B.len; i++) {
-					if (B.get(i) == 0) {
-						B.flip(0, i);
-						break;
-					}
-				}
-
-				return B;
-			} else if (B.equals(BitSet.ONE)) {
-				for (int i = 0; i <= A.len; i++) {
-					if (A.get(i) == 0) {
-						A.flip(0, i + 1);
-						break;
-					}
-				}
-
-				return A;
-			}
-		}
-
-		return addition(A, B);
+		return addition(bitSet, false);
 	}
 
 	@Override
 	public BitSet subtract(BitSet bitSet) {
-		BitSet A = this.clone();
-		BitSet B = bitSet.toBigEndian();
-
-		if (A.complement == 1) {
-			A.twosComplement();
-		} if (B.complement == 1) {
-			B.twosComplement();
-		}
-
-		if (A.equals(B)) {
-			return BitSet.ZERO;
-		} else if (A.equals(BitSet.ZERO)) {
-			B.flipSign();
-			return B;
-		} else if (B.equals(BitSet.ZERO)) {
-			return A;
-		} else if (B.equals(BitSet.ONE)) {
-			for (int i = 0; i <= A.len; i++) {
-				if (A.get(i) == 1) {
-					A.flip(0, i + 1);
-					break;
-				}
-			}
-
-			return A;
-		}
-
-
-		B.flipSign();
-		return addition(A, B);
-	}
-
-	/**
-	 * Multiplies two bit sets.
-	 * 
-	 * @param A {@code BitSet} instance.
-	 * @param B {@code BitSet} instance.
-	 * @return A new {@code BitSet} instance.
-	 */
-	private BitSet multiplication(BitSet A, BitSet B) {
-		BitSet result = BitSet.ZERO;
-
-		for (int i = 0; i < B.len; i++) {
-			BitSet temp = new BitSetBE(1, A.len);
-
-			int b = B.bits[B.len - i - 1];
-
-			for (int j = 0; j < A.len; j++) {
-				int a = A.bits[A.len - j - 1];
-				int bit = a * b;
-
-				temp.append(bit);
-			}
-
-			result = temp.lshift(i).add(result);
-		}
-
-		if (A.signum != B.signum) {
-			result.flipSign();
-		}
-
-		return result;
+		return addition(bitSet, true);
 	}
 
 	@Override
 	public BitSet multiply(BitSet bitSet) {
-		BitSet A = this.clone();
-		BitSet B = bitSet.toBigEndian();
-
-		if (A.complement == 1) {
-			A.twosComplement();
-		} if (B.complement == 1) {
-			B.twosComplement();
-		}
-
-		if (A.equals(B)) {
-			return multiplication(A, B);
-		} else if (A.equals(BitSet.ZERO) || B.equals(BitSet.ZERO)) {
-			return BitSet.ZERO;
-		} else if (A.equals(BitSet.ONE)) {
-			return B;
-		} else if (A.equals(BitSetBE.TWO)) {
-			return B.lshift(1);
-		} else if (B.equals(BitSet.ONE)) {
-			return A;
-		} else if (B.equals(BitSetBE.TWO)) {
-			return A.lshift(1);
-		}
-
-		return multiplication(A, B);
-	}
-
-	/**
-	 * Divides two bit sets.
-	 * 
-	 * @param A {@code BitSet} instance.
-	 * @param B {@code BitSet} instance.
-	 * @return A new {@code BitSet} instance.
-	 */
-	private BitSet division(BitSet A, BitSet B) {
-		BitSet Q = new BitSetBE(1, A.len);
-		BitSet R = new BitSetBE(1, A.len + 1);
-
-		for (int i = 0; i < A.len; i++) {
-			R.prepend(A.bits[i]);
-
-			if (R.compareTo(B) >= 0) {
-				R = R.subtract(B);
-				Q.prepend(1);
-			} else {
-				Q.prepend(0);
-			}
-		}
-
-		if (A.signum != B.signum) {
-			Q.flipSign();
-		}
-
-		return Q;
+		return multiplication(bitSet);
 	}
 
 	@Override
 	public BitSet divide(BitSet bitSet) {
-		BitSet A = this.clone();
-		BitSet B = bitSet.toBigEndian();
-
-		if (A.complement == 1) {
-			A.twosComplement();
-		} if (B.complement == 1) {
-			B.twosComplement();
-		}
-
-		if (A.equals(B)) {
-			if (A.equals(BitSet.ZERO)) {
-				throw new ArithmeticException("indeterminate operation");
-			}
-			return BitSet.ONE;
-		} else if (A.compareTo(B) < 0 || A.equals(BitSet.ZERO)) {
-			return BitSet.ZERO;
-		} else if (B.equals(BitSet.ZERO)) {
-			throw new ArithmeticException("division by zero");
-		} else if (B.equals(BitSet.ONE)) {
-			return A;
-		} else if (B.equals(BitSetBE.TWO)) {
-			return A.rshift(1);
-		}
-
-		return division(A, B);
+		return divideAndRemainder(bitSet)[0];
 	}
 }
@@ -0,0 +1,480 @@
+package com.vijayiyer97.util;
+
+import java.io.Serializable;
+
+/**
+ * A bit-sliced index over a column of integers. Slice {@code i} holds bit {@code i} of every row, so
+ * comparisons, sums and top-k selection over the column run as word-parallel bitmap algebra over the
+ * slices instead of scans over the rows. Values are stored as unsigned offsets from the column
+ * minimum, which keeps the number of slices down to the bit length of the value range and removes
+ * the need for a sign slice when the column holds negative values.
+ * <p>
+ * Query results are returned as {@code BitSet} instances whose set bits are the matching row
+ * numbers, and filters are accepted in the same form.
+ *
+ * @author Vijay Iyer
+ *
+ */
+public final class BitSlicedIndex implements Serializable {
+
+	/**
+	 * Allows serialization of this object.
+	 */
+	private static final long serialVersionUID = -3145930163727412216L;
+
+	private final int rows;
+
+	// the number of words used to store a single slice.
+	private final int stride;
+
+	/**
+	 * The value subtracted from every row before slicing.
+	 */
+	private final long min;
+
+	/**
+	 * The packed slices, least significant first.
+	 */
+	private final long[][] slices;
+
+	/**
+	 * Mask of every row in the column.
+	 */
+	private final long[] existence;
+
+	/// INITIALIZERS
+
+
+	/**
+	 * Initializes a {@code BitSlicedIndex} instance over a column of {@code long} values.
+	 *
+	 * @param column Values of the column, indexed by row.
+	 */
+	public BitSlicedIndex(long[] column) {
+		rows = column.length;
+		stride = (rows + 63) >>> 6;
+
+		long lo = Long.MAX_VALUE;
+		long hi = Long.MIN_VALUE;
+
+		for (long value: column) {
+			lo = value < lo ? value : lo;
+			hi = value > hi ? value : hi;
+		}
+
+		min = rows == 0 ? 0 : lo;
+
+		int depth = rows == 0 ? 0 : 64 - Long.numberOfLeadingZeros(hi - lo);
+		slices = new long[depth][stride];
+		existence = new long[stride];
+
+		for (int row = 0; row < rows; row++) {
+			long offset = column[row] - min;
+			long bit = 1L << row;
+			int word = row >>> 6;
+
+			existence[word] |= bit;
+
+			while (offset != 0) {
+				slices[Long.numberOfTrailingZeros(offset)][word] |= bit;
+				offset &= offset - 1;
+			}
+		}
+	}
+
+	/**
+	 * Initializes a {@code BitSlicedIndex} instance over a column of {@code int} values.
+	 *
+	 * @param column Values of the column, indexed by row.
+	 */
+	public BitSlicedIndex(int[] column) {
+		this(widen(column));
+	}
+
+	private static long[] widen(int[] column) {
+		long[] values = new long[column.length];
+
+		for (int i = 0; i < column.length; i++) {
+			values[i] = column[i];
+		}
+
+		return values;
+	}
+
+	/// GETTERS
+
+
+	/**
+	 * Getter method for the number of rows in the column.
+	 *
+	 * @return Number of rows.
+	 */
+	public int rows() {
+		return rows;
+	}
+
+	/**
+	 * Getter method for the number of slices in the index.
+	 *
+	 * @return Number of slices.
+	 */
+	public int depth() {
+		return slices.length;
+	}
+
+	/**
+	 * Copies a slice of the index into a new {@code BitSet} instance. Bit {@code row} of slice
+	 * {@code i} is bit {@code i} of the row's offset from the column minimum.
+	 *
+	 * @param i Index of slice.
+	 * @return A new {@code BitSetLE} instance.
+	 */
+	public BitSetLE getSlice(int i) {
+		if (i < 0 || i >= slices.length) {
+			throw BitSet.ILLEGAL_ACCESS;
+		}
+
+		return new BitSetLE(slices[i], rows);
+	}
+
+	/**
+	 * Reconstructs the value of a single row from the slices.
+	 *
+	 * @param row Row index.
+	 * @return Value of the row.
+	 */
+	public long get(int row) {
+		if (row < 0 || row >= rows) {
+			throw BitSet.ILLEGAL_ACCESS;
+		}
+
+		long offset = 0;
+		int word = row >>> 6;
+
+		for (int i = 0; i < slices.length; i++) {
+			offset |= ((slices[i][word] >>> row) & 1) << i;
+		}
+
+		return min + offset;
+	}
+
+	/// COMPARISONS
+
+
+	/**
+	 * Finds the rows whose value is equal to a constant.
+	 *
+	 * @param value Constant to compare with.
+	 * @return A new {@code BitSetLE} instance of matching rows.
+	 */
+	public BitSetLE equalTo(long value) {
+		return new BitSetLE(compare(value)[1], rows);
+	}
+
+	/**
+	 * Finds the rows whose value is not equal to a constant.
+	 *
+	 * @param value Constant to compare with.
+	 * @return A new {@code BitSetLE} instance of matching rows.
+	 */
+	public BitSetLE notEqualTo(long value) {
+		long[][] result = compare(value);
+
+		return new BitSetLE(or(result[0], result[2]), rows);
+	}
+
+	/**
+	 * Finds the rows whose value is less than a constant.
+	 *
+	 * @param value Constant to compare with.
+	 * @return A new {@code BitSetLE} instance of matching rows.
+	 */
+	public BitSetLE lessThan(long value) {
+		return new BitSetLE(compare(value)[0], rows);
+	}
+
+	/**
+	 * Finds the rows whose value is less than or equal to a constant.
+	 *
+	 * @param value Constant to compare with.
+	 * @return A new {@code BitSetLE} instance of matching rows.
+	 */
+	public BitSetLE lessThanOrEqualTo(long value) {
+		long[][] result = compare(value);
+
+		return new BitSetLE(or(result[0], result[1]), rows);
+	}
+
+	/**
+	 * Finds the rows whose value is greater than a constant.
+	 *
+	 * @param value Constant to compare with.
+	 * @return A new {@code BitSetLE} instance of matching rows.
+	 */
+	public BitSetLE greaterThan(long value) {
+		return new BitSetLE(compare(value)[2], rows);
+	}
+
+	/**
+	 * Finds the rows whose value is greater than or equal to a constant.
+	 *
+	 * @param value Constant to compare with.
+	 * @return A new {@code BitSetLE} instance of matching rows.
+	 */
+	public BitSetLE greaterThanOrEqualTo(long value) {
+		long[][] result = compare(value);
+
+		return new BitSetLE(or(result[1], result[2]), rows);
+	}
+
+	/**
+	 * Finds the rows whose value lies in the closed range {@code [lo, hi]}.
+	 *
+	 * @param lo Lower bound of the range.
+	 * @param hi Upper bound of the range.
+	 * @return A new {@code BitSetLE} instance of matching rows.
+	 */
+	public BitSetLE between(long lo, long hi) {
+		long[][] lower = compare(lo);
+		long[][] upper = compare(hi);
+		long[] result = new long[stride];
+
+		for (int w = 0; w < stride; w++) {
+			result[w] = (lower[1][w] | lower[2][w]) & (upper[0][w] | upper[1][w]);
+		}
+
+		return new BitSetLE(result, rows);
+	}
+
+	/**
+	 * Compares every row with a constant, scanning the slices from the most significant. A row stays
+	 * in the equal mask while its bits match the constant and drops into the less or greater mask at
+	 * the first bit that differs.
+	 *
+	 * @param value Constant to compare with.
+	 * @return The less, equal and greater masks, in that order.
+	 */
+	private long[][] compare(long value) {
+		long[] lt = new long[stride];
+		long[] eq = new long[stride];
+		long[] gt = new long[stride];
+
+		if (value < min) {
+			System.arraycopy(existence, 0, gt, 0, stride);
+		} else if (slices.length < 64 && (value - min) >>> slices.length != 0) {
+			System.arraycopy(existence, 0, lt, 0, stride);
+		} else {
+			long offset = value - min;
+
+			for (int w = 0; w < stride; w++) {
+				long l = 0;
+				long e = existence[w];
+				long g = 0;
+
+				for (int i = slices.length - 1; i >= 0 && e != 0; i--) {
+					long slice = slices[i][w];
+
+					if (((offset >>> i) & 1) == 1) {
+						l |= e & ~slice;
+						e &= slice;
+					} else {
+						g |= e & slice;
+						e &= ~slice;
+					}
+				}
+
+				lt[w] = l;
+				eq[w] = e;
+				gt[w] = g;
+			}
+		}
+
+		return new long[][] { lt, eq, gt };
+	}
+
+	/// AGGREGATES
+
+
+	/**
+	 * Sums the values of every row. Throws {@code ArithmeticException} if the sum overflows a
+	 * {@code long}.
+	 *
+	 * @return Sum of the column.
+	 */
+	public long sum() {
+		return sum(existence);
+	}
+
+	/**
+	 * Sums the values of the rows set in a filter. Throws {@code ArithmeticException} if the sum
+	 * overflows a {@code long}.
+	 *
+	 * @param filter Rows to include.
+	 * @return Sum of the selected rows.
+	 */
+	public long sum(BitSet filter) {
+		return sum(mask(filter));
+	}
+
+	/**
+	 * Sums the selected rows in 128 bits: the unsigned offsets of every slice first, then the
+	 * selected count times the minimum, so that only the final sum is checked against a {@code long}.
+	 */
+	private long sum(long[] filter) {
+		long high = 0;
+		long low = 0;
+
+		for (int i = 0; i < slices.length; i++) {
+			long count = 0;
+
+			for (int w = 0; w < stride; w++) {
+				count += Long.bitCount(slices[i][w] & filter[w]);
+			}
+
+			long part = count << i;
+			long sum = low + part;
+
+			high += (i == 0 ? 0 : count >>> (64 - i)) + (Long.compareUnsigned(sum, low) < 0 ? 1 : 0);
+			low = sum;
+		}
+
+		long count = cardinality(filter);
+		long product = count * min;
+		long sum = low + product;
+
+		high += Math.multiplyHigh(count, min) + (Long.compareUnsigned(sum, low) < 0 ? 1 : 0);
+		low = sum;
+
+		// the sum fits a long exactly when the high word is the sign extension of the low word.
+		if (high != low >> 63) {
+			throw new ArithmeticException("overflow");
+		}
+
+		return low;
+	}
+
+	/**
+	 * Counts the rows set in a filter.
+	 *
+	 * @param filter Rows to include.
+	 * @return Number of selected rows.
+	 */
+	public int count(BitSet filter) {
+		return cardinality(mask(filter));
+	}
+
+	/**
+	 * Finds the {@code k} rows with the largest values. Ties at the boundary are broken in favour of
+	 * the lowest row numbers.
+	 *
+	 * @param k Number of rows to select.
+	 * @return A new {@code BitSetLE} instance of selected rows.
+	 */
+	public BitSetLE topK(int k) {
+		return topK(k, existence);
+	}
+
+	/**
+	 * Finds the {@code k} rows set in a filter with the largest values. Ties at the boundary are
+	 * broken in favour of the lowest row numbers.
+	 *
+	 * @param k Number of rows to select.
+	 * @param filter Rows to include.
+	 * @return A new {@code BitSetLE} instance of selected rows.
+	 */
+	public BitSetLE topK(int k, BitSet filter) {
+		return topK(k, mask(filter));
+	}
+
+	/**
+	 * Selects the top rows by scanning the slices from the most significant. Rows in {@code G} are
+	 * known to be among the top {@code k}, while rows in {@code E} are still tied on every slice seen
+	 * so far.
+	 */
+	private BitSetLE topK(int k, long[] filter) {
+		if (k < 0) {
+			throw BitSet.ILLEGAL_OPERATION;
+		}
+
+		long[] G = new long[stride];
+		long[] E = filter.clone();
+		long[] X = new long[stride];
+
+		for (int i = slices.length - 1; i >= 0; i--) {
+			long[] slice = slices[i];
+			int n = 0;
+
+			for (int w = 0; w < stride; w++) {
+				X[w] = G[w] | (E[w] & slice[w]);
+				n += Long.bitCount(X[w]);
+			}
+
+			if (n > k) {
+				for (int w = 0; w < stride; w++) {
+					E[w] &= slice[w];
+				}
+			} else {
+				long[] temp = G;
+				G = X;
+				X = temp;
+
+				for (int w = 0; w < stride; w++) {
+					E[w] &= ~slice[w];
+				}
+
+				if (n == k) {
+					break;
+				}
+			}
+		}
+
+		int remaining = k - cardinality(G);
+
+		for (int w = 0; w < stride && remaining > 0; w++) {
+			long e = E[w];
+
+			while (e != 0 && remaining > 0) {
+				long bit = e & -e;
+				G[w] |= bit;
+				e ^= bit;
+				remaining--;
+			}
+		}
+
+		return new BitSetLE(G, rows);
+	}
+
+	/// HELPERS
+
+
+	private long[] mask(BitSet filter) {
+		long[] words = filter.toWords();
+		long[] result = new long[stride];
+
+		for (int w = 0; w < stride && w < words.length; w++) {
+			result[w] = words[w] & existence[w];
+		}
+
+		return result;
+	}
+
+	private long[] or(long[] a, long[] b) {
+		long[] result = new long[stride];
+
+		for (int w = 0; w < stride; w++) {
+			result[w] = a[w] | b[w];
+		}
+
+		return result;
+	}
+
+	private static int cardinality(long[] words) {
+		int count = 0;
+
+		for (long word: words) {
+			count += Long.bitCount(word);
+		}
+
+		return count;
+	}
+}
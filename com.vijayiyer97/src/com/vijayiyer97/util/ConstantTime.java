@@ -0,0 +1,337 @@
+package com.vijayiyer97.util;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-width arithmetic whose sequence of operations and memory accesses does not depend on the
+ * values of its operands, for computations on secret data. Operands are arrays of a width fixed in
+ * advance, and every loop runs over the whole width: there are no shortcuts for zero limbs, no
+ * trimming and no early exits, and conditions on operand values are turned into masks of all zeros
+ * or all ones which select between results computed either way. Only the widths, and the modulus
+ * of an instance, may be public knowledge.
+ * <p>
+ * The static methods work on magnitudes of equal width. An instance performs Montgomery arithmetic
+ * modulo a fixed odd modulus of {@code n} limbs, like {@code Montgomery}, but with a final
+ * subtraction which is always computed and then selected, and raises to powers with a Montgomery
+ * ladder, which squares and multiplies once for every bit of the exponent width. Instances are
+ * immutable and may be shared between threads.
+ * <p>
+ * The Java virtual machine gives no guarantee that compiled code keeps these properties, and the
+ * latency of the arithmetic instructions themselves may vary by platform; the methods only remove
+ * the branches and table lookups of the source.
+ *
+ * @author Vijay Iyer
+ *
+ */
+public final class ConstantTime {
+
+	private static final long LONG_MASK = LimbArithmetic.LONG_MASK;
+
+	private final int[] modulus;
+	private final int n;
+
+	// -1/m mod 2^32.
+	private final int inverse;
+
+	// R^2 mod m, and R mod m, the representation of one.
+	private final int[] r2;
+	private final int[] one;
+
+	/// INITIALIZERS
+
+
+	/**
+	 * Initializes a {@code ConstantTime} instance for an odd modulus greater than one. Throws
+	 * {@code ArithmeticException} otherwise. The width of the residues is the length of the modulus
+	 * without leading zero limbs.
+	 *
+	 * @param modulus Modulus, as little-endian 32-bit limbs.
+	 */
+	public ConstantTime(int[] modulus) {
+		Montgomery montgomery = new Montgomery(modulus);
+
+		// the modulus is public, so its constants may be computed by the variable-time kernels.
+		this.modulus = montgomery.modulus();
+		this.n = montgomery.length();
+		this.one = montgomery.one();
+		this.r2 = montgomery.toMontgomery(one);
+
+		int x = this.modulus[0];
+
+		// Newton's iteration doubles the correct low bits of 1/m from the three of m itself.
+		for (int i = 0; i < 4; i++) {
+			x *= 2 - this.modulus[0] * x;
+		}
+
+		this.inverse = -x;
+	}
+
+	/// GETTERS
+
+
+	/**
+	 * Getter method for the modulus.
+	 *
+	 * @return A new magnitude array.
+	 */
+	public int[] modulus() {
+		return modulus.clone();
+	}
+
+	/**
+	 * Getter method for the number of limbs of a residue.
+	 *
+	 * @return Number of limbs.
+	 */
+	public int length() {
+		return n;
+	}
+
+	/// FIXED-WIDTH ARITHMETIC
+
+
+	/**
+	 * Adds two magnitudes of equal width, and stores the low limbs of the sum in {@code result},
+	 * which may be the same array as either operand.
+	 *
+	 * @param result Array of the same width to store the sum in.
+	 * @param a Magnitude.
+	 * @param b Magnitude.
+	 * @return The carry out of the top limb, 0 or 1.
+	 */
+	public static int add(int[] result, int[] a, int[] b) {
+		long carry = 0;
+
+		for (int i = 0; i < a.length; i++) {
+			carry += (a[i] & LONG_MASK) + (b[i] & LONG_MASK);
+			result[i] = (int) carry;
+			carry >>>= 32;
+		}
+
+		return (int) carry;
+	}
+
+	/**
+	 * Subtracts one magnitude from another of equal width, and stores the low limbs of the difference
+	 * in {@code result}, which may be the same array as either operand.
+	 *
+	 * @param result Array of the same width to store the difference in.
+	 * @param a Magnitude.
+	 * @param b Magnitude.
+	 * @return The borrow out of the top limb, 0 or 1.
+	 */
+	public static int subtract(int[] result, int[] a, int[] b) {
+		long borrow = 0;
+
+		for (int i = 0; i < a.length; i++) {
+			borrow = (a[i] & LONG_MASK) - (b[i] & LONG_MASK) + borrow;
+			result[i] = (int) borrow;
+			borrow >>= 32;
+		}
+
+		return (int) -borrow;
+	}
+
+	/**
+	 * Multiplies two magnitudes by schoolbook multiplication over every limb.
+	 *
+	 * @param a Magnitude.
+	 * @param b Magnitude.
+	 * @return A new magnitude of {@code a.length + b.length} limbs.
+	 */
+	public static int[] multiply(int[] a, int[] b) {
+		int[] result = new int[a.length + b.length];
+
+		for (int i = 0; i < b.length; i++) {
+			long bi = b[i] & LONG_MASK;
+			long carry = 0;
+
+			for (int j = 0; j < a.length; j++) {
+				carry += (result[i + j] & LONG_MASK) + (a[j] & LONG_MASK) * bi;
+				result[i + j] = (int) carry;
+				carry >>>= 32;
+			}
+
+			result[i + a.length] = (int) carry;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Swaps the contents of two arrays of equal width if a bit is set. Both arrays are read and
+	 * written in full either way.
+	 *
+	 * @param a Array.
+	 * @param b Array.
+	 * @param bit 1 to swap, or 0 to leave both arrays as they are.
+	 */
+	public static void conditionalSwap(int[] a, int[] b, int bit) {
+		int mask = -bit;
+
+		for (int i = 0; i < a.length; i++) {
+			int t = (a[i] ^ b[i]) & mask;
+			a[i] ^= t;
+			b[i] ^= t;
+		}
+	}
+
+	/**
+	 * Copies an array into another of equal width if a bit is set. Both arrays are read in full
+	 * either way.
+	 *
+	 * @param result Array to copy into.
+	 * @param a Array to copy from.
+	 * @param bit 1 to copy, or 0 to leave {@code result} as it is.
+	 */
+	public static void conditionalCopy(int[] result, int[] a, int bit) {
+		int mask = -bit;
+
+		for (int i = 0; i < a.length; i++) {
+			result[i] ^= (result[i] ^ a[i]) & mask;
+		}
+	}
+
+	/**
+	 * Compares two arrays of equal width for equality, reading every limb.
+	 *
+	 * @param a Array.
+	 * @param b Array.
+	 * @return 1 if the arrays are equal, otherwise 0.
+	 */
+	public static int equal(int[] a, int[] b) {
+		int difference = 0;
+
+		for (int i = 0; i < a.length; i++) {
+			difference |= a[i] ^ b[i];
+		}
+
+		// read as unsigned, d - 1 is negative only for d = 0.
+		return (int) (((difference & LONG_MASK) - 1) >>> 63);
+	}
+
+	/// MODULAR ARITHMETIC
+
+
+	/**
+	 * Converts a magnitude into the Montgomery representation of its residue.
+	 *
+	 * @param a Magnitude of {@code n} limbs, which need not be below the modulus.
+	 * @return A new representation of {@code a}.
+	 */
+	public int[] toMontgomery(int[] a) {
+		return multiply(check(a), r2, new int[n]);
+	}
+
+	/**
+	 * Converts a representation back to the residue it represents.
+	 *
+	 * @param a Representation.
+	 * @return A new residue of {@code n} limbs.
+	 */
+	public int[] fromMontgomery(int[] a) {
+		int[] unit = new int[n];
+		unit[0] = 1;
+		return multiply(check(a), unit, new int[n]);
+	}
+
+	/**
+	 * Multiplies two magnitudes modulo the modulus.
+	 *
+	 * @param a Magnitude of {@code n} limbs, which need not be below the modulus.
+	 * @param b Magnitude of {@code n} limbs, which need not be below the modulus.
+	 * @return A new residue, {@code a * b mod m}.
+	 */
+	public int[] modMultiply(int[] a, int[] b) {
+		// (a R) b R^-1 = a b, so one factor in Montgomery form yields the plain product.
+		return multiply(toMontgomery(a), check(b), new int[n]);
+	}
+
+	/**
+	 * Raises a magnitude to a power modulo the modulus with a Montgomery ladder. The ladder keeps
+	 * {@code x0 = a^k} and {@code x1 = a^(k + 1)} for the exponent prefix {@code k}, and for every bit
+	 * of the exponent, set or not, conditionally swaps them, multiplies one into the other, squares
+	 * the first and swaps back. The number of operations depends only on the width of the exponent
+	 * array, not on its value.
+	 *
+	 * @param base Magnitude of {@code n} limbs, which need not be below the modulus.
+	 * @param exponent Exponent, whose every limb is used.
+	 * @return A new residue, {@code base^exponent mod m}.
+	 */
+	public int[] modPow(int[] base, int[] exponent) {
+		int[] x0 = one.clone();
+		int[] x1 = toMontgomery(base);
+		int[] temp = new int[n];
+
+		for (int i = 32 * exponent.length - 1; i >= 0; i--) {
+			int bit = exponent[i >>> 5] >>> i & 1;
+
+			conditionalSwap(x0, x1, bit);
+			multiply(x0, x1, temp);
+			System.arraycopy(temp, 0, x1, 0, n);
+			multiply(x0, x0, temp);
+			System.arraycopy(temp, 0, x0, 0, n);
+			conditionalSwap(x0, x1, bit);
+		}
+
+		return fromMontgomery(x0);
+	}
+
+	/// HELPERS
+
+
+	/**
+	 * Multiplies two representations by the coarsely integrated operand scanning method, and
+	 * subtracts the modulus from the result by a mask.
+	 */
+	private int[] multiply(int[] a, int[] b, int[] result) {
+		int[] t = new int[n + 2];
+		long factor = inverse & LONG_MASK;
+
+		for (int i = 0; i < n; i++) {
+			long bi = b[i] & LONG_MASK;
+			long carry = 0;
+
+			for (int j = 0; j < n; j++) {
+				carry += (t[j] & LONG_MASK) + (a[j] & LONG_MASK) * bi;
+				t[j] = (int) carry;
+				carry >>>= 32;
+			}
+
+			carry += t[n] & LONG_MASK;
+			t[n] = (int) carry;
+			t[n + 1] = (int) (carry >>> 32);
+
+			long q = ((t[0] & LONG_MASK) * factor) & LONG_MASK;
+			carry = ((t[0] & LONG_MASK) + q * (modulus[0] & LONG_MASK)) >>> 32;
+
+			for (int j = 1; j < n; j++) {
+				carry += (t[j] & LONG_MASK) + q * (modulus[j] & LONG_MASK);
+				t[j - 1] = (int) carry;
+				carry >>>= 32;
+			}
+
+			carry += t[n] & LONG_MASK;
+			t[n - 1] = (int) carry;
+			t[n] = t[n + 1] + (int) (carry >>> 32);
+		}
+
+		// t < 2m: keep t - m unless t is below R and the subtraction borrows.
+		int[] low = Arrays.copyOf(t, n);
+		int borrow = subtract(result, low, modulus);
+		conditionalCopy(result, low, borrow & (1 - t[n]));
+		return result;
+	}
+
+	/**
+	 * Returns an array if it has the width of a residue. Throws {@code IllegalArgumentException}
+	 * otherwise.
+	 */
+	private int[] check(int[] a) {
+		if (a.length != n) {
+			throw new IllegalArgumentException("width mismatch");
+		}
+
+		return a;
+	}
+}
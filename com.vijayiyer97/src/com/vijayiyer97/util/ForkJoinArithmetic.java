@@ -0,0 +1,122 @@
+package com.vijayiyer97.util;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork-join execution of the multiplication kernels. The sub-products of Karatsuba, Toom-3 and
+ * unbalanced multiplication are independent of each other, so above {@code PARALLEL_THRESHOLD}
+ * limbs they run as {@code RecursiveTask}s, and the products below the threshold run sequentially
+ * in whichever worker picked them up. Number-theoretic transforms submit their butterflies, and
+ * {@code PrimeSieve} its segments, through the same pool.
+ * <p>
+ * All tasks share one pool of at most {@code PARALLELISM} workers, created on first use. A kernel
+ * called from a worker of the pool forks into it directly, and one called from any other thread
+ * waits for the pool to finish, so nested multiplications never oversubscribe the processors.
+ *
+ * @author Vijay Iyer
+ *
+ */
+final class ForkJoinArithmetic {
+
+	private ForkJoinArithmetic() {
+	}
+
+	/**
+	 * Holds the pool, so that it is only started by the first parallel multiplication.
+	 */
+	private static final class Pool {
+
+		static final ForkJoinPool POOL = new ForkJoinPool(Math.max(LimbArithmetic.PARALLELISM, 1));
+	}
+
+	/**
+	 * Checks whether an operation on {@code length} limbs is long enough to be split into tasks.
+	 *
+	 * @param length Limb count of the shorter operand.
+	 * @return {@code true} if {@code length} reaches {@code PARALLEL_THRESHOLD}.
+	 */
+	static boolean parallel(int length) {
+		return length >= LimbArithmetic.PARALLEL_THRESHOLD;
+	}
+
+	/**
+	 * Runs a task in the pool and waits for its result. A task invoked from a worker of the pool runs
+	 * in that worker, and its subtasks are forked into the same pool.
+	 *
+	 * @param task Task.
+	 * @return The result of the task.
+	 */
+	static <T> T invoke(ForkJoinTask<T> task) {
+		return ForkJoinTask.getPool() == Pool.POOL ? task.invoke() : Pool.POOL.invoke(task);
+	}
+
+	/**
+	 * Multiplies pairs of magnitudes concurrently. A pair of identical arrays is squared.
+	 *
+	 * @param a Magnitudes.
+	 * @param b Magnitudes, as many as {@code a}.
+	 * @return New magnitudes, {@code a[i] * b[i]}.
+	 */
+	static int[][] multiplyAll(int[][] a, int[][] b) {
+		return invoke(new Products(a, b));
+	}
+
+	/**
+	 * Forks every product but the first, computes the first in the current worker, and joins the rest
+	 * in the reverse order of forking.
+	 */
+	private static final class Products extends RecursiveTask<int[][]> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int[][] a;
+		private final int[][] b;
+
+		Products(int[][] a, int[][] b) {
+			this.a = a;
+			this.b = b;
+		}
+
+		@Override
+		protected int[][] compute() {
+			int[][] result = new int[a.length][];
+			Product[] tasks = new Product[a.length];
+
+			for (int i = 1; i < a.length; i++) {
+				tasks[i] = new Product(a[i], b[i]);
+				tasks[i].fork();
+			}
+
+			result[0] = LimbArithmetic.multiply(a[0], b[0]);
+
+			for (int i = a.length - 1; i > 0; i--) {
+				result[i] = tasks[i].join();
+			}
+
+			return result;
+		}
+	}
+
+	/**
+	 * A single product, which may itself fork if its operands are long enough.
+	 */
+	private static final class Product extends RecursiveTask<int[]> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int[] a;
+		private final int[] b;
+
+		Product(int[] a, int[] b) {
+			this.a = a;
+			this.b = b;
+		}
+
+		@Override
+		protected int[] compute() {
+			return LimbArithmetic.multiply(a, b);
+		}
+	}
+}
@@ -0,0 +1,440 @@
+package com.vijayiyer97.util;
+
+import java.util.Arrays;
+
+/**
+ * Greatest common divisors of magnitudes. Word-sized operands, which fit in a {@code long}, use
+ * binary GCD on the machine word, and everything else Lehmer's algorithm: a run of Euclidean
+ * quotients is read off the leading 62 bits of the operands, with Knuth's two-sided test ensuring
+ * that each is exact, and the run is applied to the full operands as a single 2x2 matrix of
+ * word-sized cofactors. Operands of at least {@code HALF_GCD_THRESHOLD} limbs are reduced by the
+ * half-GCD method, which computes the matrix of the quotients of their leading half recursively and
+ * applies it with a fast multiplication, so that the cost of the GCD grows like that of a
+ * multiplication rather than quadratically.
+ * <p>
+ * The remainders are updated in place, in scratch arrays which are swapped rather than reallocated.
+ *
+ * @author Vijay Iyer
+ *
+ */
+final class GreatestCommonDivisor {
+
+	private static final long LONG_MASK = LimbArithmetic.LONG_MASK;
+
+	// bits kept above the target of a recursive half-GCD call, so that the quotients of the leading
+	// part almost always agree with those of the full operands.
+	private static final int MARGIN = 64;
+
+	/**
+	 * A product of Euclidean quotient matrices {@code [[q, 1], [1, 0]]}, whose entries are
+	 * non-negative and whose determinant is {@code sign}.
+	 */
+	private static final class Matrix {
+
+		int[] m00, m01, m10, m11;
+		int sign;
+
+		Matrix(int[] m00, int[] m01, int[] m10, int[] m11, int sign) {
+			this.m00 = m00;
+			this.m01 = m01;
+			this.m10 = m10;
+			this.m11 = m11;
+			this.sign = sign;
+		}
+
+		/**
+		 * Multiplies this matrix on the right by another.
+		 */
+		void multiply(Matrix s) {
+			int[] n00 = LimbArithmetic.add(LimbArithmetic.multiply(m00, s.m00), LimbArithmetic.multiply(m01, s.m10));
+			int[] n01 = LimbArithmetic.add(LimbArithmetic.multiply(m00, s.m01), LimbArithmetic.multiply(m01, s.m11));
+			int[] n10 = LimbArithmetic.add(LimbArithmetic.multiply(m10, s.m00), LimbArithmetic.multiply(m11, s.m10));
+			int[] n11 = LimbArithmetic.add(LimbArithmetic.multiply(m10, s.m01), LimbArithmetic.multiply(m11, s.m11));
+
+			m00 = LimbArithmetic.trim(n00);
+			m01 = LimbArithmetic.trim(n01);
+			m10 = LimbArithmetic.trim(n10);
+			m11 = LimbArithmetic.trim(n11);
+			sign *= s.sign;
+		}
+
+		/**
+		 * Multiplies this matrix on the right by {@code [[|D|, |B|], [|C|, |A|]]}, the inverse of a
+		 * Lehmer step {@code {A, B, C, D}} up to its determinant, in one linear pass per entry.
+		 */
+		void multiply(long[] lehmer) {
+			long a = Math.abs(lehmer[0]);
+			long b = Math.abs(lehmer[1]);
+			long c = Math.abs(lehmer[2]);
+			long d = Math.abs(lehmer[3]);
+			int len = Math.max(Math.max(m00.length, m01.length), Math.max(m10.length, m11.length)) + 2;
+
+			int[] n00 = sum(m00, d, m01, c, len);
+			int[] n01 = sum(m00, b, m01, a, len);
+			int[] n10 = sum(m10, d, m11, c, len);
+			int[] n11 = sum(m10, b, m11, a, len);
+
+			m00 = LimbArithmetic.trim(n00);
+			m01 = LimbArithmetic.trim(n01);
+			m10 = LimbArithmetic.trim(n10);
+			m11 = LimbArithmetic.trim(n11);
+			sign *= (int) (lehmer[0] * lehmer[3] - lehmer[1] * lehmer[2]);
+		}
+	}
+
+	private GreatestCommonDivisor() {
+	}
+
+	/**
+	 * Computes the greatest common divisor of two magnitudes.
+	 *
+	 * @return A new magnitude.
+	 */
+	static int[] gcd(int[] a, int[] b) {
+		boolean swap = LimbArithmetic.compare(a, b) < 0;
+		int[][] ab = { copy(swap ? b : a), copy(swap ? a : b) };
+
+		reduce(ab, 0, null);
+		return LimbArithmetic.trim(ab[0]);
+	}
+
+	/**
+	 * Computes the greatest common divisor {@code g} of {@code a} and {@code b}, where {@code a} is
+	 * non-zero, together with non-negative cofactors {@code x} and {@code y} with
+	 * {@code a x - b y = g}. The cofactor {@code x} is taken in {@code [1, b/g]}, or is one if
+	 * {@code b} is zero.
+	 *
+	 * @return A new array holding {@code g}, {@code x} and {@code y}.
+	 */
+	static int[][] extendedGcd(int[] a, int[] b) {
+		if (LimbArithmetic.length(b) == 0) {
+			return new int[][] { LimbArithmetic.trim(a), LimbArithmetic.ONE, LimbArithmetic.ZERO };
+		}
+
+		// Euclid's cofactors of a alternate in sign, so only their magnitudes are kept, as in
+		// x_(i + 1) = x_(i - 1) + q_i x_i, together with the parity of the step.
+		int[] u = copy(a);
+		int[] v = copy(b);
+		int[] x0 = { 1 };
+		int[] x1 = {};
+		int steps = 0;
+
+		while (LimbArithmetic.length(v) > 0) {
+			boolean close = LimbArithmetic.length(u) - LimbArithmetic.length(v) < 2 && LimbArithmetic.compare(u, v) >= 0;
+			long[] lehmer = close ? lehmer(u, v, -1) : null;
+
+			if (lehmer == null) {
+				int[][] qr = LimbArithmetic.divideAndRemainder(u, v);
+				int[] x = LimbArithmetic.trim(LimbArithmetic.add(x0, LimbArithmetic.multiply(qr[0], x1)));
+
+				u = v;
+				v = qr[1];
+				x0 = x1;
+				x1 = x;
+				steps++;
+				continue;
+			}
+
+			int len = LimbArithmetic.length(u);
+			int[] nu = combine(u, lehmer[0], v, lehmer[1], len);
+			int[] nv = combine(u, lehmer[2], v, lehmer[3], len);
+			int xLen = Math.max(x0.length, x1.length) + 2;
+			int[] nx0 = sum(x0, Math.abs(lehmer[0]), x1, Math.abs(lehmer[1]), xLen);
+			int[] nx1 = sum(x0, Math.abs(lehmer[2]), x1, Math.abs(lehmer[3]), xLen);
+
+			u = nu;
+			v = nv;
+			x0 = LimbArithmetic.trim(nx0);
+			x1 = LimbArithmetic.trim(nx1);
+			steps += (int) lehmer[4];
+		}
+
+		int[] g = LimbArithmetic.trim(u);
+		int[] x = x0;
+
+		// x_k = (-1)^k |x_k|, which is moved into [1, b/g] by adding b/g.
+		if ((steps & 1) == 1 || LimbArithmetic.length(x) == 0) {
+			x = LimbArithmetic.subtract(LimbArithmetic.divideAndRemainder(b, g)[0], x);
+		}
+
+		int[] y = LimbArithmetic.divideAndRemainder(LimbArithmetic.subtract(LimbArithmetic.multiply(a, x), g), b)[0];
+
+		return new int[][] { g, LimbArithmetic.trim(x), LimbArithmetic.trim(y) };
+	}
+
+	/// REDUCTION
+
+
+	/**
+	 * Runs Euclid's algorithm on {@code ab}, with {@code ab[0] >= ab[1]}, in place, until the
+	 * bit length of the smaller operand is at most {@code stopBits}. If {@code matrix} is not
+	 * {@code null}, the quotients taken are accumulated into it.
+	 */
+	private static void reduce(int[][] ab, long stopBits, Matrix matrix) {
+		// scratch arrays for the operands of the next Lehmer step.
+		int[] sa = new int[ab[0].length];
+		int[] sb = new int[ab[0].length];
+
+		while (true) {
+			int[] a = ab[0];
+			int[] b = ab[1];
+			int aLen = LimbArithmetic.length(a);
+			int bLen = LimbArithmetic.length(b);
+
+			if (LimbArithmetic.bitLength(b) <= stopBits) {
+				return;
+			} else if (matrix == null && aLen <= 2) {
+				long g = gcd(toLong(a), toLong(b));
+				ab[0] = new int[] { (int) g, (int) (g >>> 32) };
+				ab[1] = LimbArithmetic.ZERO;
+				return;
+			}
+
+			if (aLen - bLen < 2 && aLen >= LimbArithmetic.HALF_GCD_THRESHOLD && halfStep(ab, stopBits, matrix)) {
+				continue;
+			}
+
+			long[] lehmer = aLen - bLen < 2 ? lehmer(a, b, stopBits) : null;
+
+			if (lehmer == null) {
+				int[][] qr = LimbArithmetic.divideAndRemainder(a, b);
+
+				ab[0] = b;
+				ab[1] = qr[1];
+
+				if (matrix != null) {
+					matrix.multiply(new Matrix(LimbArithmetic.trim(qr[0]), LimbArithmetic.ONE, LimbArithmetic.ONE,
+							LimbArithmetic.ZERO, -1));
+				}
+
+				continue;
+			}
+
+			if (sa.length < aLen) {
+				sa = new int[aLen];
+				sb = new int[aLen];
+			}
+
+			combine(sa, a, lehmer[0], b, lehmer[1], aLen);
+			combine(sb, a, lehmer[2], b, lehmer[3], aLen);
+			Arrays.fill(sa, aLen, sa.length, 0);
+			Arrays.fill(sb, aLen, sb.length, 0);
+
+			// the old operands become the next scratch arrays, when they are large enough.
+			ab[0] = sa;
+			ab[1] = sb;
+			sa = a.length >= aLen ? a : new int[aLen];
+			sb = b.length >= aLen ? b : new int[aLen];
+
+			if (matrix != null) {
+				// (a, b) = [[D, -B], [-C, A]] (a', b') / det, where A D - B C = det.
+				matrix.multiply(lehmer);
+			}
+		}
+	}
+
+	/**
+	 * Reduces {@code ab} by the quotients of its leading part, computed recursively and applied as a
+	 * single matrix. Returns {@code false}, leaving {@code ab} unchanged, if the leading part yields no
+	 * quotient, or if its quotients are not quotients of the full operands.
+	 */
+	private static boolean halfStep(int[][] ab, long stopBits, Matrix matrix) {
+		int[] a = ab[0];
+		int[] b = ab[1];
+		long n = LimbArithmetic.bitLength(a);
+
+		// reducing the top n - k bits to half their length reduces the operands to stopBits.
+		long k = Math.max(2 * stopBits - n, n / 2);
+
+		if (n - k < 32L * LimbArithmetic.HALF_GCD_THRESHOLD) {
+			return false;
+		}
+
+		int[][] top = { LimbArithmetic.shiftRight(a, (int) k), LimbArithmetic.shiftRight(b, (int) k) };
+		Matrix s = new Matrix(LimbArithmetic.ONE, LimbArithmetic.ZERO, LimbArithmetic.ZERO, LimbArithmetic.ONE, 1);
+
+		reduce(top, (n - k) / 2 + MARGIN, s);
+
+		if (LimbArithmetic.length(s.m01) == 0 && LimbArithmetic.length(s.m10) == 0) {
+			return false;
+		}
+
+		// (a', b') = det (s11 a - s01 b, s00 b - s10 a). The top parts of a' and b' are already
+		// reduced, so only the low k bits of a and b remain to be multiplied.
+		int[] aLow = LimbArithmetic.truncate(a, (int) k);
+		int[] bLow = LimbArithmetic.truncate(b, (int) k);
+		int[] first = combine(top[0], (int) k, LimbArithmetic.multiply(s.m11, aLow), LimbArithmetic.multiply(s.m01, bLow),
+				s.sign);
+		int[] second = combine(top[1], (int) k, LimbArithmetic.multiply(s.m00, bLow), LimbArithmetic.multiply(s.m10, aLow),
+				s.sign);
+
+		if (first == null || second == null || LimbArithmetic.compare(first, second) <= 0) {
+			return false;
+		}
+
+		ab[0] = LimbArithmetic.trim(first);
+		ab[1] = LimbArithmetic.trim(second);
+
+		if (matrix != null) {
+			matrix.multiply(s);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Lehmer's inner loop. Takes the leading 62 bits of {@code a}, and the bits of {@code b} in the
+	 * same positions, and runs Euclid's algorithm on them for as long as Knuth's test shows that
+	 * every quotient is also a quotient of the full operands, the cofactors stay below
+	 * {@code 2^31}, and the remainder stays longer than {@code stopBits} bits.
+	 *
+	 * @return {@code {A, B, C, D, k}} where {@code A a + B b} and {@code C a + D b} are the
+	 * remainders after {@code k} steps, or {@code null} if no step was taken.
+	 */
+	private static long[] lehmer(int[] a, int[] b, long stopBits) {
+		long shift = Math.max(LimbArithmetic.bitLength(a) - 62, 0);
+		long ah = topBits(a, shift);
+		long bh = topBits(b, shift);
+
+		long A = 1, B = 0, C = 0, D = 1;
+		int steps = 0;
+
+		while (bh + C != 0 && bh + D != 0) {
+			long q = (ah + A) / (bh + C);
+
+			if (q != (ah + B) / (bh + D) || q > Integer.MAX_VALUE) {
+				break;
+			}
+
+			long nC = A - q * C;
+			long nD = B - q * D;
+			long nbh = ah - q * bh;
+
+			if (Math.abs(nC) > Integer.MAX_VALUE || Math.abs(nD) > Integer.MAX_VALUE
+					|| shift + 64 - Long.numberOfLeadingZeros(nbh) <= stopBits) {
+				break;
+			}
+
+			A = C;
+			B = D;
+			C = nC;
+			D = nD;
+			ah = bh;
+			bh = nbh;
+			steps++;
+		}
+
+		return B == 0 ? null : new long[] { A, B, C, D, steps };
+	}
+
+	/// BINARY GCD
+
+
+	/**
+	 * Binary GCD of two unsigned {@code long} values.
+	 */
+	static long gcd(long a, long b) {
+		if (a == 0 || b == 0) {
+			return a | b;
+		}
+
+		int shift = Long.numberOfTrailingZeros(a | b);
+		a >>>= Long.numberOfTrailingZeros(a);
+
+		while (b != 0) {
+			b >>>= Long.numberOfTrailingZeros(b);
+
+			if (Long.compareUnsigned(a, b) > 0) {
+				long t = a;
+				a = b;
+				b = t;
+			}
+
+			b -= a;
+		}
+
+		return a << shift;
+	}
+
+	/// HELPERS
+
+
+	/**
+	 * Stores the low {@code len} limbs of {@code x a + y b} in {@code result}, where {@code x} and
+	 * {@code y} have opposite signs, are below {@code 2^31} in magnitude, and the combination is
+	 * known to be non-negative and below {@code 2^(32 len)}.
+	 */
+	private static int[] combine(int[] result, int[] a, long x, int[] b, long y, int len) {
+		int bLen = Math.min(b.length, len);
+		long carry = 0;
+
+		for (int i = 0; i < len; i++) {
+			long t = x * (a[i] & LONG_MASK) + (i < bLen ? y * (b[i] & LONG_MASK) : 0) + carry;
+			result[i] = (int) t;
+			carry = t >> 32;
+		}
+
+		return result;
+	}
+
+	private static int[] combine(int[] a, long x, int[] b, long y, int len) {
+		return combine(new int[len], a, x, b, y, len);
+	}
+
+	/**
+	 * Returns the low {@code len} limbs of {@code x a + y b}, for non-negative {@code x} and
+	 * {@code y} below {@code 2^31}.
+	 */
+	private static int[] sum(int[] a, long x, int[] b, long y, int len) {
+		int[] result = new int[len];
+		long carry = 0;
+
+		for (int i = 0; i < len; i++) {
+			long ai = i < a.length ? a[i] & LONG_MASK : 0;
+			long bi = i < b.length ? b[i] & LONG_MASK : 0;
+			long t = x * ai + y * bi + carry;
+
+			result[i] = (int) t;
+			carry = t >>> 32;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns {@code high 2^k + sign (p - q)} if it is non-negative, or {@code null} otherwise.
+	 */
+	private static int[] combine(int[] high, int k, int[] p, int[] q, int sign) {
+		int[] plus = sign > 0 ? p : q;
+		int[] minus = sign > 0 ? q : p;
+		int[] total = LimbArithmetic.add(LimbArithmetic.shiftLeft(high, k), plus);
+
+		return LimbArithmetic.compare(total, minus) >= 0 ? LimbArithmetic.subtract(total, minus) : null;
+	}
+
+	/**
+	 * Returns the bits of {@code a} from position {@code shift} upward, of which there are at most
+	 * 62 when {@code shift} is that of the larger operand.
+	 */
+	private static long topBits(int[] a, long shift) {
+		int limb = (int) (shift >>> 5);
+		int bits = (int) (shift & 31);
+
+		long l0 = limb < a.length ? a[limb] & LONG_MASK : 0;
+		long l1 = limb + 1 < a.length ? a[limb + 1] & LONG_MASK : 0;
+		long l2 = limb + 2 < a.length ? a[limb + 2] & LONG_MASK : 0;
+
+		return bits == 0 ? l0 | (l1 << 32) : (l0 >>> bits) | (l1 << (32 - bits)) | (l2 << (64 - bits));
+	}
+
+	private static long toLong(int[] a) {
+		long low = a.length > 0 ? a[0] & LONG_MASK : 0;
+		long high = a.length > 1 ? a[1] & LONG_MASK : 0;
+
+		return low | (high << 32);
+	}
+
+	private static int[] copy(int[] a) {
+		return Arrays.copyOf(a, Math.max(LimbArithmetic.length(a), 1));
+	}
+}
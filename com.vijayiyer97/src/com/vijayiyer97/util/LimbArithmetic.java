@@ -0,0 +1,1693 @@
+package com.vijayiyer97.util;
+
+import java.util.Arrays;
+
+/**
+ * Arithmetic kernels over magnitudes stored as little-endian arrays of 32-bit limbs. Limb {@code i}
+ * of a magnitude holds bits {@code [32i, 32i + 32)} of the value and is read as an unsigned integer.
+ * Magnitudes may carry leading zero limbs, and every kernel accepts them. Carries and borrows are
+ * propagated through {@code long} accumulators, one limb per step.
+ * <p>
+ * No kernel modifies its operands. Each allocates its result once, sized for the largest possible
+ * value, so a result may itself carry a leading zero limb.
+ *
+ * @author Vijay Iyer
+ *
+ */
+public final class LimbArithmetic {
+
+	/**
+	 * Mask of the low 32 bits of a {@code long}, used to read a limb as unsigned.
+	 */
+	static final long LONG_MASK = 0xFFFFFFFFL;
+
+	/**
+	 * Magnitude of zero.
+	 */
+	static final int[] ZERO = new int[0];
+
+	/**
+	 * Magnitude of one.
+	 */
+	static final int[] ONE = { 1 };
+
+	/**
+	 * Limb count of the shorter operand from which {@code multiply} switches from schoolbook to
+	 * Karatsuba multiplication. Read from the system property
+	 * {@code com.vijayiyer97.util.karatsubaThreshold} when set.
+	 */
+	static int KARATSUBA_THRESHOLD = Integer.getInteger("com.vijayiyer97.util.karatsubaThreshold", 48);
+
+	/**
+	 * Limb count of the shorter operand from which {@code multiply} switches from Karatsuba to
+	 * Toom-3 multiplication. Read from the system property
+	 * {@code com.vijayiyer97.util.toom3Threshold} when set.
+	 */
+	static int TOOM3_THRESHOLD = Integer.getInteger("com.vijayiyer97.util.toom3Threshold", 160);
+
+	/**
+	 * Limb count of the shorter operand from which {@code multiply} switches from Toom-3 to
+	 * number-theoretic transform multiplication. Read from the system property
+	 * {@code com.vijayiyer97.util.nttThreshold} when set.
+	 */
+	static int NTT_THRESHOLD = Integer.getInteger("com.vijayiyer97.util.nttThreshold", 3072);
+
+	/**
+	 * Limb count from which {@code square} switches from schoolbook to Karatsuba squaring. Read from
+	 * the system property {@code com.vijayiyer97.util.karatsubaSquareThreshold} when set.
+	 */
+	static int KARATSUBA_SQUARE_THRESHOLD = Integer.getInteger("com.vijayiyer97.util.karatsubaSquareThreshold", 64);
+
+	/**
+	 * Limb count from which {@code square} switches from Karatsuba to Toom-3 squaring. Read from the
+	 * system property {@code com.vijayiyer97.util.toom3SquareThreshold} when set.
+	 */
+	static int TOOM3_SQUARE_THRESHOLD = Integer.getInteger("com.vijayiyer97.util.toom3SquareThreshold", 192);
+
+	/**
+	 * Limb count of the divisor from which {@code divideAndRemainder} switches from Knuth's
+	 * Algorithm D to Burnikel-Ziegler division. Read from the system property
+	 * {@code com.vijayiyer97.util.burnikelZieglerThreshold} when set.
+	 */
+	static int BURNIKEL_ZIEGLER_THRESHOLD = Integer.getInteger("com.vijayiyer97.util.burnikelZieglerThreshold", 80);
+
+	/**
+	 * Least number of limbs by which the dividend must exceed the divisor for Burnikel-Ziegler
+	 * division to be used. Read from the system property
+	 * {@code com.vijayiyer97.util.burnikelZieglerOffset} when set.
+	 */
+	static int BURNIKEL_ZIEGLER_OFFSET = Integer.getInteger("com.vijayiyer97.util.burnikelZieglerOffset", 40);
+
+	/**
+	 * Limb count of the dividend from which {@code divideAndRemainder} divides by multiplying by a
+	 * Newton reciprocal, for divisors in the Burnikel-Ziegler range. Read from the system property
+	 * {@code com.vijayiyer97.util.newtonThreshold} when set.
+	 */
+	static int NEWTON_THRESHOLD = Integer.getInteger("com.vijayiyer97.util.newtonThreshold", 1 << 18);
+
+	/**
+	 * Limb count of the larger operand from which {@code gcd} reduces the operands by the half-GCD
+	 * method. Read from the system property {@code com.vijayiyer97.util.halfGcdThreshold} when set.
+	 */
+	static int HALF_GCD_THRESHOLD = Integer.getInteger("com.vijayiyer97.util.halfGcdThreshold", 384);
+
+	/**
+	 * Largest number of worker threads which multiply concurrently. Read from the system property
+	 * {@code com.vijayiyer97.util.parallelism} when set, and the number of available processors
+	 * otherwise.
+	 */
+	static final int PARALLELISM = Integer.getInteger("com.vijayiyer97.util.parallelism",
+			Runtime.getRuntime().availableProcessors());
+
+	/**
+	 * Limb count of the shorter operand from which {@code multiply} and {@code square} compute their
+	 * sub-products as fork-join tasks; shorter sub-products run sequentially. Parallel multiplication
+	 * is off when {@code PARALLELISM} is one. Read from the system property
+	 * {@code com.vijayiyer97.util.parallelThreshold} when set.
+	 */
+	static int PARALLEL_THRESHOLD = Integer.getInteger("com.vijayiyer97.util.parallelThreshold",
+			PARALLELISM > 1 ? 1024 : Integer.MAX_VALUE);
+
+	/**
+	 * Exponent bit lengths above which {@code pow} widens its window by one bit.
+	 */
+	private static final int[] POW_WINDOW_THRESHOLDS = { 7, 25 };
+
+	private LimbArithmetic() {
+	}
+
+	/// GETTERS
+
+
+	/**
+	 * Counts the limbs of a magnitude without its leading zero limbs.
+	 *
+	 * @param a Magnitude.
+	 * @return Number of significant limbs.
+	 */
+	public static int length(int[] a) {
+		int n = a.length;
+
+		while (n > 0 && a[n - 1] == 0) {
+			n--;
+		}
+
+		return n;
+	}
+
+	/**
+	 * Counts the bits of a magnitude without its leading zeros.
+	 *
+	 * @param a Magnitude.
+	 * @return Number of significant bits.
+	 */
+	public static long bitLength(int[] a) {
+		int n = length(a);
+
+		return n == 0 ? 0 : 32L * n - Integer.numberOfLeadingZeros(a[n - 1]);
+	}
+
+	/**
+	 * Removes the leading zero limbs of a magnitude.
+	 *
+	 * @param a Magnitude.
+	 * @return {@code a} itself if it has no leading zero limbs, or a trimmed copy.
+	 */
+	public static int[] trim(int[] a) {
+		int n = length(a);
+
+		if (n == a.length) {
+			return a;
+		}
+
+		int[] result = new int[n];
+		System.arraycopy(a, 0, result, 0, n);
+
+		return result;
+	}
+
+	/**
+	 * Compares two magnitudes.
+	 *
+	 * @param a Magnitude.
+	 * @param b Magnitude.
+	 * @return A positive integer if {@code a} is greater, a negative integer if {@code a} is smaller,
+	 * or zero if both are equal.
+	 */
+	public static int compare(int[] a, int[] b) {
+		int aLen = length(a);
+		int bLen = length(b);
+
+		if (aLen != bLen) {
+			return aLen - bLen;
+		}
+
+		return compare(a, b, aLen);
+	}
+
+	/**
+	 * Compares the low {@code n} limbs of two magnitudes.
+	 */
+	static int compare(int[] a, int[] b, int n) {
+		for (int i = n - 1; i >= 0; i--) {
+			if (a[i] != b[i]) {
+				return Integer.compareUnsigned(a[i], b[i]);
+			}
+		}
+
+		return 0;
+	}
+
+	/**
+	 * Compares a magnitude with an unsigned {@code long}.
+	 *
+	 * @param a Magnitude.
+	 * @param b Value, read as unsigned.
+	 * @return A positive integer if {@code a} is greater, a negative integer if {@code a} is smaller,
+	 * or zero if both are equal.
+	 */
+	public static int compare(int[] a, long b) {
+		int aLen = length(a);
+
+		if (aLen > 2) {
+			return 1;
+		}
+
+		long x = aLen == 0 ? 0 : (a[0] & LONG_MASK) | (aLen > 1 ? (long) a[1] << 32 : 0);
+		return Long.compareUnsigned(x, b);
+	}
+
+	/// ADDITION AND SUBTRACTION
+
+
+	/**
+	 * Adds two magnitudes.
+	 *
+	 * @param a Magnitude.
+	 * @param b Magnitude.
+	 * @return A new magnitude, {@code a + b}.
+	 */
+	public static int[] add(int[] a, int[] b) {
+		int aLen = length(a);
+		int bLen = length(b);
+
+		if (aLen < bLen) {
+			int[] temp = a;
+			a = b;
+			b = temp;
+
+			int n = aLen;
+			aLen = bLen;
+			bLen = n;
+		}
+
+		int[] result = new int[aLen + 1];
+		result[aLen] = add(result, a, aLen, b, bLen);
+
+		return result;
+	}
+
+	/**
+	 * Adds the low {@code bLen} limbs of {@code b} to the low {@code aLen} limbs of {@code a}, where
+	 * {@code aLen >= bLen}, and stores the low {@code aLen} limbs of the sum in {@code result}.
+	 * {@code result} may be the same array as {@code a} or {@code b}.
+	 *
+	 * @param result Array to store the sum in.
+	 * @param a Magnitude.
+	 * @param aLen Number of limbs of {@code a}.
+	 * @param b Magnitude.
+	 * @param bLen Number of limbs of {@code b}.
+	 * @return The carry out of the top limb.
+	 */
+	public static int add(int[] result, int[] a, int aLen, int[] b, int bLen) {
+		long carry = 0;
+		int i = 0;
+
+		for (; i < bLen; i++) {
+			carry += (a[i] & LONG_MASK) + (b[i] & LONG_MASK);
+			result[i] = (int) carry;
+			carry >>>= 32;
+		}
+
+		for (; i < aLen && carry != 0; i++) {
+			carry += a[i] & LONG_MASK;
+			result[i] = (int) carry;
+			carry >>>= 32;
+		}
+
+		if (result != a) {
+			System.arraycopy(a, i, result, i, aLen - i);
+		}
+
+		return (int) carry;
+	}
+
+	/**
+	 * Subtracts one magnitude from another. Throws {@code ArithmeticException} if {@code b} is greater
+	 * than {@code a}.
+	 *
+	 * @param a Magnitude.
+	 * @param b Magnitude no greater than {@code a}.
+	 * @return A new magnitude, {@code a - b}.
+	 */
+	public static int[] subtract(int[] a, int[] b) {
+		int aLen = length(a);
+		int bLen = length(b);
+
+		if (aLen < bLen) {
+			throw new ArithmeticException("negative magnitude");
+		}
+
+		int[] result = new int[aLen];
+
+		if (subtract(result, a, aLen, b, bLen) != 0) {
+			throw new ArithmeticException("negative magnitude");
+		}
+
+		return result;
+	}
+
+	/**
+	 * Subtracts the low {@code bLen} limbs of {@code b} from the low {@code aLen} limbs of {@code a},
+	 * where {@code aLen >= bLen}, and stores the low {@code aLen} limbs of the difference in
+	 * {@code result}. {@code result} may be the same array as {@code a} or {@code b}.
+	 *
+	 * @param result Array to store the difference in.
+	 * @param a Magnitude.
+	 * @param aLen Number of limbs of {@code a}.
+	 * @param b Magnitude.
+	 * @param bLen Number of limbs of {@code b}.
+	 * @return The borrow out of the top limb.
+	 */
+	public static int subtract(int[] result, int[] a, int aLen, int[] b, int bLen) {
+		long borrow = 0;
+		int i = 0;
+
+		for (; i < bLen; i++) {
+			borrow = (a[i] & LONG_MASK) - (b[i] & LONG_MASK) + borrow;
+			result[i] = (int) borrow;
+			borrow >>= 32;
+		}
+
+		for (; i < aLen && borrow != 0; i++) {
+			borrow = (a[i] & LONG_MASK) + borrow;
+			result[i] = (int) borrow;
+			borrow >>= 32;
+		}
+
+		if (result != a) {
+			System.arraycopy(a, i, result, i, aLen - i);
+		}
+
+		return (int) -borrow;
+	}
+
+	/**
+	 * Adds an unsigned {@code long} to a magnitude in a single pass, which copies the remaining limbs
+	 * as soon as the carry dies out.
+	 *
+	 * @param a Magnitude.
+	 * @param b Value, read as unsigned.
+	 * @return A new magnitude, {@code a + b}.
+	 */
+	public static int[] add(int[] a, long b) {
+		int aLen = length(a);
+		int n = Math.max(aLen, 2);
+		int[] result = new int[n + 1];
+		long carry = 0;
+		int i = 0;
+
+		for (; i < 2; i++, b >>>= 32) {
+			carry += (i < aLen ? a[i] & LONG_MASK : 0) + (b & LONG_MASK);
+			result[i] = (int) carry;
+			carry >>>= 32;
+		}
+
+		for (; i < aLen && carry != 0; i++) {
+			carry += a[i] & LONG_MASK;
+			result[i] = (int) carry;
+			carry >>>= 32;
+		}
+
+		if (i < aLen) {
+			System.arraycopy(a, i, result, i, aLen - i);
+		}
+
+		result[n] = (int) carry;
+		return result;
+	}
+
+	/**
+	 * Subtracts an unsigned {@code long} from a magnitude in a single pass. Throws
+	 * {@code ArithmeticException} if {@code b} is greater than {@code a}.
+	 *
+	 * @param a Magnitude.
+	 * @param b Value no greater than {@code a}, read as unsigned.
+	 * @return A new magnitude, {@code a - b}.
+	 */
+	public static int[] subtract(int[] a, long b) {
+		if (compare(a, b) < 0) {
+			throw new ArithmeticException("negative magnitude");
+		}
+
+		int aLen = length(a);
+		int[] result = new int[aLen];
+		long borrow = 0;
+		int i = 0;
+
+		for (; i < 2 && i < aLen; i++, b >>>= 32) {
+			borrow = (a[i] & LONG_MASK) - (b & LONG_MASK) + borrow;
+			result[i] = (int) borrow;
+			borrow >>= 32;
+		}
+
+		for (; i < aLen && borrow != 0; i++) {
+			borrow = (a[i] & LONG_MASK) + borrow;
+			result[i] = (int) borrow;
+			borrow >>= 32;
+		}
+
+		if (i < aLen) {
+			System.arraycopy(a, i, result, i, aLen - i);
+		}
+
+		return result;
+	}
+
+	/// SHIFTS
+
+
+	/**
+	 * Shifts a magnitude left.
+	 *
+	 * @param a Magnitude.
+	 * @param n Number of bits to shift by. Must be non-negative.
+	 * @return A new magnitude, {@code a << n}.
+	 */
+	public static int[] shiftLeft(int[] a, int n) {
+		int aLen = length(a);
+
+		if (aLen == 0) {
+			return ZERO;
+		}
+
+		int limbs = n >>> 5;
+		int bits = n & 31;
+		int[] result = new int[aLen + limbs + 1];
+
+		if (bits == 0) {
+			System.arraycopy(a, 0, result, limbs, aLen);
+		} else {
+			int carry = 0;
+
+			for (int i = 0; i < aLen; i++) {
+				result[i + limbs] = (a[i] << bits) | carry;
+				carry = a[i] >>> (32 - bits);
+			}
+
+			result[aLen + limbs] = carry;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Shifts a magnitude right, discarding the bits shifted out.
+	 *
+	 * @param a Magnitude.
+	 * @param n Number of bits to shift by. Must be non-negative.
+	 * @return A new magnitude, {@code a >> n}.
+	 */
+	public static int[] shiftRight(int[] a, int n) {
+		int aLen = length(a);
+		int limbs = n >>> 5;
+		int bits = n & 31;
+
+		if (limbs >= aLen) {
+			return ZERO;
+		}
+
+		int[] result = new int[aLen - limbs];
+
+		if (bits == 0) {
+			System.arraycopy(a, limbs, result, 0, result.length);
+		} else {
+			for (int i = 0; i < result.length; i++) {
+				int high = i + limbs + 1 < aLen ? a[i + limbs + 1] << (32 - bits) : 0;
+				result[i] = (a[i + limbs] >>> bits) | high;
+			}
+		}
+
+		return result;
+	}
+
+	/// MULTIPLICATION
+
+
+	/**
+	 * Multiplies two magnitudes. Operands shorter than {@code KARATSUBA_THRESHOLD} limbs are
+	 * multiplied by the schoolbook method, those shorter than {@code TOOM3_THRESHOLD} limbs by
+	 * Karatsuba's method, those shorter than {@code NTT_THRESHOLD} limbs by Toom-Cook 3-way
+	 * multiplication, and longer ones by number-theoretic transforms. Products too long for a single
+	 * transform are split by Toom-3 until the pieces fit.
+	 *
+	 * @param a Magnitude.
+	 * @param b Magnitude.
+	 * @return A new magnitude, {@code a * b}.
+	 */
+	public static int[] multiply(int[] a, int[] b) {
+		int aLen = length(a);
+		int bLen = length(b);
+
+		if (aLen == 0 || bLen == 0) {
+			return ZERO;
+		} else if (a == b) {
+			return square(a, aLen);
+		}
+
+		return multiply(a, aLen, b, bLen);
+	}
+
+	/**
+	 * Multiplies the low {@code aLen} limbs of {@code a} by the low {@code bLen} limbs of {@code b}.
+	 *
+	 * @return A new array of {@code aLen + bLen} limbs.
+	 */
+	static int[] multiply(int[] a, int aLen, int[] b, int bLen) {
+		if (aLen < bLen) {
+			return multiply(b, bLen, a, aLen);
+		} else if (bLen < KARATSUBA_THRESHOLD) {
+			int[] result = new int[aLen + bLen];
+			multiplyToLen(result, a, aLen, b, bLen);
+			return result;
+		} else if (aLen >= 2 * bLen) {
+			return multiplyUnbalanced(a, aLen, b, bLen);
+		} else if (bLen < TOOM3_THRESHOLD) {
+			return karatsuba(a, aLen, b, bLen);
+		} else if (bLen < NTT_THRESHOLD || aLen + bLen > NumberTheoreticTransform.MAX_LENGTH) {
+			return toom3(a, aLen, b, bLen);
+		}
+
+		return NumberTheoreticTransform.multiply(a, aLen, b, bLen);
+	}
+
+	/**
+	 * Multiplies the low {@code aLen} limbs of {@code a} by an unsigned limb and adds another, and
+	 * stores the low {@code aLen} limbs of {@code a m + c} in {@code result}, which may be the same
+	 * array as {@code a}.
+	 *
+	 * @param result Array to store the result in.
+	 * @param a Magnitude.
+	 * @param aLen Number of limbs of {@code a}.
+	 * @param m Multiplier, read as unsigned.
+	 * @param c Addend, read as unsigned.
+	 * @return The limb carried out of the top limb.
+	 */
+	public static int multiplyAdd(int[] result, int[] a, int aLen, int m, int c) {
+		long y = m & LONG_MASK;
+		long carry = c & LONG_MASK;
+
+		for (int i = 0; i < aLen; i++) {
+			carry += (a[i] & LONG_MASK) * y;
+			result[i] = (int) carry;
+			carry >>>= 32;
+		}
+
+		return (int) carry;
+	}
+
+	/**
+	 * Multiplies a magnitude by an unsigned {@code long} in a single pass. Each limb is multiplied by
+	 * both halves of {@code b}, and the carry between limbs spans two limbs.
+	 *
+	 * @param a Magnitude.
+	 * @param b Multiplier, read as unsigned.
+	 * @return A new magnitude, {@code a * b}.
+	 */
+	public static int[] multiply(int[] a, long b) {
+		int aLen = length(a);
+
+		if (aLen == 0 || b == 0) {
+			return ZERO;
+		}
+
+		int[] result = new int[aLen + 2];
+		long low = b & LONG_MASK;
+		long high = b >>> 32;
+
+		if (high == 0) {
+			result[aLen] = multiplyAdd(result, a, aLen, (int) low, 0);
+			return result;
+		}
+
+		long carry = 0;
+
+		for (int i = 0; i < aLen; i++) {
+			long x = a[i] & LONG_MASK;
+			long product = x * low + (carry & LONG_MASK);
+
+			// the carry stays below 2^64 as unsigned, since x high is at most 2^64 - 2^33 + 1.
+			result[i] = (int) product;
+			carry = x * high + (carry >>> 32) + (product >>> 32);
+		}
+
+		result[aLen] = (int) carry;
+		result[aLen + 1] = (int) (carry >>> 32);
+
+		return result;
+	}
+
+	/**
+	 * Schoolbook multiplication. Stores the {@code aLen + bLen} limbs of the product in
+	 * {@code result}, which must be a distinct array.
+	 */
+	static void multiplyToLen(int[] result, int[] a, int aLen, int[] b, int bLen) {
+		Arrays.fill(result, 0, aLen + bLen, 0);
+
+		for (int j = 0; j < bLen; j++) {
+			long y = b[j] & LONG_MASK;
+
+			if (y == 0) {
+				continue;
+			}
+
+			long carry = 0;
+
+			for (int i = 0; i < aLen; i++) {
+				carry += (a[i] & LONG_MASK) * y + (result[i + j] & LONG_MASK);
+				result[i + j] = (int) carry;
+				carry >>>= 32;
+			}
+
+			result[aLen + j] = (int) carry;
+		}
+	}
+
+	/**
+	 * Multiplies an operand at least twice as long as the other by cutting it into pieces the length
+	 * of the shorter operand, so every partial product is balanced.
+	 */
+	private static int[] multiplyUnbalanced(int[] a, int aLen, int[] b, int bLen) {
+		int[] result = new int[aLen + bLen];
+		int count = (aLen + bLen - 1) / bLen;
+		int[][] pieces = new int[count][];
+		int[][] multipliers = new int[count][];
+
+		for (int i = 0; i < count; i++) {
+			pieces[i] = Arrays.copyOfRange(a, i * bLen, Math.min((i + 1) * bLen, aLen));
+			multipliers[i] = b;
+		}
+
+		int[][] partials = multiplyAll(pieces, multipliers, bLen);
+
+		for (int i = 0; i < count; i++) {
+			addShifted(result, partials[i], length(partials[i]), i * bLen);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Karatsuba multiplication of operands of similar length: with {@code a = a1 B + a0} and
+	 * {@code b = b1 B + b0}, three half-length products give
+	 * {@code a b = a1 b1 B^2 + ((a0 + a1)(b0 + b1) - a0 b0 - a1 b1) B + a0 b0}.
+	 */
+	private static int[] karatsuba(int[] a, int aLen, int[] b, int bLen) {
+		int half = (aLen + 1) >>> 1;
+
+		int[] a0 = Arrays.copyOf(a, half);
+		int[] a1 = Arrays.copyOfRange(a, half, aLen);
+		int[] b0 = Arrays.copyOf(b, Math.min(half, bLen));
+		int[] b1 = bLen > half ? Arrays.copyOfRange(b, half, bLen) : ZERO;
+
+		int[][] z = multiplyAll(new int[][] { a0, a1, add(a0, a1) }, new int[][] { b0, b1, add(b0, b1) }, bLen);
+		int[] z0 = z[0];
+		int[] z2 = z[1];
+		int[] z1 = z[2];
+
+		int z1Len = length(z1);
+		subtract(z1, z1, z1Len, z0, length(z0));
+		subtract(z1, z1, z1Len, z2, length(z2));
+
+		int[] result = new int[aLen + bLen];
+		System.arraycopy(z0, 0, result, 0, length(z0));
+		addShifted(result, z1, length(z1), half);
+		addShifted(result, z2, length(z2), 2 * half);
+
+		return result;
+	}
+
+	/**
+	 * Toom-Cook 3-way multiplication of operands of similar length. Both operands are split into
+	 * three pieces, read as polynomials of degree two in {@code B}, and evaluated at 0, 1, -1, 2 and
+	 * infinity. The five pointwise products are interpolated with Bodrato's sequence, whose only
+	 * divisions are exact divisions by two and three.
+	 */
+	private static int[] toom3(int[] a, int aLen, int[] b, int bLen) {
+		int k = (aLen + 2) / 3;
+
+		int[] a0 = piece(a, aLen, 0, k);
+		int[] a1 = piece(a, aLen, k, 2 * k);
+		int[] a2 = piece(a, aLen, 2 * k, aLen);
+		int[] b0 = piece(b, bLen, 0, k);
+		int[] b1 = piece(b, bLen, k, 2 * k);
+		int[] b2 = piece(b, bLen, 2 * k, bLen);
+
+		// evaluations at 1 and -1; only the latter can be negative.
+		int[] da = add(a0, a2);
+		int[] db = add(b0, b2);
+		int daSign = compare(da, a1);
+		int dbSign = compare(db, b1);
+		int[] dam1 = daSign >= 0 ? subtract(da, a1) : subtract(a1, da);
+		int[] dbm1 = dbSign >= 0 ? subtract(db, b1) : subtract(b1, db);
+		boolean vm1Negative = (daSign < 0) != (dbSign < 0);
+
+		da = add(da, a1);
+		db = add(db, b1);
+
+		// evaluation at 2: ((a0 + a1 + a2 + a2) << 1) - a0.
+		int[] da2 = subtract(shiftLeft(add(da, a2), 1), a0);
+		int[] db2 = subtract(shiftLeft(add(db, b2), 1), b0);
+
+		int[][] v = multiplyAll(new int[][] { a0, da, dam1, da2, a2 }, new int[][] { b0, db, dbm1, db2, b2 }, bLen);
+
+		return interpolate(v[0], v[1], v[2], vm1Negative, v[3], v[4], k, aLen + bLen);
+	}
+
+	/**
+	 * Bodrato's interpolation for Toom-3: recovers the five coefficients of the product polynomial
+	 * from its values at 0, 1, -1, 2 and infinity, and sums them into {@code length} limbs.
+	 */
+	private static int[] interpolate(int[] v0, int[] v1, int[] vm1, boolean vm1Negative, int[] v2, int[] vInf,
+			int k, int length) {
+		int[] t2 = divideExactly3(vm1Negative ? add(v2, vm1) : subtract(v2, vm1));
+		int[] tm1 = shiftRight(vm1Negative ? add(v1, vm1) : subtract(v1, vm1), 1);
+		int[] t1 = subtract(v1, v0);
+		t2 = shiftRight(subtract(t2, t1), 1);
+		t1 = subtract(subtract(t1, tm1), vInf);
+		t2 = subtract(t2, shiftLeft(vInf, 1));
+		tm1 = subtract(tm1, t2);
+
+		int[] result = new int[length];
+		System.arraycopy(v0, 0, result, 0, length(v0));
+		addShifted(result, tm1, length(tm1), k);
+		addShifted(result, t1, length(t1), 2 * k);
+		addShifted(result, t2, length(t2), 3 * k);
+		addShifted(result, vInf, length(vInf), 4 * k);
+
+		return result;
+	}
+
+	/**
+	 * Copies limbs {@code [from, to)} of the low {@code aLen} limbs of {@code a}, or fewer if
+	 * {@code a} runs out first.
+	 */
+	private static int[] piece(int[] a, int aLen, int from, int to) {
+		return from >= aLen ? ZERO : Arrays.copyOfRange(a, from, Math.min(to, aLen));
+	}
+
+	/**
+	 * Multiplies pairs of magnitudes, and squares pairs of identical arrays. The products are forked
+	 * as tasks when the operation they belong to has {@code length} limbs or more.
+	 */
+	private static int[][] multiplyAll(int[][] a, int[][] b, int length) {
+		if (ForkJoinArithmetic.parallel(length)) {
+			return ForkJoinArithmetic.multiplyAll(a, b);
+		}
+
+		int[][] result = new int[a.length][];
+
+		for (int i = 0; i < a.length; i++) {
+			result[i] = multiply(a[i], b[i]);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Divides a magnitude by three, where the division is known to be exact, by multiplying each limb
+	 * by the inverse of three modulo {@code 2^32} and propagating a borrow upward.
+	 */
+	static int[] divideExactly3(int[] a) {
+		int n = length(a);
+		int[] result = new int[n];
+		long borrow = 0;
+
+		for (int i = 0; i < n; i++) {
+			long x = a[i] & LONG_MASK;
+			long w = (x - borrow) & LONG_MASK;
+			borrow = borrow > x ? 1 : 0;
+
+			long q = (w * 0xAAAAAAABL) & LONG_MASK;
+			result[i] = (int) q;
+
+			if (q >= 0x55555556L) {
+				borrow++;
+
+				if (q >= 0xAAAAAAABL) {
+					borrow++;
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Adds the low {@code xLen} limbs of {@code x}, shifted left by {@code offset} limbs, to
+	 * {@code result} in place. The sum must fit in {@code result}.
+	 */
+	static void addShifted(int[] result, int[] x, int xLen, int offset) {
+		long carry = 0;
+		int i = 0;
+
+		for (; i < xLen; i++) {
+			carry += (result[offset + i] & LONG_MASK) + (x[i] & LONG_MASK);
+			result[offset + i] = (int) carry;
+			carry >>>= 32;
+		}
+
+		for (i += offset; carry != 0; i++) {
+			carry += result[i] & LONG_MASK;
+			result[i] = (int) carry;
+			carry >>>= 32;
+		}
+	}
+
+	/// DIVISION
+
+
+	/**
+	 * Divides one magnitude by another. Throws {@code ArithmeticException} if the divisor is zero.
+	 * A single-limb divisor takes a fast path of one hardware division per limb, and other divisors
+	 * shorter than {@code BURNIKEL_ZIEGLER_THRESHOLD} limbs use Knuth's Algorithm D. Longer divisors
+	 * use Burnikel and Ziegler's recursive division, and dividends of at least
+	 * {@code NEWTON_THRESHOLD} limbs are multiplied by a reciprocal computed by Newton's method, so
+	 * that division costs a small multiple of a multiplication.
+	 *
+	 * @param a Dividend.
+	 * @param b Divisor.
+	 * @return A new array holding the quotient {@code a / b} followed by the remainder
+	 * {@code a % b}.
+	 */
+	public static int[][] divideAndRemainder(int[] a, int[] b) {
+		int aLen = length(a);
+		int bLen = length(b);
+
+		if (bLen == 0) {
+			throw new ArithmeticException("division by zero");
+		} else if (bLen < BURNIKEL_ZIEGLER_THRESHOLD || aLen - bLen < BURNIKEL_ZIEGLER_OFFSET) {
+			return divideSchoolbook(a, aLen, b, bLen);
+		} else if (aLen >= NEWTON_THRESHOLD) {
+			return divideNewton(a, aLen, b, bLen);
+		}
+
+		return burnikelZiegler(a, aLen, b, bLen);
+	}
+
+	/**
+	 * Divides the low {@code aLen} limbs of {@code a} by the low {@code bLen} limbs of {@code b},
+	 * which must be non-zero, by a single hardware division per limb or Knuth's Algorithm D.
+	 */
+	private static int[][] divideSchoolbook(int[] a, int aLen, int[] b, int bLen) {
+		if (aLen < bLen || (aLen == bLen && compare(a, b, aLen) < 0)) {
+			return new int[][] { ZERO, Arrays.copyOf(a, aLen) };
+		} else if (bLen == 1) {
+			int[] quotient = new int[aLen];
+			int remainder = divideByInt(quotient, a, aLen, b[0]);
+
+			return new int[][] { quotient, remainder == 0 ? ZERO : new int[] { remainder } };
+		}
+
+		return divideKnuth(a, aLen, b, bLen);
+	}
+
+	/**
+	 * Divides the low {@code aLen} limbs of {@code a} by an unsigned limb, and stores the
+	 * {@code aLen} limbs of the quotient in {@code result}, which may be the same array as
+	 * {@code a}.
+	 *
+	 * @param result Array to store the quotient in.
+	 * @param a Dividend.
+	 * @param aLen Number of limbs of {@code a}.
+	 * @param d Divisor, read as unsigned. Must be non-zero.
+	 * @return The remainder, as an unsigned limb.
+	 */
+	public static int divideByInt(int[] result, int[] a, int aLen, int d) {
+		long divisor = d & LONG_MASK;
+		long remainder = 0;
+
+		for (int i = aLen - 1; i >= 0; i--) {
+			long dividend = (remainder << 32) | (a[i] & LONG_MASK);
+
+			if (dividend >= 0) {
+				result[i] = (int) (dividend / divisor);
+				remainder = dividend % divisor;
+			} else {
+				result[i] = (int) Long.divideUnsigned(dividend, divisor);
+				remainder = Long.remainderUnsigned(dividend, divisor);
+			}
+		}
+
+		return (int) remainder;
+	}
+
+	/**
+	 * Computes the remainder of the low {@code aLen} limbs of {@code a} divided by an unsigned limb,
+	 * in one pass which stores no quotient.
+	 *
+	 * @param a Magnitude.
+	 * @param aLen Number of limbs of {@code a}.
+	 * @param d Non-zero divisor, read as unsigned.
+	 * @return The remainder, read as unsigned.
+	 */
+	public static int remainderByInt(int[] a, int aLen, int d) {
+		long divisor = d & LONG_MASK;
+		long remainder = 0;
+
+		for (int i = aLen - 1; i >= 0; i--) {
+			long dividend = (remainder << 32) | (a[i] & LONG_MASK);
+			remainder = dividend >= 0 ? dividend % divisor : Long.remainderUnsigned(dividend, divisor);
+		}
+
+		return (int) remainder;
+	}
+
+	/**
+	 * Knuth's Algorithm D (TAOCP 4.3.1) for a divisor of at least two limbs. The operands are
+	 * shifted until the top bit of the divisor is set, after which each estimated quotient limb is at
+	 * most two too large, and the estimate is corrected from the top two limbs of the divisor before
+	 * it is multiplied out.
+	 */
+	private static int[][] divideKnuth(int[] a, int aLen, int[] b, int bLen) {
+		int shift = Integer.numberOfLeadingZeros(b[bLen - 1]);
+
+		int[] v = Arrays.copyOf(shiftLeft(b, shift), bLen);
+		int[] u = Arrays.copyOf(shiftLeft(a, shift), aLen + 1);
+
+		int[] quotient = new int[aLen - bLen + 1];
+		long vTop = v[bLen - 1] & LONG_MASK;
+		long vNext = v[bLen - 2] & LONG_MASK;
+
+		for (int j = aLen - bLen; j >= 0; j--) {
+			long numerator = ((u[j + bLen] & LONG_MASK) << 32) | (u[j + bLen - 1] & LONG_MASK);
+			long qhat = Long.divideUnsigned(numerator, vTop);
+			long rhat = Long.remainderUnsigned(numerator, vTop);
+
+			while (qhat > LONG_MASK
+					|| Long.compareUnsigned(qhat * vNext, (rhat << 32) | (u[j + bLen - 2] & LONG_MASK)) > 0) {
+				qhat--;
+				rhat += vTop;
+
+				if (rhat > LONG_MASK) {
+					break;
+				}
+			}
+
+			// u[j .. j + bLen] -= qhat * v
+			long borrow = 0;
+			long carry = 0;
+
+			for (int i = 0; i < bLen; i++) {
+				carry += qhat * (v[i] & LONG_MASK);
+				borrow += (u[i + j] & LONG_MASK) - (carry & LONG_MASK);
+				u[i + j] = (int) borrow;
+				carry >>>= 32;
+				borrow >>= 32;
+			}
+
+			borrow += (u[j + bLen] & LONG_MASK) - carry;
+			u[j + bLen] = (int) borrow;
+
+			if (borrow < 0) {
+				// the estimate was one too large: add the divisor back.
+				qhat--;
+				u[j + bLen] += add(u, j, v, bLen);
+			}
+
+			quotient[j] = (int) qhat;
+		}
+
+		return new int[][] { quotient, shiftRight(Arrays.copyOf(u, bLen), shift) };
+	}
+
+	/**
+	 * Burnikel and Ziegler's recursive division. The divisor is shifted to fill a whole number of
+	 * blocks of {@code n} limbs, where {@code n} halves evenly down to the threshold, and the dividend
+	 * is divided one block at a time by {@code divide2n1n}.
+	 */
+	private static int[][] burnikelZiegler(int[] a, int aLen, int[] b, int bLen) {
+		int m = 1 << (32 - Integer.numberOfLeadingZeros(bLen / BURNIKEL_ZIEGLER_THRESHOLD));
+		int n = (bLen + m - 1) / m * m;
+		long nBits = 32L * n;
+
+		int sigma = (int) (nBits - bitLength(b));
+		int[] bShifted = Arrays.copyOf(shiftLeft(b, sigma), n);
+		int[] aShifted = shiftLeft(a, sigma);
+
+		// the top block is kept below B^n / 2, and so below the divisor.
+		int t = (int) Math.max(2, (bitLength(aShifted) + nBits) / nBits);
+		int[] quotient = new int[t * n];
+		int[] z = piece(aShifted, aShifted.length, (t - 2) * n, t * n);
+
+		for (int i = t - 2; i > 0; i--) {
+			int[][] qr = divide2n1n(z, bShifted, n);
+			System.arraycopy(qr[0], 0, quotient, i * n, length(qr[0]));
+
+			z = add(shiftLeft(qr[1], 32 * n), piece(aShifted, aShifted.length, (i - 1) * n, i * n));
+		}
+
+		int[][] qr = divide2n1n(z, bShifted, n);
+		System.arraycopy(qr[0], 0, quotient, 0, length(qr[0]));
+
+		return new int[][] { quotient, shiftRight(qr[1], sigma) };
+	}
+
+	/**
+	 * Divides {@code a < b B^n} by the {@code n}-limb normalized divisor {@code b} as two divisions of
+	 * three half-blocks by two.
+	 */
+	private static int[][] divide2n1n(int[] a, int[] b, int n) {
+		if ((n & 1) != 0 || n < BURNIKEL_ZIEGLER_THRESHOLD) {
+			return divideSchoolbook(a, length(a), b, length(b));
+		}
+
+		int half = n >>> 1;
+		int aLen = length(a);
+
+		int[][] qr1 = divide3n2n(piece(a, aLen, half, 2 * n), b, half);
+		int[] a4 = piece(a, aLen, 0, half);
+		int[][] qr2 = divide3n2n(add(shiftLeft(qr1[1], 32 * half), a4), b, half);
+
+		return new int[][] { add(shiftLeft(qr1[0], 32 * half), qr2[0]), qr2[1] };
+	}
+
+	/**
+	 * Divides {@code a < b B^half}, of three half-blocks, by the normalized divisor {@code b} of two
+	 * half-blocks. The quotient is estimated from the top half-block of the divisor and corrected at
+	 * most twice.
+	 */
+	private static int[][] divide3n2n(int[] a, int[] b, int half) {
+		int aLen = length(a);
+		int bLen = length(b);
+
+		int[] a1 = piece(a, aLen, 2 * half, 3 * half);
+		int[] a12 = piece(a, aLen, half, 3 * half);
+		int[] a3 = piece(a, aLen, 0, half);
+		int[] b1 = piece(b, bLen, half, 2 * half);
+		int[] b2 = piece(b, bLen, 0, half);
+
+		int[] q;
+		int[] r1;
+
+		if (compare(a1, b1) < 0) {
+			int[][] qr = divide2n1n(a12, b1, half);
+			q = qr[0];
+			r1 = qr[1];
+		} else {
+			// the quotient estimate is B^half - 1.
+			q = new int[half];
+			Arrays.fill(q, -1);
+			r1 = add(subtract(a12, shiftLeft(b1, 32 * half)), b1);
+		}
+
+		int[] d = multiply(q, b2);
+		int[] r = add(shiftLeft(r1, 32 * half), a3);
+
+		while (compare(r, d) < 0) {
+			r = add(r, b);
+			q = subtract(q, ONE);
+		}
+
+		return new int[][] { q, subtract(r, d) };
+	}
+
+	/**
+	 * Divides by multiplying the dividend by a reciprocal of the divisor, then corrects the quotient,
+	 * which is off by a few units, against the exact remainder.
+	 */
+	private static int[][] divideNewton(int[] a, int aLen, int[] b, int bLen) {
+		long s = bitLength(b);
+		long t = bitLength(a);
+
+		if (t < s) {
+			return new int[][] { ZERO, Arrays.copyOf(a, aLen) };
+		}
+
+		// only the top k + 64 bits of the dividend affect the estimate.
+		long k = t - s;
+		int drop = (int) Math.max(0, t - k - 64);
+
+		int[] y = reciprocal(b, k);
+		int[] q = shiftRight(multiply(y, shiftRight(a, drop)), (int) t - drop);
+
+		return correct(q, a, b);
+	}
+
+	/**
+	 * Approximates {@code 2^(s + k) / b} to within a few units, where {@code s} is the bit length of
+	 * {@code b}, by Newton's iteration {@code y' = y (2 - b y / 2^(s + k))}. Each step doubles the
+	 * precision of the previous one, carrying 32 guard bits, and only the top {@code k + 64} bits of
+	 * the divisor take part, so the whole computation costs a few multiplications of the size of the
+	 * result.
+	 */
+	static int[] reciprocal(int[] b, long k) {
+		long s = bitLength(b);
+
+		if (s > k + 64) {
+			b = shiftRight(b, (int) (s - k - 64));
+			s = k + 64;
+		}
+
+		int[] power = shiftLeft(ONE, (int) (s + k));
+		long h = (k + 1) / 2 + 32;
+
+		if (k <= 32L * BURNIKEL_ZIEGLER_THRESHOLD || h >= k) {
+			return divideSchoolbook(power, length(power), b, length(b))[0];
+		}
+
+		int[] x = reciprocal(b, h);
+
+		return subtract(shiftLeft(x, (int) (k - h + 1)), shiftRight(multiply(b, square(x)), (int) (s + 2 * h - k)));
+	}
+
+	/**
+	 * Corrects an estimate {@code q} of {@code a / b} that is off by a few units in either direction.
+	 *
+	 * @return The exact quotient followed by the remainder.
+	 */
+	private static int[][] correct(int[] q, int[] a, int[] b) {
+		int[] product = multiply(q, b);
+
+		while (compare(product, a) > 0) {
+			q = subtract(q, ONE);
+			product = subtract(product, b);
+		}
+
+		int[] r = subtract(a, product);
+
+		while (compare(r, b) >= 0) {
+			q = add(q, ONE);
+			r = subtract(r, b);
+		}
+
+		return new int[][] { q, r };
+	}
+
+	/**
+	 * Adds the {@code vLen} limbs of {@code v} to {@code u[offset .. offset + vLen)} in place.
+	 *
+	 * @return The carry out of the top limb.
+	 */
+	private static int add(int[] u, int offset, int[] v, int vLen) {
+		long carry = 0;
+
+		for (int i = 0; i < vLen; i++) {
+			carry += (u[offset + i] & LONG_MASK) + (v[i] & LONG_MASK);
+			u[offset + i] = (int) carry;
+			carry >>>= 32;
+		}
+
+		return (int) carry;
+	}
+
+	/// SQUARING
+
+
+	/**
+	 * Squares a magnitude. Each algorithm of {@code multiply} has a squaring counterpart which uses
+	 * the symmetry of the product: schoolbook squaring computes each cross product once, and the
+	 * recursive methods square their pieces, so squaring costs about half as much as a general
+	 * multiplication.
+	 *
+	 * @param a Magnitude.
+	 * @return A new magnitude, {@code a * a}.
+	 */
+	public static int[] square(int[] a) {
+		int aLen = length(a);
+
+		if (aLen == 0) {
+			return ZERO;
+		}
+
+		return square(a, aLen);
+	}
+
+	/**
+	 * Squares the low {@code aLen} limbs of {@code a}.
+	 *
+	 * @return A new array of {@code 2 aLen} limbs.
+	 */
+	static int[] square(int[] a, int aLen) {
+		if (aLen < KARATSUBA_SQUARE_THRESHOLD) {
+			int[] result = new int[2 * aLen];
+			squareToLen(result, a, aLen);
+			return result;
+		} else if (aLen < TOOM3_SQUARE_THRESHOLD) {
+			return karatsubaSquare(a, aLen);
+		} else if (aLen < NTT_THRESHOLD || 2 * aLen > NumberTheoreticTransform.MAX_LENGTH) {
+			return toom3Square(a, aLen);
+		}
+
+		return NumberTheoreticTransform.square(a, aLen);
+	}
+
+	/**
+	 * Schoolbook squaring. Sums every cross product {@code a[i] a[j]}, {@code i < j}, once, doubles
+	 * the sum with a shift and adds the squares of the limbs. Stores the {@code 2 aLen} limbs of the
+	 * square in {@code result}, which must be a distinct array.
+	 */
+	static void squareToLen(int[] result, int[] a, int aLen) {
+		Arrays.fill(result, 0, 2 * aLen, 0);
+
+		for (int i = 0; i < aLen - 1; i++) {
+			long x = a[i] & LONG_MASK;
+
+			if (x == 0) {
+				continue;
+			}
+
+			long carry = 0;
+
+			for (int j = i + 1; j < aLen; j++) {
+				carry += x * (a[j] & LONG_MASK) + (result[i + j] & LONG_MASK);
+				result[i + j] = (int) carry;
+				carry >>>= 32;
+			}
+
+			result[i + aLen] = (int) carry;
+		}
+
+		int high = 0;
+
+		for (int i = 0; i < 2 * aLen; i++) {
+			int limb = result[i];
+			result[i] = (limb << 1) | high;
+			high = limb >>> 31;
+		}
+
+		long carry = 0;
+
+		for (int i = 0; i < aLen; i++) {
+			long x = a[i] & LONG_MASK;
+			long product = x * x;
+
+			carry += (result[2 * i] & LONG_MASK) + (product & LONG_MASK);
+			result[2 * i] = (int) carry;
+			carry >>>= 32;
+
+			carry += (result[2 * i + 1] & LONG_MASK) + (product >>> 32);
+			result[2 * i + 1] = (int) carry;
+			carry >>>= 32;
+		}
+	}
+
+	/**
+	 * Karatsuba squaring: {@code a^2 = a1^2 B^2 + ((a0 + a1)^2 - a0^2 - a1^2) B + a0^2}.
+	 */
+	private static int[] karatsubaSquare(int[] a, int aLen) {
+		int half = (aLen + 1) >>> 1;
+
+		int[] a0 = Arrays.copyOf(a, half);
+		int[] a1 = Arrays.copyOfRange(a, half, aLen);
+
+		int[] sum = add(a0, a1);
+		int[][] z = multiplyAll(new int[][] { a0, a1, sum }, new int[][] { a0, a1, sum }, aLen);
+		int[] z0 = z[0];
+		int[] z2 = z[1];
+		int[] z1 = z[2];
+
+		int z1Len = length(z1);
+		subtract(z1, z1, z1Len, z0, length(z0));
+		subtract(z1, z1, z1Len, z2, length(z2));
+
+		int[] result = new int[2 * aLen];
+		System.arraycopy(z0, 0, result, 0, length(z0));
+		addShifted(result, z1, length(z1), half);
+		addShifted(result, z2, length(z2), 2 * half);
+
+		return result;
+	}
+
+	/**
+	 * Toom-3 squaring: the five pointwise products of {@code toom3} become squares, and the value at
+	 * -1 is never negative.
+	 */
+	private static int[] toom3Square(int[] a, int aLen) {
+		int k = (aLen + 2) / 3;
+
+		int[] a0 = piece(a, aLen, 0, k);
+		int[] a1 = piece(a, aLen, k, 2 * k);
+		int[] a2 = piece(a, aLen, 2 * k, aLen);
+
+		int[] da = add(a0, a2);
+		int[] dam1 = compare(da, a1) >= 0 ? subtract(da, a1) : subtract(a1, da);
+
+		da = add(da, a1);
+		int[] da2 = subtract(shiftLeft(add(da, a2), 1), a0);
+
+		int[][] operands = { a0, da, dam1, da2, a2 };
+		int[][] v = multiplyAll(operands, operands, aLen);
+
+		return interpolate(v[0], v[1], v[2], false, v[3], v[4], k, 2 * aLen);
+	}
+
+	/// MODULAR ARITHMETIC
+
+
+	/**
+	 * Raises a magnitude to a power modulo another. Throws {@code ArithmeticException} if the modulus
+	 * is zero. An odd modulus is handled by {@code Montgomery}. An even modulus {@code m = 2^k q},
+	 * with {@code q} odd, is split by the Chinese remainder theorem: the power modulo {@code q} is
+	 * computed in Montgomery form, the power modulo {@code 2^k} by truncated products, and the two are
+	 * recombined with the inverse of {@code q} modulo {@code 2^k}.
+	 *
+	 * @param base Magnitude.
+	 * @param exponent Exponent.
+	 * @param modulus Modulus.
+	 * @return A new magnitude, {@code base^exponent mod modulus}.
+	 */
+	public static int[] modPow(int[] base, int[] exponent, int[] modulus) {
+		int mLen = length(modulus);
+
+		if (mLen == 0) {
+			throw new ArithmeticException("division by zero");
+		} else if (mLen == 1 && modulus[0] == 1) {
+			return ZERO;
+		} else if ((modulus[0] & 1) == 1) {
+			return new Montgomery(modulus).pow(base, exponent);
+		}
+
+		int k = trailingZeros(modulus);
+		int[] odd = shiftRight(modulus, k);
+		int[] low = powerOfTwoPow(base, exponent, k);
+
+		if (length(odd) == 1 && odd[0] == 1) {
+			return low;
+		}
+
+		int[] high = new Montgomery(odd).pow(base, exponent);
+
+		// x = high + q ((low - high) / q mod 2^k) is the residue congruent to both.
+		int[] difference = truncate(subtract(add(low, shiftLeft(ONE, k)), truncate(high, k)), k);
+		int[] h = truncate(multiply(difference, inverseModPowerOfTwo(odd, k)), k);
+
+		return add(high, multiply(odd, h));
+	}
+
+	/**
+	 * Computes the inverse of a magnitude modulo another by the extended Euclidean algorithm. Throws
+	 * {@code ArithmeticException} if the modulus is zero or the magnitude is not invertible.
+	 *
+	 * @param a Magnitude.
+	 * @param modulus Modulus.
+	 * @return A new magnitude {@code x < modulus} with {@code a x = 1 mod modulus}.
+	 */
+	public static int[] modInverse(int[] a, int[] modulus) {
+		if (length(modulus) == 0) {
+			throw new ArithmeticException("division by zero");
+		} else if (length(modulus) == 1 && modulus[0] == 1) {
+			return ZERO;
+		}
+
+		int[] residue = divideAndRemainder(a, modulus)[1];
+
+		if (length(residue) == 0) {
+			throw new ArithmeticException("not invertible");
+		}
+
+		int[][] gxy = GreatestCommonDivisor.extendedGcd(residue, modulus);
+
+		if (length(gxy[0]) != 1 || gxy[0][0] != 1) {
+			throw new ArithmeticException("not invertible");
+		}
+
+		return gxy[1];
+	}
+
+	/**
+	 * Raises a magnitude to a power modulo {@code 2^k}, where reduction is truncation. An even base
+	 * raised to a power of at least {@code k} is zero.
+	 */
+	private static int[] powerOfTwoPow(int[] base, int[] exponent, int k) {
+		int[] b = truncate(base, k);
+		long bits = bitLength(exponent);
+
+		if (bits == 0) {
+			return ONE;
+		} else if (length(b) == 0 || ((b[0] & 1) == 0 && (bits > 31 || exponent[0] >= k))) {
+			return ZERO;
+		}
+
+		int[] result = b;
+
+		for (long i = bits - 2; i >= 0; i--) {
+			result = truncate(square(result), k);
+
+			if ((exponent[(int) (i >>> 5)] >>> i & 1) == 1) {
+				result = truncate(multiply(result, b), k);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Computes {@code 1/a mod 2^k} for odd {@code a} by Newton iteration from the inverse of its low
+	 * limb. Each step doubles the number of correct low bits.
+	 */
+	static int[] inverseModPowerOfTwo(int[] a, int k) {
+		int[] x = { Montgomery.inverse32(a[0]) };
+		int[] two = { 2 };
+		int[] power = shiftLeft(ONE, k);
+
+		for (long bits = 32; bits < k; bits *= 2) {
+			int[] product = truncate(multiply(a, x), k);
+			x = truncate(multiply(x, subtract(add(power, two), product)), k);
+		}
+
+		return truncate(x, k);
+	}
+
+	/**
+	 * Returns the low {@code k} bits of a magnitude.
+	 */
+	static int[] truncate(int[] a, int k) {
+		int limbs = (k + 31) >>> 5;
+
+		if (length(a) <= limbs && (k & 31) == 0) {
+			return a;
+		}
+
+		int[] result = Arrays.copyOf(a, limbs);
+
+		if ((k & 31) != 0) {
+			result[limbs - 1] &= (1 << k) - 1;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Counts the trailing zero bits of a non-zero magnitude.
+	 *
+	 * @param a Non-zero magnitude.
+	 * @return Index of the lowest set bit.
+	 */
+	public static int trailingZeros(int[] a) {
+		int i = 0;
+
+		while (a[i] == 0) {
+			i++;
+		}
+
+		return 32 * i + Integer.numberOfTrailingZeros(a[i]);
+	}
+
+	/// GREATEST COMMON DIVISOR
+
+
+	/**
+	 * Computes the greatest common divisor of two magnitudes, which is zero only if both are zero.
+	 * Word-sized operands use binary GCD, everything else Lehmer's algorithm, and operands of at least
+	 * {@code HALF_GCD_THRESHOLD} limbs the half-GCD method.
+	 *
+	 * @param a Magnitude.
+	 * @param b Magnitude.
+	 * @return A new magnitude, {@code gcd(a, b)}.
+	 */
+	public static int[] gcd(int[] a, int[] b) {
+		return GreatestCommonDivisor.gcd(a, b);
+	}
+
+	/**
+	 * Computes the greatest common divisor {@code g} of two magnitudes with Lehmer's extended
+	 * algorithm, together with non-negative cofactors {@code x} and {@code y} for which
+	 * {@code a x - b y = g}. The cofactor {@code x} is taken in {@code [1, b/g]}. Throws
+	 * {@code ArithmeticException} if {@code a} is zero.
+	 *
+	 * @param a Non-zero magnitude.
+	 * @param b Magnitude.
+	 * @return A new array holding {@code g}, {@code x} and {@code y}.
+	 */
+	public static int[][] extendedGcd(int[] a, int[] b) {
+		if (length(a) == 0) {
+			throw new ArithmeticException("zero operand");
+		}
+
+		return GreatestCommonDivisor.extendedGcd(a, b);
+	}
+
+	/// POWERS
+
+
+	/**
+	 * Raises a magnitude to a non-negative power. The trailing zero bits of the base are factored out
+	 * and restored by a single shift of the result, and the odd part is raised by left-to-right
+	 * sliding-window exponentiation: the odd powers of the base up to the window size are tabulated,
+	 * and every run of exponent bits which starts and ends with a one costs one multiplication by a
+	 * short table entry. Throws {@code ArithmeticException} if the exponent is negative, or if the
+	 * result would have more than {@code Integer.MAX_VALUE} bits.
+	 *
+	 * @param a Magnitude.
+	 * @param exponent Non-negative exponent.
+	 * @return A new magnitude, {@code a^exponent}.
+	 */
+	public static int[] pow(int[] a, int exponent) {
+		int aLen = length(a);
+
+		if (exponent < 0) {
+			throw new ArithmeticException("negative exponent");
+		} else if (exponent == 0) {
+			return new int[] { 1 };
+		} else if (aLen == 0) {
+			return ZERO;
+		} else if (exponent == 1) {
+			return Arrays.copyOf(a, aLen);
+		}
+
+		int zeros = trailingZeros(a);
+		int[] odd = shiftRight(a, zeros);
+		long shift = (long) zeros * exponent;
+
+		if ((bitLength(odd) - 1) * exponent + 1 + shift > Integer.MAX_VALUE) {
+			throw new ArithmeticException("overflow");
+		}
+
+		if (length(odd) == 1 && odd[0] == 1) {
+			return shiftLeft(ONE, (int) shift);
+		}
+
+		int[] power = slidingWindow(odd, exponent);
+		return shift == 0 ? power : shiftLeft(power, (int) shift);
+	}
+
+	/**
+	 * Left-to-right sliding-window exponentiation of a magnitude by an exponent of at least two.
+	 */
+	private static int[] slidingWindow(int[] a, int exponent) {
+		int bits = 32 - Integer.numberOfLeadingZeros(exponent);
+		int window = 1;
+
+		while (window <= POW_WINDOW_THRESHOLDS.length && bits > POW_WINDOW_THRESHOLDS[window - 1]) {
+			window++;
+		}
+
+		int[][] table = new int[1 << (window - 1)][];
+		table[0] = a;
+
+		if (table.length > 1) {
+			int[] squared = trim(square(a));
+
+			for (int i = 1; i < table.length; i++) {
+				table[i] = trim(multiply(table[i - 1], squared));
+			}
+		}
+
+		// the leading window seeds the accumulator, which saves squaring one.
+		int[] acc = null;
+
+		for (int i = bits - 1; i >= 0;) {
+			if ((exponent >>> i & 1) == 0) {
+				acc = trim(square(acc));
+				i--;
+				continue;
+			}
+
+			int low = Math.max(i - window + 1, 0);
+
+			while ((exponent >>> low & 1) == 0) {
+				low++;
+			}
+
+			int value = (exponent >>> low) & ((1 << (i - low + 1)) - 1);
+
+			if (acc == null) {
+				acc = table[value >>> 1];
+			} else {
+				for (int j = i; j >= low; j--) {
+					acc = trim(square(acc));
+				}
+
+				acc = trim(multiply(acc, table[value >>> 1]));
+			}
+
+			i = low - 1;
+		}
+
+		return acc;
+	}
+
+	/// ROOTS
+
+
+	/**
+	 * Computes the integer square root of a magnitude, {@code floor(sqrt(a))}.
+	 *
+	 * @param a Magnitude.
+	 * @return A new magnitude.
+	 */
+	public static int[] sqrt(int[] a) {
+		return nthRoot(a, 2);
+	}
+
+	/**
+	 * Computes the integer square root of a magnitude together with its remainder.
+	 *
+	 * @param a Magnitude.
+	 * @return A new array holding {@code s = floor(sqrt(a))} followed by {@code a - s^2}.
+	 */
+	public static int[][] sqrtAndRemainder(int[] a) {
+		int[] s = sqrt(a);
+		return new int[][] { s, trim(subtract(a, square(s))) };
+	}
+
+	/**
+	 * Computes the integer {@code k}-th root of a magnitude, {@code floor(a^(1/k))}, by Newton's
+	 * method with precision doubling. The root of the leading half of the bits is computed
+	 * recursively, which fixes the leading half of the bits of the root; scaled up and rounded up,
+	 * it is an overestimate from which one or two Newton steps converge. The recursion
+	 * ends with a floating-point estimate from the leading limbs, so the whole root costs a small
+	 * multiple of one division of {@code a} by a {@code (k - 1)}-th power. Throws
+	 * {@code ArithmeticException} if {@code k} is not positive.
+	 *
+	 * @param a Magnitude.
+	 * @param k Degree of the root.
+	 * @return A new magnitude.
+	 */
+	public static int[] nthRoot(int[] a, int k) {
+		if (k <= 0) {
+			throw new ArithmeticException("non-positive root");
+		}
+
+		long bits = bitLength(a);
+
+		if (k == 1 || bits == 0) {
+			return trim(a);
+		} else if (bits <= k) {
+			return ONE;
+		} else if (bits / k <= 40) {
+			return estimateRoot(a, k);
+		}
+
+		// the root of a / 2^(k s) has about half the bits of the root of a.
+		long s = bits / (2L * k);
+		int[] x = shiftLeft(add(nthRoot(shiftRight(a, (int) (k * s)), k), ONE), (int) s);
+
+		// Newton's step x' = ((k - 1) x + a / x^(k - 1)) / k decreases from above to the root.
+		while (true) {
+			int[] power = k == 2 ? x : pow(x, k - 1);
+			int[] y = add(multiplyBy(x, k - 1), divideAndRemainder(a, power)[0]);
+			int[] next = new int[y.length];
+			divideByInt(next, y, y.length, k);
+
+			if (compare(next, x) >= 0) {
+				return trim(x);
+			}
+
+			x = trim(next);
+		}
+	}
+
+	/**
+	 * Computes the {@code k}-th root of a magnitude whose root has at most 40 bits, from a
+	 * floating-point estimate corrected by exact powers.
+	 */
+	private static int[] estimateRoot(int[] a, int k) {
+		long bits = bitLength(a);
+		long shift = Math.max(bits - 64, 0);
+		int[] top = shiftRight(a, (int) shift);
+		long t = (top.length > 0 ? top[0] & LONG_MASK : 0) | (top.length > 1 ? (top[1] & LONG_MASK) << 32 : 0);
+
+		// log2(a) from the leading 64 bits, read as unsigned.
+		double log = Math.log(t >= 0 ? t : t + 0x1p64) / Math.log(2) + shift;
+		long x = (long) Math.pow(2, log / k);
+
+		while (x > 0 && compare(pow(limbs(x), k), a) > 0) {
+			x--;
+		}
+
+		while (compare(pow(limbs(x + 1), k), a) <= 0) {
+			x++;
+		}
+
+		return trim(limbs(x));
+	}
+
+	/**
+	 * Multiplies a magnitude by an unsigned int.
+	 */
+	private static int[] multiplyBy(int[] a, int m) {
+		int aLen = length(a);
+		int[] result = Arrays.copyOf(a, aLen + 1);
+		result[aLen] = multiplyAdd(result, a, aLen, m, 0);
+		return result;
+	}
+
+	/**
+	 * Converts an unsigned long to a magnitude.
+	 */
+	private static int[] limbs(long x) {
+		return new int[] { (int) x, (int) (x >>> 32) };
+	}
+}
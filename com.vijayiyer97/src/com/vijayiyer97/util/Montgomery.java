@@ -0,0 +1,343 @@
+package com.vijayiyer97.util;
+
+import java.util.Arrays;
+
+/**
+ * Montgomery arithmetic modulo a fixed odd modulus {@code m} of {@code n} limbs. A residue
+ * {@code x} is represented by {@code x R mod m}, where {@code R = 2^(32n)}, and the product of two
+ * representations is reduced by Montgomery's method, which replaces division by {@code m} with
+ * multiplications and shifts. The constants of the modulus are computed once, when the instance is
+ * created, so an instance should be kept for as long as its modulus is in use.
+ * <p>
+ * Representations are arrays of exactly {@code n} limbs. The in-place methods take a scratch array
+ * of {@code 2n + 1} limbs from {@code newScratch()}, so loops over a single modulus can run without
+ * allocating. Instances are immutable and may be shared between threads, but scratch arrays may
+ * not.
+ *
+ * @author Vijay Iyer
+ *
+ */
+public final class Montgomery {
+
+	private static final long LONG_MASK = LimbArithmetic.LONG_MASK;
+
+	// exponent bit lengths above which each window size pays for its table.
+	private static final int[] WINDOW_THRESHOLDS = { 7, 25, 81, 241, 673, 1793 };
+
+	private final int[] modulus;
+	private final int n;
+
+	// -1/m mod 2^32.
+	private final int inverse;
+
+	// R^2 mod m, and R mod m, the representation of one.
+	private final int[] r2;
+	private final int[] one;
+
+	/// INITIALIZERS
+
+
+	/**
+	 * Initializes a {@code Montgomery} instance for an odd modulus greater than one. Throws
+	 * {@code ArithmeticException} otherwise.
+	 *
+	 * @param modulus Modulus, as little-endian 32-bit limbs.
+	 */
+	public Montgomery(int[] modulus) {
+		this.n = LimbArithmetic.length(modulus);
+
+		if (n == 0 || (modulus[0] & 1) == 0 || (n == 1 && modulus[0] == 1)) {
+			throw new ArithmeticException("modulus not odd and greater than one");
+		}
+
+		this.modulus = Arrays.copyOf(modulus, n);
+		this.inverse = -inverse32(modulus[0]);
+		this.r2 = residue(LimbArithmetic.shiftLeft(LimbArithmetic.ONE, 64 * n));
+		this.one = residue(LimbArithmetic.shiftLeft(LimbArithmetic.ONE, 32 * n));
+	}
+
+	/// GETTERS
+
+
+	/**
+	 * Getter method for the modulus.
+	 *
+	 * @return A new magnitude array.
+	 */
+	public int[] modulus() {
+		return modulus.clone();
+	}
+
+	/**
+	 * Getter method for the number of limbs of a representation.
+	 *
+	 * @return Number of limbs.
+	 */
+	public int length() {
+		return n;
+	}
+
+	/**
+	 * Getter method for the representation of one.
+	 *
+	 * @return A new representation.
+	 */
+	public int[] one() {
+		return one.clone();
+	}
+
+	/**
+	 * Allocates a scratch array for the in-place methods.
+	 *
+	 * @return A new array of {@code 2n + 1} limbs.
+	 */
+	public int[] newScratch() {
+		return new int[2 * n + 1];
+	}
+
+	/// CONVERSIONS
+
+
+	/**
+	 * Converts a magnitude of any size to its representation.
+	 *
+	 * @param a Magnitude.
+	 * @return A new representation of {@code a mod m}.
+	 */
+	public int[] toMontgomery(int[] a) {
+		int[] result = new int[n];
+		multiply(residue(a), r2, result, newScratch());
+		return result;
+	}
+
+	/**
+	 * Converts a representation back to the residue it represents.
+	 *
+	 * @param a Representation.
+	 * @return A new magnitude, less than the modulus.
+	 */
+	public int[] fromMontgomery(int[] a) {
+		int[] unit = new int[n];
+		unit[0] = 1;
+
+		int[] result = new int[n];
+		multiply(a, unit, result, newScratch());
+		return result;
+	}
+
+	/// ARITHMETIC
+
+
+	/**
+	 * Multiplies two representations.
+	 *
+	 * @param a Representation.
+	 * @param b Representation.
+	 * @return A new representation of the product.
+	 */
+	public int[] multiply(int[] a, int[] b) {
+		int[] result = new int[n];
+		multiply(a, b, result, newScratch());
+		return result;
+	}
+
+	/**
+	 * Multiplies two representations and stores the representation of the product in
+	 * {@code result}, which may be the same array as {@code a} or {@code b}. Uses the coarsely
+	 * integrated operand scanning method, which interleaves each row of the product with a row of the
+	 * reduction.
+	 *
+	 * @param a Representation.
+	 * @param b Representation.
+	 * @param result Array of {@code n} limbs to store the product in.
+	 * @param scratch Array from {@code newScratch()}.
+	 */
+	public void multiply(int[] a, int[] b, int[] result, int[] scratch) {
+		int[] t = scratch;
+		Arrays.fill(t, 0, n + 2, 0);
+
+		long factor = inverse & LONG_MASK;
+
+		for (int i = 0; i < n; i++) {
+			long bi = b[i] & LONG_MASK;
+			long carry = 0;
+
+			for (int j = 0; j < n; j++) {
+				carry += (t[j] & LONG_MASK) + (a[j] & LONG_MASK) * bi;
+				t[j] = (int) carry;
+				carry >>>= 32;
+			}
+
+			carry += t[n] & LONG_MASK;
+			t[n] = (int) carry;
+			t[n + 1] = (int) (carry >>> 32);
+
+			// adds the multiple of m that clears the low limb, then drops it.
+			long q = ((t[0] & LONG_MASK) * factor) & LONG_MASK;
+			carry = ((t[0] & LONG_MASK) + q * (modulus[0] & LONG_MASK)) >>> 32;
+
+			for (int j = 1; j < n; j++) {
+				carry += (t[j] & LONG_MASK) + q * (modulus[j] & LONG_MASK);
+				t[j - 1] = (int) carry;
+				carry >>>= 32;
+			}
+
+			carry += t[n] & LONG_MASK;
+			t[n - 1] = (int) carry;
+			t[n] = t[n + 1] + (int) (carry >>> 32);
+		}
+
+		if (t[n] != 0 || LimbArithmetic.compare(t, modulus, n) >= 0) {
+			LimbArithmetic.subtract(t, t, n, modulus, n);
+		}
+
+		System.arraycopy(t, 0, result, 0, n);
+	}
+
+	/**
+	 * Squares a representation and stores the representation of the square in {@code result}, which
+	 * may be the same array as {@code a}. The square is computed in full by schoolbook squaring, at
+	 * about half the cost of a product, and then reduced one limb at a time.
+	 *
+	 * @param a Representation.
+	 * @param result Array of {@code n} limbs to store the square in.
+	 * @param scratch Array from {@code newScratch()}.
+	 */
+	public void square(int[] a, int[] result, int[] scratch) {
+		int[] t = scratch;
+		LimbArithmetic.squareToLen(t, a, n);
+		t[2 * n] = 0;
+
+		long factor = inverse & LONG_MASK;
+		long high = 0;
+
+		for (int i = 0; i < n; i++) {
+			long q = ((t[i] & LONG_MASK) * factor) & LONG_MASK;
+			long carry = 0;
+
+			for (int j = 0; j < n; j++) {
+				carry += (t[i + j] & LONG_MASK) + q * (modulus[j] & LONG_MASK);
+				t[i + j] = (int) carry;
+				carry >>>= 32;
+			}
+
+			// the carry out of each row lands one limb above the carry out of the row before.
+			high += (t[i + n] & LONG_MASK) + carry;
+			t[i + n] = (int) high;
+			high >>>= 32;
+		}
+
+		System.arraycopy(t, n, result, 0, n);
+
+		if (high != 0 || LimbArithmetic.compare(result, modulus, n) >= 0) {
+			LimbArithmetic.subtract(result, result, n, modulus, n);
+		}
+	}
+
+	/**
+	 * Raises a magnitude to a power modulo the modulus.
+	 *
+	 * @param base Magnitude.
+	 * @param exponent Non-negative exponent.
+	 * @return A new magnitude, {@code base^exponent mod m}.
+	 */
+	public int[] pow(int[] base, int[] exponent) {
+		return fromMontgomery(exponentiate(toMontgomery(base), exponent));
+	}
+
+	/**
+	 * Raises a representation to a power, with sliding-window exponentiation. The odd powers of the
+	 * base up to the window size are tabulated, and every run of up to that many exponent bits that
+	 * starts and ends with a one costs a single multiplication. The accumulator and scratch arrays are
+	 * reused through every squaring and multiplication.
+	 *
+	 * @param a Representation.
+	 * @param exponent Non-negative exponent.
+	 * @return A new representation of {@code a^exponent}.
+	 */
+	public int[] exponentiate(int[] a, int[] exponent) {
+		long bits = LimbArithmetic.bitLength(exponent);
+
+		if (bits == 0) {
+			return one.clone();
+		}
+
+		int window = 1;
+
+		while (window <= WINDOW_THRESHOLDS.length && bits > WINDOW_THRESHOLDS[window - 1]) {
+			window++;
+		}
+
+		int[] scratch = newScratch();
+		int[][] table = new int[1 << (window - 1)][];
+		table[0] = a;
+
+		if (table.length > 1) {
+			int[] squared = new int[n];
+			square(table[0], squared, scratch);
+
+			for (int i = 1; i < table.length; i++) {
+				table[i] = new int[n];
+				multiply(table[i - 1], squared, table[i], scratch);
+			}
+		}
+
+		int[] acc = one.clone();
+
+		for (long i = bits - 1; i >= 0;) {
+			if (bit(exponent, i) == 0) {
+				square(acc, acc, scratch);
+				i--;
+				continue;
+			}
+
+			// the longest window of at most the window size which ends in a one bit.
+			long low = Math.max(i - window + 1, 0);
+
+			while (bit(exponent, low) == 0) {
+				low++;
+			}
+
+			int value = 0;
+
+			for (long j = i; j >= low; j--) {
+				value = (value << 1) | bit(exponent, j);
+				square(acc, acc, scratch);
+			}
+
+			multiply(acc, table[value >>> 1], acc, scratch);
+			i = low - 1;
+		}
+
+		return acc;
+	}
+
+	/// HELPERS
+
+
+	/**
+	 * Reduces a magnitude of any size modulo the modulus, to exactly {@code n} limbs.
+	 */
+	private int[] residue(int[] a) {
+		int[] r = LimbArithmetic.divideAndRemainder(a, modulus)[1];
+		return Arrays.copyOf(r, n);
+	}
+
+	private static int bit(int[] a, long i) {
+		return (a[(int) (i >>> 5)] >>> i) & 1;
+	}
+
+	/**
+	 * Computes {@code 1/a mod 2^32} for odd {@code a} by Newton iteration, each step of which doubles
+	 * the number of correct low bits.
+	 */
+	static int inverse32(int a) {
+		int x = a;
+
+		for (int i = 0; i < 4; i++) {
+			x *= 2 - a * x;
+		}
+
+		return x;
+	}
+}
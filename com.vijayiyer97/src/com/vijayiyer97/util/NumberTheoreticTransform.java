@@ -0,0 +1,377 @@
+package com.vijayiyer97.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Multiplication of very long magnitudes by number-theoretic transforms. Each limb of an operand is
+ * a coefficient of a polynomial in {@code 2^32}, and the product polynomial is computed modulo three
+ * primes below {@code 2^30} with a cyclic convolution per prime. The coefficients are recovered by
+ * the Chinese remainder theorem (Garner's form) and carried into limbs.
+ * <p>
+ * The product of the primes exceeds {@code 2^85}, which bounds every coefficient of a product of at
+ * most {@code MAX_LENGTH} limbs. Residues are kept in Montgomery form so the transforms never divide.
+ * They work in per-thread scratch arrays which are reused between calls, and which are only kept
+ * while they stay under {@code MAX_CACHED} elements.
+ * <p>
+ * Above {@code PARALLEL_THRESHOLD} limbs the three convolutions run concurrently on the pool of
+ * {@code ForkJoinArithmetic}, each in arrays of its own, and each transform splits its butterflies
+ * into tasks of {@code PARALLEL_CHUNK} elements: the stages whose blocks fit in a chunk run chunk by
+ * chunk, and every later stage is split across the butterflies of its blocks.
+ *
+ * @author Vijay Iyer
+ *
+ */
+final class NumberTheoreticTransform {
+
+	/**
+	 * Longest product, in limbs, whose coefficients the three primes can recover.
+	 */
+	static final int MAX_LENGTH = 1 << 21;
+
+	/**
+	 * Longest scratch array kept between calls.
+	 */
+	private static final int MAX_CACHED = 1 << 20;
+
+	/**
+	 * Number of elements a transform hands to one task when it runs in parallel.
+	 */
+	static int PARALLEL_CHUNK = 1 << 13;
+
+	// primes of the form c 2^k + 1 with k >= 23, each with primitive root 3.
+	private static final long P1 = 998244353L;
+	private static final long P2 = 167772161L;
+	private static final long P3 = 469762049L;
+	private static final long ROOT = 3;
+
+	private static final long P1_INV_P2 = inverse(P1 % P2, P2);
+	private static final long P1P2 = P1 * P2;
+	private static final long P1P2_INV_P3 = inverse(P1P2 % P3, P3);
+
+	// transform buffers: one residue per prime, one for the second operand and one of roots.
+	private static final ThreadLocal<int[][]> SCRATCH = ThreadLocal.withInitial(() -> new int[5][0]);
+
+	private NumberTheoreticTransform() {
+	}
+
+	/**
+	 * A loop body over the indices {@code [from, to)}.
+	 */
+	private interface Range {
+
+		void run(int from, int to);
+	}
+
+	/**
+	 * Multiplies the low {@code aLen} limbs of {@code a} by the low {@code bLen} limbs of {@code b},
+	 * where {@code aLen + bLen <= MAX_LENGTH}.
+	 *
+	 * @return A new array of {@code aLen + bLen} limbs.
+	 */
+	static int[] multiply(int[] a, int aLen, int[] b, int bLen) {
+		int n = Integer.highestOneBit(aLen + bLen - 1) << 1;
+
+		if (ForkJoinArithmetic.parallel(Math.min(aLen, bLen))) {
+			return ForkJoinArithmetic.invoke(ForkJoinTask.adapt(() -> parallel(a, aLen, b, bLen, n, aLen + bLen)));
+		}
+
+		int[][] scratch = scratch(n);
+
+		convolve(scratch[0], scratch[3], scratch[4], a, aLen, b, bLen, n, P1, false);
+		convolve(scratch[1], scratch[3], scratch[4], a, aLen, b, bLen, n, P2, false);
+		convolve(scratch[2], scratch[3], scratch[4], a, aLen, b, bLen, n, P3, false);
+
+		return reconstruct(scratch[0], scratch[1], scratch[2], aLen + bLen);
+	}
+
+	/**
+	 * Squares the low {@code aLen} limbs of {@code a}, where {@code 2 aLen <= MAX_LENGTH}. The operand
+	 * is transformed once per prime rather than twice.
+	 *
+	 * @return A new array of {@code 2 aLen} limbs.
+	 */
+	static int[] square(int[] a, int aLen) {
+		int n = Integer.highestOneBit(2 * aLen - 1) << 1;
+
+		if (ForkJoinArithmetic.parallel(aLen)) {
+			return ForkJoinArithmetic.invoke(ForkJoinTask.adapt(() -> parallel(a, aLen, null, aLen, n, 2 * aLen)));
+		}
+
+		int[][] scratch = scratch(n);
+
+		convolve(scratch[0], null, scratch[4], a, aLen, a, aLen, n, P1, false);
+		convolve(scratch[1], null, scratch[4], a, aLen, a, aLen, n, P2, false);
+		convolve(scratch[2], null, scratch[4], a, aLen, a, aLen, n, P3, false);
+
+		return reconstruct(scratch[0], scratch[1], scratch[2], 2 * aLen);
+	}
+
+	/**
+	 * Runs the three convolutions of a product concurrently, in a worker of the pool. Each prime gets
+	 * arrays of its own rather than the per-thread scratch. If {@code b} is {@code null}, {@code a} is
+	 * squared.
+	 */
+	private static int[] parallel(int[] a, int aLen, int[] b, int bLen, int n, int length) {
+		long[] primes = { P1, P2, P3 };
+		int[][] residues = new int[3][];
+		List<ForkJoinTask<?>> tasks = new ArrayList<>();
+
+		for (int i = 0; i < 3; i++) {
+			int[] f = residues[i] = new int[n];
+			long p = primes[i];
+
+			tasks.add(ForkJoinTask.adapt(() -> convolve(f, b == null ? null : new int[n], new int[n >>> 1], a, aLen,
+					b == null ? a : b, bLen, n, p, true)));
+		}
+
+		ForkJoinTask.invokeAll(tasks);
+
+		return reconstruct(residues[0], residues[1], residues[2], length);
+	}
+
+	/// HELPERS
+
+
+	/**
+	 * Stores the cyclic convolution of {@code a} and {@code b} modulo {@code p}, of length {@code n},
+	 * in {@code fa}, using {@code fb} and {@code roots} as scratch. If {@code fb} is {@code null}, the
+	 * operands are taken to be equal and {@code a} is transformed alone. Residues are kept in Montgomery
+	 * form, {@code x 2^32 mod p}, so that every modular product is a Montgomery reduction rather than
+	 * a division. If {@code parallel} is set, the loops run as tasks in the current pool.
+	 */
+	private static void convolve(int[] fa, int[] fb, int[] roots, int[] a, int aLen, int[] b, int bLen, int n,
+			long p, boolean parallel) {
+		long pInv = negativeInverse(p);
+		long r2 = (1L << 32) % p * ((1L << 32) % p) % p;
+
+		// powers of a primitive n-th root of unity, from w^0 to w^(n/2 - 1).
+		long w = reduce(pow(ROOT, (p - 1) / n, p) * r2, p, pInv);
+		long wk = reduce(r2, p, pInv);
+
+		for (int k = 0; k < n >>> 1; k++) {
+			roots[k] = (int) wk;
+			wk = reduce(wk * w, p, pInv);
+		}
+
+		int chunk = parallel ? Math.min(PARALLEL_CHUNK, n) : n;
+
+		forEach(n, chunk, (from, to) -> load(fa, a, aLen, from, to, p, pInv, r2));
+		transform(fa, roots, n, p, pInv, chunk);
+
+		int[] g = fb == null ? fa : fb;
+
+		if (fb != null) {
+			forEach(n, chunk, (from, to) -> load(g, b, bLen, from, to, p, pInv, r2));
+			transform(g, roots, n, p, pInv, chunk);
+		}
+
+		forEach(n, chunk, (from, to) -> {
+			for (int i = from; i < to; i++) {
+				fa[i] = (int) reduce((long) fa[i] * g[i], p, pInv);
+			}
+		});
+
+		// the inverse transform is the forward transform with its outputs reversed.
+		transform(fa, roots, n, p, pInv, chunk);
+
+		for (int i = 1, j = n - 1; i < j; i++, j--) {
+			int temp = fa[i];
+			fa[i] = fa[j];
+			fa[j] = temp;
+		}
+
+		// multiplying by 1/n without the factor 2^32 also leaves Montgomery form.
+		long nInv = pow(n, p - 2, p);
+
+		forEach(n, chunk, (from, to) -> {
+			for (int i = from; i < to; i++) {
+				fa[i] = (int) reduce(fa[i] * nInv, p, pInv);
+			}
+		});
+	}
+
+	/**
+	 * Converts limbs {@code [from, to)} of {@code a} to Montgomery form modulo {@code p} in the same
+	 * elements of {@code f}, padding with zeros past {@code aLen}.
+	 */
+	private static void load(int[] f, int[] a, int aLen, int from, int to, long p, long pInv, long r2) {
+		int end = Math.min(to, Math.max(aLen, from));
+
+		for (int i = from; i < end; i++) {
+			f[i] = (int) reduce((a[i] & LimbArithmetic.LONG_MASK) * r2, p, pInv);
+		}
+
+		for (int i = end; i < to; i++) {
+			f[i] = 0;
+		}
+	}
+
+	/**
+	 * In-place iterative Cooley-Tukey transform of length {@code n} modulo {@code p}, where
+	 * {@code roots} holds the first {@code n/2} powers of the root of unity. Stages of blocks up to
+	 * {@code chunk} elements run chunk by chunk; each later stage is split into runs of butterflies
+	 * at the same offsets of every block, about {@code chunk / 2} butterflies per run. The chunks and
+	 * runs are tasks unless {@code chunk} is {@code n}.
+	 */
+	private static void transform(int[] f, int[] roots, int n, long p, long pInv, int chunk) {
+		for (int i = 1, j = 0; i < n; i++) {
+			int bit = n >>> 1;
+
+			for (; (j & bit) != 0; bit >>>= 1) {
+				j ^= bit;
+			}
+
+			j ^= bit;
+
+			if (i < j) {
+				int temp = f[i];
+				f[i] = f[j];
+				f[j] = temp;
+			}
+		}
+
+		forEach(n, chunk, (from, to) -> {
+			for (int len = 2; len <= chunk; len <<= 1) {
+				butterflies(f, roots, n, p, pInv, len, from, to, 0, len >>> 1);
+			}
+		});
+
+		for (int len = chunk << 1; len <= n; len <<= 1) {
+			int stage = len;
+			int run = Math.max((int) ((long) chunk * len / n) >>> 1, 1);
+
+			forEach(len >>> 1, run, (from, to) -> butterflies(f, roots, n, p, pInv, stage, 0, n, from, to));
+		}
+	}
+
+	/**
+	 * Butterflies {@code [kFrom, kTo)} of every block of {@code len} elements within {@code [from, to)}.
+	 */
+	private static void butterflies(int[] f, int[] roots, int n, long p, long pInv, int len, int from, int to,
+			int kFrom, int kTo) {
+		int half = len >>> 1;
+		int stride = n / len;
+
+		for (int i = from; i < to; i += len) {
+			for (int k = kFrom, r = kFrom * stride; k < kTo; k++, r += stride) {
+				long u = f[i + k];
+				long v = reduce((long) f[i + k + half] * roots[r], p, pInv);
+
+				long sum = u + v;
+				long difference = u - v;
+
+				f[i + k] = (int) (sum >= p ? sum - p : sum);
+				f[i + k + half] = (int) (difference < 0 ? difference + p : difference);
+			}
+		}
+	}
+
+	/**
+	 * Runs a loop body over {@code [0, n)} in pieces of {@code step} indices, as tasks in the current
+	 * pool if there is more than one piece.
+	 */
+	private static void forEach(int n, int step, Range body) {
+		if (step >= n) {
+			body.run(0, n);
+			return;
+		}
+
+		List<ForkJoinTask<?>> tasks = new ArrayList<>();
+
+		for (int from = 0; from < n; from += step) {
+			int start = from;
+			tasks.add(ForkJoinTask.adapt(() -> body.run(start, Math.min(start + step, n))));
+		}
+
+		ForkJoinTask.invokeAll(tasks);
+	}
+
+	/**
+	 * Montgomery reduction: {@code t 2^-32 mod p} for {@code t < 2^32 p}.
+	 */
+	private static long reduce(long t, long p, long pInv) {
+		long m = ((t & LimbArithmetic.LONG_MASK) * pInv) & LimbArithmetic.LONG_MASK;
+		long u = (t + m * p) >>> 32;
+
+		return u >= p ? u - p : u;
+	}
+
+	/**
+	 * Computes {@code -1/p mod 2^32} for odd {@code p} by Newton iteration.
+	 */
+	private static long negativeInverse(long p) {
+		long inv = p;
+
+		for (int i = 0; i < 5; i++) {
+			inv = inv * (2 - p * inv);
+		}
+
+		return -inv & LimbArithmetic.LONG_MASK;
+	}
+
+	/**
+	 * Combines the residues of each coefficient into its value, and carries the coefficients into
+	 * {@code length} limbs.
+	 */
+	private static int[] reconstruct(int[] r1, int[] r2, int[] r3, int length) {
+		int[] result = new int[length];
+		long p1p2Low = P1P2 & LimbArithmetic.LONG_MASK;
+		long p1p2High = P1P2 >>> 32;
+		long carry = 0;
+
+		for (int i = 0; i < length; i++) {
+			long x1 = r1[i];
+			long t2 = (r2[i] - x1 % P2 + P2) % P2 * P1_INV_P2 % P2;
+			long v = x1 + P1 * t2;
+			long t3 = ((r3[i] - v % P3) % P3 + P3) % P3 * P1P2_INV_P3 % P3;
+
+			// coefficient i is v + p1 p2 t3, below 2^86.
+			long total = v + t3 * p1p2Low + carry;
+			result[i] = (int) total;
+			carry = (total >>> 32) + t3 * p1p2High;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the calling thread's scratch arrays, grown to at least {@code n} elements. Arrays longer
+	 * than {@code MAX_CACHED} are not kept for later calls.
+	 */
+	private static int[][] scratch(int n) {
+		int[][] scratch = SCRATCH.get();
+
+		if (scratch[0].length >= n) {
+			return scratch;
+		}
+
+		int[][] grown = new int[5][n];
+
+		if (n <= MAX_CACHED) {
+			SCRATCH.set(grown);
+		}
+
+		return grown;
+	}
+
+	private static long pow(long base, long exponent, long p) {
+		long result = 1;
+		base %= p;
+
+		for (; exponent > 0; exponent >>= 1) {
+			if ((exponent & 1) == 1) {
+				result = result * base % p;
+			}
+
+			base = base * base % p;
+		}
+
+		return result;
+	}
+
+	private static long inverse(long a, long p) {
+		return pow(a, p - 2, p);
+	}
+}
@@ -0,0 +1,555 @@
+package com.vijayiyer97.util;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * An immutable posting list of document numbers for an inverted index. Rare terms are stored as a
+ * sorted array of document numbers and common terms as a packed bitmap, whichever is smaller, so a
+ * rare term never costs one bit per document in the collection. Intersection and union pick the
+ * cheapest strategy for the forms of their operands:
+ * <ul>
+ * <li>array and array: a merge when the lists are of similar size, or galloping search of the
+ * smaller list into the larger one when they are not.</li>
+ * <li>array and bitmap: a probe of the bitmap for every element of the array.</li>
+ * <li>bitmap and bitmap: word-at-a-time bitwise operations.</li>
+ * </ul>
+ *
+ * @author Vijay Iyer
+ *
+ */
+public final class PostingList implements Serializable {
+
+	/**
+	 * Allows serialization of this object.
+	 */
+	private static final long serialVersionUID = 6402617384950193386L;
+
+	/**
+	 * Number of bits an array element costs. A list is stored as a bitmap once it holds at least one
+	 * document for every {@code DENSITY} document numbers it spans.
+	 */
+	private static final int DENSITY = 32;
+
+	/**
+	 * Size ratio above which intersection of two arrays gallops instead of merging.
+	 */
+	private static final int GALLOP_RATIO = 16;
+
+	/**
+	 * {@code PostingList} representation of the empty list.
+	 */
+	public static final PostingList EMPTY = new PostingList(new int[0]);
+
+	// sorted document numbers, or null if the list is stored as a bitmap.
+	private final int[] docs;
+
+	// packed bitmap of document numbers, or null if the list is stored as an array.
+	private final long[] words;
+
+	private final int cardinality;
+
+	/// INITIALIZERS
+
+
+	private PostingList(int[] docs) {
+		this.docs = docs;
+		this.words = null;
+		this.cardinality = docs.length;
+	}
+
+	private PostingList(long[] words, int cardinality) {
+		this.docs = null;
+		this.words = words;
+		this.cardinality = cardinality;
+	}
+
+	/**
+	 * Creates a posting list from document numbers in any order. Duplicates are removed. Throws
+	 * {@code UnsupportedOperationException} if a document number is negative.
+	 *
+	 * @param docs Document numbers.
+	 * @return A new {@code PostingList} instance.
+	 */
+	public static PostingList of(int... docs) {
+		int[] sorted = docs.clone();
+		Arrays.sort(sorted);
+
+		int n = 0;
+
+		for (int i = 0; i < sorted.length; i++) {
+			if (sorted[i] < 0) {
+				throw BitSet.ILLEGAL_ACCESS;
+			} else if (n == 0 || sorted[i] != sorted[n - 1]) {
+				sorted[n++] = sorted[i];
+			}
+		}
+
+		return valueOf(sorted, n);
+	}
+
+	/**
+	 * Creates a posting list from the set bits of a {@code BitSet} instance.
+	 *
+	 * @param bitSet Bit set whose set bits are document numbers.
+	 * @return A new {@code PostingList} instance.
+	 */
+	public static PostingList valueOf(BitSet bitSet) {
+		return valueOf(bitSet.toWords());
+	}
+
+	/**
+	 * Chooses the smaller form for the first {@code n} elements of a sorted array.
+	 */
+	private static PostingList valueOf(int[] docs, int n) {
+		if (n == 0) {
+			return EMPTY;
+		}
+
+		long universe = docs[n - 1] + 1L;
+
+		if (n * (long) DENSITY >= universe) {
+			return new PostingList(encode(docs, n), n);
+		}
+
+		return new PostingList(n == docs.length ? docs : Arrays.copyOf(docs, n));
+	}
+
+	/**
+	 * Chooses the smaller form for a bitmap.
+	 */
+	private static PostingList valueOf(long[] words) {
+		int n = 0;
+		int last = -1;
+
+		for (int w = 0; w < words.length; w++) {
+			if (words[w] != 0) {
+				n += Long.bitCount(words[w]);
+				last = w;
+			}
+		}
+
+		if (n == 0) {
+			return EMPTY;
+		}
+
+		int universe = (last << 6) + 64 - Long.numberOfLeadingZeros(words[last]);
+
+		if ((long) n * DENSITY >= universe) {
+			return new PostingList(last + 1 == words.length ? words : Arrays.copyOf(words, last + 1), n);
+		}
+
+		int[] docs = new int[n];
+		int k = 0;
+
+		for (int w = 0; w <= last; w++) {
+			long word = words[w];
+
+			while (word != 0) {
+				docs[k++] = (w << 6) + Long.numberOfTrailingZeros(word);
+				word &= word - 1;
+			}
+		}
+
+		return new PostingList(docs);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+
+		if (!(obj instanceof PostingList)) {
+			return false;
+		}
+
+		PostingList other = (PostingList) obj;
+		return cardinality == other.cardinality && Arrays.equals(toArray(), other.toArray());
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(toArray());
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(toArray());
+	}
+
+	/// GETTERS
+
+
+	/**
+	 * Getter method for the number of documents in the list.
+	 *
+	 * @return Number of documents.
+	 */
+	public int cardinality() {
+		return cardinality;
+	}
+
+	/**
+	 * Checks for an empty list.
+	 *
+	 * @return {@code true} if the list holds no documents, {@code false} otherwise.
+	 */
+	public boolean isEmpty() {
+		return cardinality == 0;
+	}
+
+	/**
+	 * Checks whether the list is stored as a bitmap.
+	 *
+	 * @return {@code true} if the list is a bitmap, {@code false} if it is a sorted array.
+	 */
+	public boolean isDense() {
+		return words != null;
+	}
+
+	/**
+	 * Checks whether a document is in the list.
+	 *
+	 * @param doc Document number.
+	 * @return {@code true} if the document is in the list, {@code false} otherwise.
+	 */
+	public boolean contains(int doc) {
+		if (doc < 0) {
+			return false;
+		} else if (words != null) {
+			return (doc >>> 6) < words.length && (words[doc >>> 6] & (1L << doc)) != 0;
+		}
+
+		return Arrays.binarySearch(docs, doc) >= 0;
+	}
+
+	/**
+	 * Copies the document numbers of the list in ascending order.
+	 *
+	 * @return A new array of document numbers.
+	 */
+	public int[] toArray() {
+		if (docs != null) {
+			return docs.clone();
+		}
+
+		return decode(words, cardinality);
+	}
+
+	/**
+	 * Copies the list into a {@code BitSet} instance whose set bits are the document numbers.
+	 *
+	 * @return A new {@code BitSetLE} instance.
+	 */
+	public BitSetLE toBitSet() {
+		long[] bitmap = words != null ? words : encode(docs, docs.length);
+
+		return new BitSetLE(bitmap, bitmap.length << 6);
+	}
+
+	/// SET OPERATIONS
+
+
+	/**
+	 * Intersects this list with another.
+	 *
+	 * @param other {@code PostingList} to intersect with.
+	 * @return A new {@code PostingList} instance.
+	 */
+	public PostingList and(PostingList other) {
+		if (this.isEmpty() || other.isEmpty()) {
+			return EMPTY;
+		} else if (this.words != null && other.words != null) {
+			int n = this.words.length < other.words.length ? this.words.length : other.words.length;
+			long[] result = new long[n];
+
+			for (int w = 0; w < n; w++) {
+				result[w] = this.words[w] & other.words[w];
+			}
+
+			return valueOf(result);
+		} else if (this.words != null) {
+			return probe(other.docs, this.words);
+		} else if (other.words != null) {
+			return probe(this.docs, other.words);
+		}
+
+		int[] small = this.cardinality <= other.cardinality ? this.docs : other.docs;
+		int[] large = this.cardinality <= other.cardinality ? other.docs : this.docs;
+
+		if (large.length / small.length >= GALLOP_RATIO) {
+			return gallop(small, large);
+		}
+
+		return merge(small, large);
+	}
+
+	/**
+	 * Unites this list with another.
+	 *
+	 * @param other {@code PostingList} to unite with.
+	 * @return A new {@code PostingList} instance.
+	 */
+	public PostingList or(PostingList other) {
+		if (this.isEmpty()) {
+			return other;
+		} else if (other.isEmpty()) {
+			return this;
+		} else if (this.docs != null && other.docs != null) {
+			return merge(this.docs, other.docs, new int[this.cardinality + other.cardinality]);
+		}
+
+		long[] result = this.bitmap(other.universe());
+		other.orInto(result);
+
+		return valueOf(result);
+	}
+
+	/**
+	 * Intersects any number of lists. Lists are intersected from the smallest up, so each step works
+	 * on the smallest intermediate result and the scan stops as soon as the result is empty.
+	 *
+	 * @param lists Lists to intersect.
+	 * @return A new {@code PostingList} instance.
+	 */
+	public static PostingList intersection(PostingList... lists) {
+		if (lists.length == 0) {
+			return EMPTY;
+		}
+
+		PostingList[] sorted = lists.clone();
+		Arrays.sort(sorted, Comparator.comparingInt(PostingList::cardinality));
+
+		PostingList result = sorted[0];
+
+		for (int i = 1; i < sorted.length && !result.isEmpty(); i++) {
+			result = result.and(sorted[i]);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Unites any number of lists. When the result is expected to be dense every list is ORed into a
+	 * single bitmap; otherwise the two smallest lists are merged repeatedly, so no document is copied
+	 * more often than necessary.
+	 *
+	 * @param lists Lists to unite.
+	 * @return A new {@code PostingList} instance.
+	 */
+	public static PostingList union(PostingList... lists) {
+		long total = 0;
+		int universe = 0;
+
+		for (PostingList list: lists) {
+			total += list.cardinality;
+			universe = list.universe() > universe ? list.universe() : universe;
+		}
+
+		if (total == 0) {
+			return EMPTY;
+		} else if (total * DENSITY >= universe) {
+			long[] result = new long[(universe + 63) >>> 6];
+
+			for (PostingList list: lists) {
+				list.orInto(result);
+			}
+
+			return valueOf(result);
+		}
+
+		PriorityQueue<PostingList> queue = new PriorityQueue<>(lists.length,
+				Comparator.comparingInt(PostingList::cardinality));
+
+		for (PostingList list: lists) {
+			queue.add(list);
+		}
+
+		while (queue.size() > 1) {
+			queue.add(queue.poll().or(queue.poll()));
+		}
+
+		return queue.poll();
+	}
+
+	/// HELPERS
+
+
+	/**
+	 * One greater than the largest document number in the list.
+	 */
+	private int universe() {
+		if (cardinality == 0) {
+			return 0;
+		} else if (docs != null) {
+			return docs[docs.length - 1] + 1;
+		}
+
+		int last = words.length - 1;
+		return (last << 6) + 64 - Long.numberOfLeadingZeros(words[last]);
+	}
+
+	/**
+	 * Copies the list into a bitmap spanning at least {@code universe} document numbers.
+	 */
+	private long[] bitmap(int universe) {
+		int n = (Math.max(universe, universe()) + 63) >>> 6;
+
+		if (words != null) {
+			return Arrays.copyOf(words, n);
+		}
+
+		long[] result = new long[n];
+		orInto(result);
+
+		return result;
+	}
+
+	private void orInto(long[] target) {
+		if (words != null) {
+			for (int w = 0; w < words.length; w++) {
+				target[w] |= words[w];
+			}
+		} else {
+			for (int doc: docs) {
+				target[doc >>> 6] |= 1L << doc;
+			}
+		}
+	}
+
+	private static long[] encode(int[] docs, int n) {
+		long[] words = new long[n == 0 ? 0 : (docs[n - 1] >>> 6) + 1];
+
+		for (int i = 0; i < n; i++) {
+			words[docs[i] >>> 6] |= 1L << docs[i];
+		}
+
+		return words;
+	}
+
+	private static int[] decode(long[] words, int cardinality) {
+		int[] docs = new int[cardinality];
+		int k = 0;
+
+		for (int w = 0; w < words.length; w++) {
+			long word = words[w];
+
+			while (word != 0) {
+				docs[k++] = (w << 6) + Long.numberOfTrailingZeros(word);
+				word &= word - 1;
+			}
+		}
+
+		return docs;
+	}
+
+	/**
+	 * Keeps the elements of an array that are set in a bitmap. The element is always written and the
+	 * output index advanced by the probed bit, so the loop has no data-dependent branch.
+	 */
+	private static PostingList probe(int[] docs, long[] words) {
+		int[] result = new int[docs.length];
+		int k = 0;
+		int limit = words.length << 6;
+
+		for (int doc: docs) {
+			if (doc >= limit) {
+				break;
+			}
+
+			result[k] = doc;
+			k += (int) (words[doc >>> 6] >>> doc) & 1;
+		}
+
+		return valueOf(result, k);
+	}
+
+	/**
+	 * Intersects two sorted arrays of similar size. Both indices advance by comparison results rather
+	 * than by branches, which keeps the loop friendly to branch prediction and vectorization.
+	 */
+	private static PostingList merge(int[] a, int[] b) {
+		int[] result = new int[a.length < b.length ? a.length : b.length];
+		int i = 0;
+		int j = 0;
+		int k = 0;
+
+		while (i < a.length && j < b.length) {
+			int x = a[i];
+			int y = b[j];
+
+			result[k] = x;
+			k += x == y ? 1 : 0;
+			i += x <= y ? 1 : 0;
+			j += x >= y ? 1 : 0;
+		}
+
+		return valueOf(result, k);
+	}
+
+	/**
+	 * Intersects a small sorted array with a much larger one. Each element of the small array is
+	 * located in the large one by doubling the step from the previous match and then binary searching
+	 * the last step, so the cost grows with the logarithm of the gap rather than its length.
+	 */
+	private static PostingList gallop(int[] small, int[] large) {
+		int[] result = new int[small.length];
+		int k = 0;
+		int lo = 0;
+
+		for (int x: small) {
+			int bound = 1;
+
+			while (lo + bound < large.length && large[lo + bound] < x) {
+				bound <<= 1;
+			}
+
+			int hi = lo + bound + 1 < large.length ? lo + bound + 1 : large.length;
+			int index = Arrays.binarySearch(large, lo, hi, x);
+
+			if (index >= 0) {
+				result[k++] = x;
+				lo = index + 1;
+			} else {
+				lo = -index - 1;
+			}
+
+			if (lo >= large.length) {
+				break;
+			}
+		}
+
+		return valueOf(result, k);
+	}
+
+	/**
+	 * Unites two sorted arrays into a buffer large enough for both.
+	 */
+	private static PostingList merge(int[] a, int[] b, int[] result) {
+		int i = 0;
+		int j = 0;
+		int k = 0;
+
+		while (i < a.length && j < b.length) {
+			int x = a[i];
+			int y = b[j];
+
+			result[k++] = x <= y ? x : y;
+			i += x <= y ? 1 : 0;
+			j += x >= y ? 1 : 0;
+		}
+
+		while (i < a.length) {
+			result[k++] = a[i++];
+		}
+
+		while (j < b.length) {
+			result[k++] = b[j++];
+		}
+
+		return valueOf(result, k);
+	}
+}
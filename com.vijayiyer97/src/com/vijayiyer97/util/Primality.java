@@ -0,0 +1,557 @@
+package com.vijayiyer97.util;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Probable-prime tests over magnitudes stored as little-endian 32-bit limbs. A candidate is first
+ * divided by the small primes from a {@code PrimeSieve}, packed into words so that one remainder
+ * pass over the candidate serves several primes. Survivors take the Baillie-PSW test, a strong
+ * probable-prime test to base 2 followed by a strong Lucas test with Selfridge's parameters, which
+ * has no known counterexample and is exact below {@code 2^64}. Further Miller-Rabin rounds with
+ * random bases bound the error for a requested certainty. Every modular product runs on a single
+ * {@code Montgomery} instance per candidate.
+ * <p>
+ * The search for the next probable prime sieves a window of odd candidates by the small primes at
+ * once, and tests the survivors concurrently on the pool of {@code ForkJoinArithmetic}, a batch of
+ * {@code PARALLELISM} candidates at a time.
+ *
+ * @author Vijay Iyer
+ *
+ */
+public final class Primality {
+
+	/**
+	 * Primes below this bound divide candidates before any exponentiation.
+	 */
+	private static final int TRIAL_LIMIT = 1 << 12;
+
+	/**
+	 * Primes below this bound sieve the windows of {@code nextProbablePrime}.
+	 */
+	private static final int WINDOW_LIMIT = 1 << 16;
+
+	// the odd primes below WINDOW_LIMIT, packed into words below 2^32: word i is the product of the
+	// primes [wordStart[i], wordStart[i + 1]).
+	private static final int[] PRIMES = new PrimeSieve(WINDOW_LIMIT).primes().skip(1).toArray();
+	private static final int[] WORDS;
+	private static final int[] WORD_START;
+
+	// the number of words whose primes are all below TRIAL_LIMIT.
+	private static final int TRIAL_WORDS;
+
+	static {
+		int[] words = new int[PRIMES.length];
+		int[] start = new int[PRIMES.length + 1];
+		int count = 0;
+		int trial = 0;
+
+		for (int i = 0; i < PRIMES.length;) {
+			long word = 1;
+			start[count] = i;
+
+			// a word never mixes primes from both sides of TRIAL_LIMIT.
+			boolean small = PRIMES[i] < TRIAL_LIMIT;
+
+			while (i < PRIMES.length && word * PRIMES[i] <= LimbArithmetic.LONG_MASK && (PRIMES[i] < TRIAL_LIMIT) == small) {
+				word *= PRIMES[i++];
+			}
+
+			words[count++] = (int) word;
+
+			if (small) {
+				trial = count;
+			}
+		}
+
+		start[count] = PRIMES.length;
+		WORDS = Arrays.copyOf(words, count);
+		WORD_START = Arrays.copyOf(start, count + 1);
+		TRIAL_WORDS = trial;
+	}
+
+	// bit lengths below which the number of random rounds is capped by the corresponding count.
+	private static final int[] ROUND_BITS = { 100, 256, 512, 768, 1024 };
+	private static final int[] ROUNDS = { 50, 27, 15, 8, 4 };
+
+	private Primality() {
+	}
+
+	/// PRIMALITY
+
+
+	/**
+	 * Tests whether a magnitude is probably prime. The candidate takes trial division and the
+	 * Baillie-PSW test, and then random Miller-Rabin rounds which bring the probability that a
+	 * composite passes below {@code 2^-certainty}. Fewer rounds are needed as the candidate grows,
+	 * following the bounds of Damgard, Landrock and Pomerance.
+	 *
+	 * @param n Magnitude.
+	 * @param certainty Certainty in bits; the result is {@code true} if it is not positive.
+	 * @return {@code false} if {@code n} is certainly composite, {@code true} if it is probably prime.
+	 */
+	public static boolean isProbablePrime(int[] n, int certainty) {
+		if (certainty <= 0) {
+			return true;
+		}
+
+		int[] m = LimbArithmetic.trim(n);
+		Boolean small = trialDivision(m);
+
+		if (small != null) {
+			return small;
+		}
+
+		Montgomery montgomery = new Montgomery(m);
+
+		if (!millerRabin(montgomery, m, new int[] { 2 }) || !lucas(montgomery, m)) {
+			return false;
+		}
+
+		long bits = LimbArithmetic.bitLength(m);
+
+		// below 2^64 the Baillie-PSW test is exact.
+		if (bits <= 64) {
+			return true;
+		}
+
+		int rounds = Math.min((certainty + 1) / 2, 2);
+
+		for (int i = ROUND_BITS.length - 1; i >= 0 && bits < ROUND_BITS[i]; i--) {
+			rounds = Math.min((certainty + 1) / 2, ROUNDS[i]);
+		}
+
+		for (int i = 0; i < rounds; i++) {
+			if (!millerRabin(montgomery, m, randomBase(m))) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Tests whether a magnitude is a Baillie-PSW probable prime. The test is deterministic: it has no
+	 * known counterexample, and none exists below {@code 2^64}.
+	 *
+	 * @param n Magnitude.
+	 * @return {@code false} if {@code n} is certainly composite, {@code true} if it is probably prime.
+	 */
+	public static boolean isBailliePswPrime(int[] n) {
+		int[] m = LimbArithmetic.trim(n);
+		Boolean small = trialDivision(m);
+
+		if (small != null) {
+			return small;
+		}
+
+		Montgomery montgomery = new Montgomery(m);
+		return millerRabin(montgomery, m, new int[] { 2 }) && lucas(montgomery, m);
+	}
+
+	/**
+	 * Finds the least probable prime greater than a magnitude. Windows of odd candidates are sieved by
+	 * the odd primes below {@code WINDOW_LIMIT}, and the survivors are tested by
+	 * {@code isProbablePrime}, concurrently when more than one worker is available.
+	 *
+	 * @param n Magnitude.
+	 * @param certainty Certainty in bits, as for {@code isProbablePrime}.
+	 * @return A new magnitude, the least probable prime greater than {@code n}.
+	 */
+	public static int[] nextProbablePrime(int[] n, int certainty) {
+		if (LimbArithmetic.compare(n, 2) < 0) {
+			return new int[] { 2 };
+		}
+
+		// the least odd number greater than n.
+		int[] start = LimbArithmetic.add(n, (n[0] & 1) == 0 ? 1 : 2);
+		int window = Math.max(64, (int) Math.min(LimbArithmetic.bitLength(start), 1 << 16));
+		int batch = Math.max(LimbArithmetic.PARALLELISM, 1);
+
+		while (true) {
+			int[] candidates = survivors(start, window);
+			int found = -1;
+
+			for (int from = 0; from < candidates.length && found < 0; from += batch) {
+				found = first(start, candidates, from, Math.min(from + batch, candidates.length), certainty);
+			}
+
+			if (found >= 0) {
+				return LimbArithmetic.trim(LimbArithmetic.add(start, 2L * found));
+			}
+
+			start = LimbArithmetic.add(start, 2L * window);
+		}
+	}
+
+	/// HELPERS
+
+
+	/**
+	 * Divides a trimmed magnitude by the primes below {@code TRIAL_LIMIT}, one remainder pass per
+	 * word of primes.
+	 *
+	 * @return The primality of {@code n} if trial division decides it, or {@code null}.
+	 */
+	private static Boolean trialDivision(int[] n) {
+		if (LimbArithmetic.compare(n, (long) TRIAL_LIMIT * TRIAL_LIMIT) < 0) {
+			int v = n.length == 0 ? 0 : n[0];
+
+			if (v < 2) {
+				return false;
+			} else if ((v & 1) == 0) {
+				return v == 2;
+			}
+
+			for (int i = 0; PRIMES[i] * PRIMES[i] <= v; i++) {
+				if (v % PRIMES[i] == 0) {
+					return false;
+				}
+			}
+
+			return true;
+		} else if ((n[0] & 1) == 0) {
+			return false;
+		}
+
+		for (int w = 0; w < TRIAL_WORDS; w++) {
+			long r = LimbArithmetic.remainderByInt(n, n.length, WORDS[w]) & LimbArithmetic.LONG_MASK;
+
+			for (int i = WORD_START[w]; i < WORD_START[w + 1]; i++) {
+				if (r % PRIMES[i] == 0) {
+					return false;
+				}
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Strong probable-prime test of an odd {@code n > 2} to a base below {@code n}: with
+	 * {@code n - 1 = d 2^s} and {@code d} odd, either {@code a^d = 1} or {@code a^(d 2^r) = -1} for
+	 * some {@code r < s}.
+	 */
+	private static boolean millerRabin(Montgomery montgomery, int[] n, int[] base) {
+		int[] nMinus1 = LimbArithmetic.subtract(n, LimbArithmetic.ONE);
+		int s = LimbArithmetic.trailingZeros(nMinus1);
+		int[] d = LimbArithmetic.shiftRight(nMinus1, s);
+
+		int[] one = montgomery.one();
+		int[] minusOne = montgomery.toMontgomery(nMinus1);
+		int[] x = base.length == 1 && base[0] == 2 ? powerOfTwo(montgomery, n, d) : montgomery.exponentiate(montgomery.toMontgomery(base), d);
+
+		if (Arrays.equals(x, one) || Arrays.equals(x, minusOne)) {
+			return true;
+		}
+
+		int[] scratch = montgomery.newScratch();
+
+		for (int r = 1; r < s; r++) {
+			montgomery.square(x, x, scratch);
+
+			if (Arrays.equals(x, minusOne)) {
+				return true;
+			} else if (Arrays.equals(x, one)) {
+				return false;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Raises two to a power by left-to-right binary exponentiation, where each set bit costs a modular
+	 * doubling instead of a multiplication.
+	 */
+	private static int[] powerOfTwo(Montgomery montgomery, int[] n, int[] exponent) {
+		Ring ring = new Ring(montgomery, n);
+		int[] x = montgomery.one();
+
+		for (long i = LimbArithmetic.bitLength(exponent) - 1; i >= 0; i--) {
+			montgomery.square(x, x, ring.scratch);
+
+			if ((exponent[(int) (i >>> 5)] >>> i & 1) == 1) {
+				x = ring.add(x, x);
+			}
+		}
+
+		return x;
+	}
+
+	/**
+	 * Strong Lucas probable-prime test of an odd {@code n > 2} with Selfridge's parameters: the first
+	 * {@code D} of 5, -7, 9, -11, ... with Jacobi symbol {@code (D/n) = -1}, {@code P = 1} and
+	 * {@code Q = (1 - D)/4}. With {@code n + 1 = d 2^s} and {@code d} odd, either {@code U_d = 0} or
+	 * {@code V_(d 2^r) = 0} for some {@code r < s}. Perfect squares, which have no such {@code D},
+	 * are rejected first.
+	 */
+	private static boolean lucas(Montgomery montgomery, int[] n) {
+		int d = 5;
+
+		for (int tries = 0;; tries++, d = d > 0 ? -d - 2 : -d + 2) {
+			int jacobi = jacobi(d, n);
+
+			if (jacobi == -1) {
+				break;
+			} else if (jacobi == 0) {
+				// n exceeds TRIAL_LIMIT^2, so it shares a proper factor with d.
+				return false;
+			} else if (tries == 20) {
+				int[] root = LimbArithmetic.sqrt(n);
+
+				if (LimbArithmetic.compare(LimbArithmetic.square(root), n) == 0) {
+					return false;
+				}
+			}
+		}
+
+		Ring ring = new Ring(montgomery, n);
+		int[] dm = ring.small(d);
+		int[] q = ring.small((1 - d) / 4);
+
+		int[] k = LimbArithmetic.add(n, 1);
+		int s = LimbArithmetic.trailingZeros(k);
+		k = LimbArithmetic.shiftRight(k, s);
+
+		// U_1 = 1 and V_1 = P = 1; each step doubles the index, and adds one for a set bit.
+		int[] u = montgomery.one();
+		int[] v = montgomery.one();
+		int[] qk = q.clone();
+
+		for (long i = LimbArithmetic.bitLength(k) - 2; i >= 0; i--) {
+			u = ring.multiply(u, v);
+			v = ring.subtract(ring.multiply(v, v), ring.add(qk, qk));
+			qk = ring.multiply(qk, qk);
+
+			if ((k[(int) (i >>> 5)] >>> i & 1) == 1) {
+				int[] next = ring.half(ring.add(u, v));
+				v = ring.half(ring.add(ring.multiply(dm, u), v));
+				u = next;
+				qk = ring.multiply(qk, q);
+			}
+		}
+
+		if (ring.isZero(u) || ring.isZero(v)) {
+			return true;
+		}
+
+		for (int r = 1; r < s; r++) {
+			v = ring.subtract(ring.multiply(v, v), ring.add(qk, qk));
+
+			if (ring.isZero(v)) {
+				return true;
+			}
+
+			qk = ring.multiply(qk, qk);
+		}
+
+		return false;
+	}
+
+	/**
+	 * Jacobi symbol {@code (a/n)} of a small odd {@code a} of either sign and an odd {@code n}.
+	 */
+	private static int jacobi(int a, int[] n) {
+		int result = 1;
+
+		// (-1/n) = 1 exactly when n = 1 mod 4.
+		if (a < 0) {
+			a = -a;
+			result = (n[0] & 3) == 1 ? 1 : -1;
+		}
+
+		// reciprocity for odd a: (a/n) = (n/a), negated when both are 3 mod 4.
+		if ((a & 3) == 3 && (n[0] & 3) == 3) {
+			result = -result;
+		}
+
+		int x = LimbArithmetic.remainderByInt(n, n.length, a);
+		int y = a;
+
+		while (x != 0) {
+			while ((x & 1) == 0) {
+				x >>>= 1;
+
+				// (2/y) = -1 exactly when y = 3 or 5 mod 8.
+				if ((y & 7) == 3 || (y & 7) == 5) {
+					result = -result;
+				}
+			}
+
+			int temp = x;
+			x = y;
+			y = temp;
+
+			if ((x & 3) == 3 && (y & 3) == 3) {
+				result = -result;
+			}
+
+			x %= y;
+		}
+
+		return y == 1 ? result : 0;
+	}
+
+	/**
+	 * Draws a random base in {@code [2, n - 2]}.
+	 */
+	private static int[] randomBase(int[] n) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		int[] base = new int[n.length];
+
+		do {
+			for (int i = 0; i < base.length; i++) {
+				base[i] = random.nextInt();
+			}
+
+			int top = 32 - Integer.numberOfLeadingZeros(n[n.length - 1]);
+			base[base.length - 1] &= top == 32 ? -1 : (1 << top) - 1;
+		} while (LimbArithmetic.compare(base, 2) < 0 || LimbArithmetic.compare(base, LimbArithmetic.subtract(n, 2)) > 0);
+
+		return base;
+	}
+
+	/**
+	 * Sieves the odd candidates {@code start + 2j}, {@code j < window}, by the odd primes below
+	 * {@code WINDOW_LIMIT}, and returns the offsets {@code j} of those no prime divides, except as
+	 * the candidate itself.
+	 */
+	private static int[] survivors(int[] start, int window) {
+		boolean[] composite = new boolean[window];
+		// only a window starting below WINDOW_LIMIT can hold one of the sieving primes.
+		boolean small = LimbArithmetic.compare(start, WINDOW_LIMIT) < 0;
+
+		for (int w = 0; w < WORDS.length; w++) {
+			long r = LimbArithmetic.remainderByInt(start, start.length, WORDS[w]) & LimbArithmetic.LONG_MASK;
+
+			for (int i = WORD_START[w]; i < WORD_START[w + 1]; i++) {
+				int p = PRIMES[i];
+
+				// start + 2j = 0 mod p for j = -(start mod p) / 2 mod p.
+				long j = (p - r % p) % p * ((p + 1) / 2) % p;
+
+				for (; j < window; j += p) {
+					if (!small || start[0] + 2 * j != p) {
+						composite[(int) j] = true;
+					}
+				}
+			}
+		}
+
+		int[] offsets = new int[window];
+		int count = 0;
+
+		for (int j = 0; j < window; j++) {
+			if (!composite[j]) {
+				offsets[count++] = j;
+			}
+		}
+
+		return Arrays.copyOf(offsets, count);
+	}
+
+	/**
+	 * Tests the candidates at offsets {@code [from, to)} of a window, concurrently if there is more
+	 * than one, and returns the least offset whose candidate is a probable prime, or -1.
+	 */
+	private static int first(int[] start, int[] offsets, int from, int to, int certainty) {
+		if (to - from == 1) {
+			return isProbablePrime(LimbArithmetic.add(start, 2L * offsets[from]), certainty) ? offsets[from] : -1;
+		}
+
+		boolean[] prime = new boolean[to - from];
+
+		ForkJoinArithmetic.invoke(ForkJoinTask.adapt(() -> {
+			ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[to - from];
+
+			for (int i = from; i < to; i++) {
+				int index = i;
+				tasks[i - from] = ForkJoinTask.adapt(() -> {
+					prime[index - from] = isProbablePrime(LimbArithmetic.add(start, 2L * offsets[index]), certainty);
+				});
+			}
+
+			ForkJoinTask.invokeAll(tasks);
+		}));
+
+		for (int i = from; i < to; i++) {
+			if (prime[i - from]) {
+				return offsets[i];
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Arithmetic on the Montgomery representations of one odd modulus.
+	 */
+	private static final class Ring {
+
+		private final Montgomery montgomery;
+		private final int[] modulus;
+		private final int n;
+		private final int[] scratch;
+
+		Ring(Montgomery montgomery, int[] modulus) {
+			this.montgomery = montgomery;
+			this.modulus = modulus;
+			this.n = modulus.length;
+			this.scratch = montgomery.newScratch();
+		}
+
+		/**
+		 * Represents a small integer of either sign.
+		 */
+		int[] small(int x) {
+			int[] r = montgomery.toMontgomery(new int[] { Math.abs(x) });
+			return x < 0 && !isZero(r) ? LimbArithmetic.subtract(modulus, r) : r;
+		}
+
+		int[] multiply(int[] a, int[] b) {
+			int[] result = new int[n];
+			montgomery.multiply(a, b, result, scratch);
+			return result;
+		}
+
+		int[] add(int[] a, int[] b) {
+			int[] sum = new int[n];
+			int carry = LimbArithmetic.add(sum, a, n, b, n);
+
+			if (carry != 0 || LimbArithmetic.compare(sum, modulus, n) >= 0) {
+				LimbArithmetic.subtract(sum, sum, n, modulus, n);
+			}
+
+			return sum;
+		}
+
+		int[] subtract(int[] a, int[] b) {
+			int[] difference = new int[n];
+
+			if (LimbArithmetic.subtract(difference, a, n, b, n) != 0) {
+				LimbArithmetic.add(difference, difference, n, modulus, n);
+			}
+
+			return difference;
+		}
+
+		/**
+		 * Halves a representation: the modulus is odd, so {@code a} or {@code a + m} is even.
+		 */
+		int[] half(int[] a) {
+			int[] x = Arrays.copyOf(a, n + 1);
+
+			if ((a[0] & 1) == 1) {
+				x[n] = LimbArithmetic.add(x, x, n, modulus, n);
+			}
+
+			return Arrays.copyOf(LimbArithmetic.shiftRight(x, 1), n);
+		}
+
+		boolean isZero(int[] a) {
+			return LimbArithmetic.length(a) == 0;
+		}
+	}
+}
@@ -0,0 +1,309 @@
+package com.vijayiyer97.util;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.LongConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A segmented sieve of Eratosthenes over the odd integers up to a limit. Only odd numbers are
+ * stored, bit {@code i} standing for {@code 2i + 1}, packed 64 to a word like the rows of
+ * {@code BitMatrix}. The range is cut into segments of {@code SEGMENT_BITS} bits, sized so that a
+ * segment stays in the L2 cache while every base prime up to {@code sqrt(limit)} crosses it off, and
+ * the segments are sieved concurrently as fork-join tasks on the pool of {@code ForkJoinArithmetic}.
+ * Segments start on word boundaries, so no two tasks write the same word.
+ * <p>
+ * Once sieved, the set bits are exactly the odd primes. Instances are immutable and may be shared
+ * between threads.
+ *
+ * @author Vijay Iyer
+ *
+ */
+public final class PrimeSieve {
+
+	/**
+	 * Number of bits, or odd numbers, sieved by one task; a multiple of 64. The default of
+	 * {@code 2^21} bits takes 256 KiB. Read from the system property
+	 * {@code com.vijayiyer97.util.sieveSegmentBits} when set.
+	 */
+	static int SEGMENT_BITS = Integer.getInteger("com.vijayiyer97.util.sieveSegmentBits", 1 << 21);
+
+	private final long limit;
+
+	// the number of odd numbers up to the limit, and the words holding their bits.
+	private final long bits;
+	private final long[] words;
+
+	/// INITIALIZERS
+
+
+	/**
+	 * Initializes a {@code PrimeSieve} instance holding the primes up to a limit. Throws
+	 * {@code IllegalArgumentException} if the limit is negative, or too large for the bits of its odd
+	 * numbers to fit in an array.
+	 *
+	 * @param limit Largest integer covered by the sieve.
+	 */
+	public PrimeSieve(long limit) {
+		// the odd numbers up to the limit, counted without overflowing at Long.MAX_VALUE.
+		long bits = (limit >>> 1) + (limit & 1);
+
+		if (limit < 0 || bits > 64L * (Integer.MAX_VALUE - 8)) {
+			throw new IllegalArgumentException("limit out of range");
+		}
+
+		this.limit = limit;
+		this.bits = bits;
+		this.words = new long[(int) ((bits + 63) >>> 6)];
+
+		long root = (long) Math.sqrt((double) limit);
+
+		while (root * root > limit) {
+			root--;
+		}
+
+		while ((root + 1) * (root + 1) <= limit) {
+			root++;
+		}
+
+		// the base primes come from a sieve of their own, which is a single segment past small limits.
+		long[] base = root < 3 ? new long[0] : new PrimeSieve(root).longPrimes().skip(1).toArray();
+		int segment = Math.max(SEGMENT_BITS & -64, 64);
+		int segments = (int) ((bits + segment - 1) / segment);
+
+		if (segments > 1) {
+			ForkJoinArithmetic.invoke(new Segments(base, segment, 0, segments));
+		} else if (segments == 1) {
+			sieve(base, 0, bits);
+		}
+	}
+
+	/// GETTERS
+
+
+	/**
+	 * Getter method for the limit.
+	 *
+	 * @return Largest integer covered by the sieve.
+	 */
+	public long limit() {
+		return limit;
+	}
+
+	/**
+	 * Checks whether an integer is prime. Throws {@code IllegalArgumentException} if the integer lies
+	 * outside {@code [0, limit]}.
+	 *
+	 * @param n Integer.
+	 * @return {@code true} if {@code n} is prime.
+	 */
+	public boolean isPrime(long n) {
+		if (n < 0 || n > limit) {
+			throw new IllegalArgumentException("outside the sieve");
+		} else if ((n & 1) == 0) {
+			return n == 2;
+		}
+
+		long i = n >>> 1;
+		return (words[(int) (i >>> 6)] >>> i & 1) == 1;
+	}
+
+	/**
+	 * Counts the primes up to the limit, a word at a time.
+	 *
+	 * @return Number of primes in {@code [0, limit]}.
+	 */
+	public long count() {
+		long count = limit >= 2 ? 1 : 0;
+
+		for (long word : words) {
+			count += Long.bitCount(word);
+		}
+
+		return count;
+	}
+
+	/// ENUMERATION
+
+
+	/**
+	 * Enumerates the primes up to the limit in increasing order. The stream splits on word boundaries,
+	 * so it may be made parallel.
+	 *
+	 * @return A stream of the primes in {@code [0, limit]}.
+	 */
+	public LongStream longPrimes() {
+		LongStream odd = StreamSupport.longStream(new Primes(words, 0, words.length), false);
+		return limit >= 2 ? LongStream.concat(LongStream.of(2), odd) : odd;
+	}
+
+	/**
+	 * Enumerates the primes up to the limit, or up to {@code Integer.MAX_VALUE} if the limit is
+	 * larger, in increasing order.
+	 *
+	 * @return A stream of the primes in {@code [0, min(limit, Integer.MAX_VALUE)]}.
+	 */
+	public IntStream primes() {
+		return longPrimes().takeWhile(p -> p <= Integer.MAX_VALUE).mapToInt(p -> (int) p);
+	}
+
+	/**
+	 * Converts the sieve to a {@code BitSet} in which bit {@code i} is set if {@code 2i + 1} is prime.
+	 * Throws {@code IllegalStateException} if the sieve holds more than {@code Integer.MAX_VALUE}
+	 * bits.
+	 *
+	 * @return A new {@code BitSet} of the odd primes.
+	 */
+	public BitSet toBitSet() {
+		if (bits > Integer.MAX_VALUE) {
+			throw new IllegalStateException("sieve too large for a bit set");
+		}
+
+		return new BitSetLE(words, (int) bits);
+	}
+
+	/// HELPERS
+
+
+	/**
+	 * Sieves the bits {@code [from, to)}, where {@code from} is a multiple of 64, with the odd base
+	 * primes. Composites are marked first and the words inverted afterwards, so the set bits end up
+	 * being the primes.
+	 */
+	private void sieve(long[] base, long from, long to) {
+		for (long p : base) {
+			// the first odd multiple of p in the segment, and no smaller than p^2.
+			long low = 2 * from + 1;
+			long m = Math.max(p * p, (low + p - 1) / p * p);
+
+			if ((m & 1) == 0) {
+				m += p;
+			}
+
+			for (long i = m >>> 1; i < to; i += p) {
+				words[(int) (i >>> 6)] |= 1L << i;
+			}
+		}
+
+		int first = (int) (from >>> 6);
+		int last = (int) ((to + 63) >>> 6);
+
+		for (int w = first; w < last; w++) {
+			words[w] = ~words[w];
+		}
+
+		if ((to & 63) != 0) {
+			words[last - 1] &= (1L << to) - 1;
+		}
+
+		// 1 is not prime.
+		if (from == 0) {
+			words[0] &= ~1L;
+		}
+	}
+
+	/**
+	 * Sieves a range of segments, splitting it in half until a single segment is left.
+	 */
+	private final class Segments extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final long[] base;
+		private final int segment;
+		private final int from;
+		private final int to;
+
+		Segments(long[] base, int segment, int from, int to) {
+			this.base = base;
+			this.segment = segment;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from == 1) {
+				sieve(base, (long) from * segment, Math.min((long) to * segment, bits));
+				return;
+			}
+
+			int middle = (from + to) >>> 1;
+			invokeAll(new Segments(base, segment, from, middle), new Segments(base, segment, middle, to));
+		}
+	}
+
+	/**
+	 * Enumerates the odd primes of a range of words, lowest bit first.
+	 */
+	private static final class Primes implements Spliterator.OfLong {
+
+		private final long[] words;
+		private int word;
+		private int end;
+
+		// the bits of the current word which have not been enumerated yet.
+		private long remaining;
+
+		Primes(long[] words, int from, int to) {
+			this.words = words;
+			this.word = from;
+			this.end = to;
+			this.remaining = from < to ? words[from] : 0;
+		}
+
+		@Override
+		public boolean tryAdvance(LongConsumer action) {
+			while (remaining == 0) {
+				if (++word >= end) {
+					word = end;
+					return false;
+				}
+
+				remaining = words[word];
+			}
+
+			long i = 64L * word + Long.numberOfTrailingZeros(remaining);
+			remaining &= remaining - 1;
+			action.accept(2 * i + 1);
+
+			return true;
+		}
+
+		@Override
+		public Spliterator.OfLong trySplit() {
+			int middle = (word + 1 + end) >>> 1;
+
+			if (middle <= word + 1) {
+				return null;
+			}
+
+			// the prefix keeps what is left of the current word.
+			Primes prefix = new Primes(words, word, middle);
+			prefix.remaining = remaining;
+
+			word = middle;
+			remaining = words[middle];
+
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return 64L * (end - word);
+		}
+
+		@Override
+		public int characteristics() {
+			return ORDERED | DISTINCT | SORTED | NONNULL | IMMUTABLE;
+		}
+
+		@Override
+		public Comparator<? super Long> getComparator() {
+			return null;
+		}
+	}
+}
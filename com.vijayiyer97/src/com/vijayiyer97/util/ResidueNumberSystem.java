@@ -0,0 +1,367 @@
+package com.vijayiyer97.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntConsumer;
+
+/**
+ * A residue number system over the largest primes below {@code 2^31}, enough of them that their
+ * product {@code M} exceeds {@code 2^(capacity + 2)}. An integer is held as the vector of its
+ * residues modulo each prime, so addition, subtraction and multiplication act on each residue
+ * independently, with single-word arithmetic and no carries between them, and a chain of products
+ * never grows its operands. Only the conversion back, by Garner's mixed-radix form of the Chinese
+ * remainder theorem, costs time quadratic in the number of primes.
+ * <p>
+ * Work spread over at least {@code PARALLEL_WORK} word operations runs in pieces of whole primes on
+ * the pool of {@code ForkJoinArithmetic}. Instances are immutable and may be shared between
+ * threads; residue vectors are arrays of {@code length()} values read as unsigned.
+ *
+ * @author Vijay Iyer
+ *
+ */
+public final class ResidueNumberSystem {
+
+	/**
+	 * Number of word operations from which the primes of an operation are processed concurrently.
+	 */
+	static int PARALLEL_WORK = Integer.getInteger("com.vijayiyer97.util.rnsParallelWork",
+			LimbArithmetic.PARALLELISM > 1 ? 1 << 16 : Integer.MAX_VALUE);
+
+	private static final long LONG_MASK = LimbArithmetic.LONG_MASK;
+
+	private final long capacity;
+	private final int[] primes;
+	private final int[] modulus;
+
+	// inverses[i] is the inverse of primes[0] ... primes[i - 1] modulo primes[i].
+	private final int[] inverses;
+
+	/// INITIALIZERS
+
+
+	/**
+	 * Initializes a {@code ResidueNumberSystem} instance which represents every integer of magnitude
+	 * below {@code 2^capacity}. Throws {@code IllegalArgumentException} if the capacity is negative
+	 * or exceeds {@code Integer.MAX_VALUE}.
+	 *
+	 * @param capacity Capacity in bits.
+	 */
+	public ResidueNumberSystem(long capacity) {
+		if (capacity < 0 || capacity > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("capacity out of range");
+		}
+
+		this.capacity = capacity;
+
+		int[] primes = new int[(int) (capacity / 30) + 2];
+		int count = 0;
+
+		// every prime exceeds 2^30, so the array holds enough of them; the sum of logarithms keeps a
+		// bit of margin for rounding.
+		double bits = 0;
+
+		for (int p = Integer.MAX_VALUE; bits < capacity + 2; p -= 2) {
+			if (Primality.isBailliePswPrime(new int[] { p })) {
+				primes[count++] = p;
+				bits += Math.log(p) / Math.log(2);
+			}
+		}
+
+		int[] product = new int[count + 1];
+		product[0] = 1;
+
+		for (int i = 0; i < count; i++) {
+			product[i + 1] = LimbArithmetic.multiplyAdd(product, product, i + 1, primes[i], 0);
+		}
+
+		this.primes = Arrays.copyOf(primes, count);
+		this.modulus = LimbArithmetic.trim(product);
+		this.inverses = new int[count];
+
+		for (int i = 0; i < count; i++) {
+			long p = this.primes[i] & LONG_MASK;
+			long prefix = 1;
+
+			for (int j = 0; j < i; j++) {
+				prefix = prefix * this.primes[j] % p;
+			}
+
+			inverses[i] = (int) pow(prefix, p - 2, p);
+		}
+	}
+
+	/// GETTERS
+
+
+	/**
+	 * Getter method for the capacity.
+	 *
+	 * @return Bits of magnitude which every represented integer fits in.
+	 */
+	public long capacity() {
+		return capacity;
+	}
+
+	/**
+	 * Getter method for the number of primes, which is the length of every residue vector.
+	 *
+	 * @return Number of primes.
+	 */
+	public int length() {
+		return primes.length;
+	}
+
+	/**
+	 * Getter method for the primes, in decreasing order.
+	 *
+	 * @return A new array of primes.
+	 */
+	public int[] primes() {
+		return primes.clone();
+	}
+
+	/**
+	 * Getter method for the product of the primes.
+	 *
+	 * @return A new magnitude array.
+	 */
+	public int[] modulus() {
+		return modulus.clone();
+	}
+
+	/// CONVERSIONS
+
+
+	/**
+	 * Reduces a magnitude modulo every prime, with one remainder pass over the magnitude per prime.
+	 *
+	 * @param a Magnitude.
+	 * @return A new residue vector of {@code a}.
+	 */
+	public int[] residues(int[] a) {
+		int aLen = LimbArithmetic.length(a);
+		int[] result = new int[primes.length];
+
+		forEach((long) aLen * primes.length, i -> result[i] = LimbArithmetic.remainderByInt(a, aLen, primes[i]));
+		return result;
+	}
+
+	/**
+	 * Reconstructs the integer of a residue vector. The mixed-radix digits
+	 * {@code x = v[0] + v[1] p[0] + v[2] p[0] p[1] + ...} are found one prime at a time, each from the
+	 * digits before it, and then summed by Horner's rule.
+	 *
+	 * @param a Residue vector.
+	 * @return A new magnitude, the unique {@code x} in {@code [0, M)} with residues {@code a}.
+	 */
+	public int[] reconstruct(int[] a) {
+		int k = primes.length;
+		long[] digits = new long[k];
+
+		for (int i = 0; i < k; i++) {
+			long p = primes[i] & LONG_MASK;
+			long partial = 0;
+
+			for (int j = i - 1; j >= 0; j--) {
+				partial = (partial * primes[j] + digits[j]) % p;
+			}
+
+			digits[i] = ((a[i] & LONG_MASK) - partial + p) % p * (inverses[i] & LONG_MASK) % p;
+		}
+
+		int[] result = new int[k + 1];
+		int len = 0;
+
+		for (int i = k - 1; i >= 0; i--) {
+			result[len] = LimbArithmetic.multiplyAdd(result, result, len, primes[i], (int) digits[i]);
+			len = LimbArithmetic.length(result);
+		}
+
+		return LimbArithmetic.trim(result);
+	}
+
+	/// ARITHMETIC
+
+
+	/**
+	 * Adds two residue vectors.
+	 *
+	 * @param a Residue vector.
+	 * @param b Residue vector.
+	 * @return A new residue vector of {@code a + b}.
+	 */
+	public int[] add(int[] a, int[] b) {
+		int[] result = new int[primes.length];
+
+		forEach(primes.length, i -> {
+			long p = primes[i] & LONG_MASK;
+			long sum = (a[i] & LONG_MASK) + (b[i] & LONG_MASK);
+			result[i] = (int) (sum >= p ? sum - p : sum);
+		});
+
+		return result;
+	}
+
+	/**
+	 * Subtracts one residue vector from another.
+	 *
+	 * @param a Residue vector.
+	 * @param b Residue vector.
+	 * @return A new residue vector of {@code a - b}.
+	 */
+	public int[] subtract(int[] a, int[] b) {
+		int[] result = new int[primes.length];
+
+		forEach(primes.length, i -> {
+			long difference = (a[i] & LONG_MASK) - (b[i] & LONG_MASK);
+			result[i] = (int) (difference < 0 ? difference + (primes[i] & LONG_MASK) : difference);
+		});
+
+		return result;
+	}
+
+	/**
+	 * Negates a residue vector.
+	 *
+	 * @param a Residue vector.
+	 * @return A new residue vector of {@code -a}.
+	 */
+	public int[] negate(int[] a) {
+		return subtract(new int[primes.length], a);
+	}
+
+	/**
+	 * Multiplies two residue vectors.
+	 *
+	 * @param a Residue vector.
+	 * @param b Residue vector.
+	 * @return A new residue vector of {@code a * b}.
+	 */
+	public int[] multiply(int[] a, int[] b) {
+		int[] result = new int[primes.length];
+
+		forEach(primes.length, i -> result[i] = (int) ((a[i] & LONG_MASK) * (b[i] & LONG_MASK) % (primes[i] & LONG_MASK)));
+		return result;
+	}
+
+	/**
+	 * Computes the determinant of a square matrix of residue vectors. Each prime takes its own
+	 * Gaussian elimination over its field, so the entries never grow, and the eliminations run
+	 * concurrently.
+	 *
+	 * @param matrix Square matrix of residue vectors, which is not modified.
+	 * @return A new residue vector of the determinant.
+	 */
+	public int[] determinant(int[][][] matrix) {
+		int n = matrix.length;
+		int[] result = new int[primes.length];
+
+		forEach((long) n * n * n * primes.length, k -> {
+			long p = primes[k] & LONG_MASK;
+			long[][] rows = new long[n][n];
+
+			for (int i = 0; i < n; i++) {
+				for (int j = 0; j < n; j++) {
+					rows[i][j] = matrix[i][j][k] & LONG_MASK;
+				}
+			}
+
+			long det = 1;
+
+			for (int c = 0; c < n && det != 0; c++) {
+				int pivot = c;
+
+				while (pivot < n && rows[pivot][c] == 0) {
+					pivot++;
+				}
+
+				if (pivot == n) {
+					det = 0;
+					break;
+				} else if (pivot != c) {
+					long[] temp = rows[pivot];
+					rows[pivot] = rows[c];
+					rows[c] = temp;
+					det = p - det;
+				}
+
+				det = det * rows[c][c] % p;
+				long inverse = pow(rows[c][c], p - 2, p);
+
+				for (int r = c + 1; r < n; r++) {
+					long factor = rows[r][c] * inverse % p;
+
+					if (factor == 0) {
+						continue;
+					}
+
+					for (int j = c; j < n; j++) {
+						rows[r][j] = (rows[r][j] + (p - factor) * rows[c][j]) % p;
+					}
+				}
+			}
+
+			result[k] = (int) det;
+		});
+
+		return result;
+	}
+
+	/// HELPERS
+
+
+	/**
+	 * Runs a body for every prime index, in pieces of whole primes on the pool if the total work
+	 * reaches {@code PARALLEL_WORK}.
+	 */
+	private void forEach(long work, IntConsumer body) {
+		int k = primes.length;
+		// a few pieces per worker, so that the workers stay busy when pieces finish unevenly.
+		int pieces = Math.min(4 * Math.max(LimbArithmetic.PARALLELISM, 1), k);
+
+		if (work < PARALLEL_WORK || pieces < 2) {
+			for (int i = 0; i < k; i++) {
+				body.accept(i);
+			}
+
+			return;
+		}
+
+		ForkJoinArithmetic.invoke(ForkJoinTask.adapt(() -> {
+			List<ForkJoinTask<?>> tasks = new ArrayList<>();
+
+			for (int piece = 0; piece < pieces; piece++) {
+				int from = (int) ((long) k * piece / pieces);
+				int to = (int) ((long) k * (piece + 1) / pieces);
+
+				tasks.add(ForkJoinTask.adapt(() -> {
+					for (int i = from; i < to; i++) {
+						body.accept(i);
+					}
+				}));
+			}
+
+			ForkJoinTask.invokeAll(tasks);
+		}));
+	}
+
+	/**
+	 * Computes {@code base^exponent mod p} for a word-sized prime.
+	 */
+	private static long pow(long base, long exponent, long p) {
+		long result = 1;
+		base %= p;
+
+		for (; exponent > 0; exponent >>>= 1) {
+			if ((exponent & 1) == 1) {
+				result = result * base % p;
+			}
+
+			base = base * base % p;
+		}
+
+		return result;
+	}
+}
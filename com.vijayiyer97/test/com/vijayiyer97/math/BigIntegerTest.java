@@ -1,5 +1,212 @@
 package com.vijayiyer97.math;
 
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
 public class BigIntegerTest {
 
+	Random random = new Random();
+
+	static java.math.BigInteger toBig(BigInteger val) {
+		return MutableBigIntegerTest.toBig(val.signum(), val.magnitude());
+	}
+
+	static BigInteger fromBig(java.math.BigInteger val) {
+		int[] mag = new int[(val.abs().bitLength() + 31) / 32];
+
+		for (int i = 0; i < mag.length; i++) {
+			mag[i] = val.abs().shiftRight(32 * i).intValue();
+		}
+
+		return new BigInteger(val.signum(), mag);
+	}
+
+	BigInteger randomBigInteger(int maxBits, boolean signed) {
+		java.math.BigInteger val = new java.math.BigInteger(random.nextInt(maxBits + 1), random);
+		return fromBig(signed && random.nextBoolean() ? val.negate() : val);
+	}
+
+	@RepeatedTest(500)
+	void testModPow() {
+		BigInteger base = randomBigInteger(1024, true);
+		BigInteger exponent = randomBigInteger(256, false);
+		BigInteger modulus = randomBigInteger(1024, false);
+
+		if (modulus.signum() == 0) {
+			assertThrows(ArithmeticException.class, () -> base.modPow(exponent, modulus));
+			return;
+		}
+
+		java.math.BigInteger expected = toBig(base).modPow(toBig(exponent), toBig(modulus));
+
+		assertEquals(expected, toBig(base.modPow(exponent, modulus)));
+	}
+
+	@Test
+	void testModPowRSA() {
+		java.math.BigInteger p = java.math.BigInteger.probablePrime(1024, random);
+		java.math.BigInteger q = java.math.BigInteger.probablePrime(1024, random);
+		java.math.BigInteger n = p.multiply(q);
+		java.math.BigInteger e = java.math.BigInteger.valueOf(65537);
+		java.math.BigInteger d = e.modInverse(p.subtract(java.math.BigInteger.ONE).multiply(q.subtract(java.math.BigInteger.ONE)));
+		java.math.BigInteger message = new java.math.BigInteger(2000, random);
+
+		BigInteger modulus = fromBig(n);
+		BigInteger signature = fromBig(message.modPow(d, n));
+
+		assertEquals(message, toBig(signature.modPow(fromBig(e), modulus)));
+		assertEquals(message.modPow(d, n).modPow(e.negate(), n), toBig(signature.modPow(fromBig(e.negate()), modulus)));
+	}
+
+	@RepeatedTest(500)
+	void testGcd() {
+		java.math.BigInteger x = new java.math.BigInteger(random.nextInt(2000), random);
+		java.math.BigInteger y = new java.math.BigInteger(random.nextInt(2000), random);
+		java.math.BigInteger common = new java.math.BigInteger(random.nextInt(500), random);
+
+		if (random.nextBoolean()) {
+			x = x.multiply(common);
+			y = y.multiply(common);
+		}
+
+		x = random.nextBoolean() ? x.negate() : x;
+		y = random.nextBoolean() ? y.negate() : y;
+
+		BigInteger a = fromBig(x);
+		BigInteger b = fromBig(y);
+		BigInteger[] gxy = a.extendedGcd(b);
+		java.math.BigInteger g = x.gcd(y);
+
+		assertEquals(g, toBig(a.gcd(b)), "gcd");
+		assertEquals(g, toBig(gxy[0]), "extended gcd");
+		assertEquals(g, x.multiply(toBig(gxy[1])).add(y.multiply(toBig(gxy[2]))), "bezout");
+	}
+
+	@RepeatedTest(500)
+	void testModInverse() {
+		java.math.BigInteger x = new java.math.BigInteger(random.nextInt(1500), random);
+		java.math.BigInteger m = new java.math.BigInteger(random.nextInt(1000) + 1, random).add(java.math.BigInteger.ONE);
+		java.math.BigInteger signed = random.nextBoolean() ? x.negate() : x;
+		BigInteger a = fromBig(signed);
+
+		if (x.gcd(m).equals(java.math.BigInteger.ONE)) {
+			assertEquals(signed.modInverse(m), toBig(a.modInverse(fromBig(m))));
+			assertEquals(signed.modPow(java.math.BigInteger.valueOf(-3), m), toBig(a.modPow(fromBig(java.math.BigInteger.valueOf(-3)), fromBig(m))));
+		} else {
+			assertThrows(ArithmeticException.class, () -> a.modInverse(fromBig(m)));
+		}
+	}
+
+	@RepeatedTest(300)
+	void testRoots() {
+		java.math.BigInteger x = new java.math.BigInteger(random.nextInt(12000), random);
+		int k = 1 + random.nextInt(12);
+		BigInteger a = fromBig(x);
+		BigInteger[] sr = a.sqrtAndRemainder();
+		java.math.BigInteger root = toBig(a.nthRoot(k));
+
+		assertAll(
+				() -> assertEquals(x.sqrt(), toBig(a.sqrt()), "sqrt"),
+				() -> assertEquals(x.sqrt(), toBig(sr[0]), "root"),
+				() -> assertEquals(x.subtract(x.sqrt().pow(2)), toBig(sr[1]), "remainder"),
+				() -> assertTrue(root.pow(k).compareTo(x) <= 0 && root.add(java.math.BigInteger.ONE).pow(k).compareTo(x) > 0, "nth root")
+				);
+
+		if (x.signum() > 0) {
+			BigInteger negative = fromBig(x.negate());
+
+			assertThrows(ArithmeticException.class, () -> negative.sqrt());
+			assertEquals(toBig(fromBig(x).nthRoot(3)).negate(), toBig(negative.nthRoot(3)), "odd root");
+		}
+	}
+
+	@RepeatedTest(500)
+	void testDecimal() {
+		java.math.BigInteger x = new java.math.BigInteger(random.nextInt(3000), random);
+		java.math.BigInteger signed = random.nextBoolean() ? x.negate() : x;
+		String padded = (signed.signum() < 0 ? "-" : "") + "0".repeat(random.nextInt(3)) + x;
+
+		assertAll(
+				() -> assertEquals(signed.toString(), fromBig(signed).toString(), "format"),
+				() -> assertEquals(signed, toBig(new BigInteger(signed.toString())), "parse"),
+				() -> assertEquals(signed, toBig(new BigInteger(padded)), "leading zeros")
+				);
+		assertThrows(NumberFormatException.class, () -> new BigInteger("-"));
+		assertThrows(NumberFormatException.class, () -> new BigInteger("12a"));
+	}
+
+	@RepeatedTest(500)
+	void testScalarArithmetic() {
+		java.math.BigInteger x = new java.math.BigInteger(random.nextInt(1000), random);
+		java.math.BigInteger signed = random.nextBoolean() ? x.negate() : x;
+		BigInteger a = fromBig(signed);
+		long l = random.nextLong();
+		int m = random.nextInt() | 1;
+
+		assertAll(
+				() -> assertEquals(signed.add(java.math.BigInteger.valueOf(l)), toBig(a.add(l)), "add"),
+				() -> assertEquals(signed.multiply(java.math.BigInteger.valueOf(l)), toBig(a.multiply(l)), "multiply"),
+				() -> assertEquals(signed.multiply(java.math.BigInteger.valueOf(m)).add(java.math.BigInteger.TEN), toBig(a.multiplyAdd(m, 10)), "multiply-add"),
+				() -> assertEquals(signed.divide(java.math.BigInteger.valueOf(m)), toBig(a.divide(m)), "divide"),
+				() -> assertEquals(signed.remainder(java.math.BigInteger.valueOf(m)).intValue(), a.remainder(m), "remainder")
+				);
+	}
+
+	@RepeatedTest(500)
+	void testPow() {
+		java.math.BigInteger x = new java.math.BigInteger(random.nextInt(300), random).shiftLeft(random.nextInt(40));
+		java.math.BigInteger signed = random.nextBoolean() ? x.negate() : x;
+		int exponent = random.nextInt(100);
+
+		assertEquals(signed.pow(exponent), toBig(fromBig(signed).pow(exponent)));
+	}
+
+	@RepeatedTest(300)
+	void testPrimality() {
+		java.math.BigInteger x = new java.math.BigInteger(1 + random.nextInt(600), random);
+		java.math.BigInteger prime = java.math.BigInteger.probablePrime(2 + random.nextInt(600), random);
+		java.math.BigInteger composite = prime.multiply(java.math.BigInteger.probablePrime(2 + random.nextInt(300), random));
+		BigInteger a = fromBig(x);
+
+		assertAll(
+				() -> assertEquals(x.isProbablePrime(100), a.isProbablePrime(100), "probable prime"),
+				() -> assertEquals(x.isProbablePrime(100), a.isBailliePswPrime(), "baillie-psw"),
+				() -> assertEquals(x.isProbablePrime(100), fromBig(x.negate()).isProbablePrime(100), "negative"),
+				() -> assertEquals(x.nextProbablePrime(), toBig(a.nextProbablePrime()), "next"),
+				() -> assertTrue(fromBig(prime).isProbablePrime(100), "prime"),
+				() -> assertTrue(fromBig(prime).isBailliePswPrime(), "baillie-psw prime"),
+				() -> assertFalse(fromBig(composite).isProbablePrime(100), "composite")
+				);
+	}
+
+	@Test
+	void testPseudoprimes() {
+		// Carmichael numbers, strong pseudoprimes to small bases, strong Lucas pseudoprimes and squares
+		// of primes.
+		long[] composites = { 1, 561, 2047, 5459, 5777, 10877, 41041, 3215031751L, 2152302898747L, 3474749660383L,
+				341550071728321L, 3825123056546413051L, 65537L * 65537, 3037000493L * 3037000493L };
+
+		for (long c : composites) {
+			BigInteger a = fromBig(java.math.BigInteger.valueOf(c));
+
+			assertAll(
+					() -> assertFalse(a.isProbablePrime(100), "probable prime " + c),
+					() -> assertFalse(a.isBailliePswPrime(), "baillie-psw " + c)
+					);
+		}
+
+		java.math.BigInteger mersenne = java.math.BigInteger.ONE.shiftLeft(521).subtract(java.math.BigInteger.ONE);
+
+		assertAll(
+				() -> assertTrue(fromBig(mersenne).isProbablePrime(100), "mersenne"),
+				() -> assertFalse(fromBig(mersenne.add(java.math.BigInteger.TWO)).isBailliePswPrime(), "mersenne + 2"),
+				() -> assertEquals(2, toBig(new BigInteger().nextProbablePrime()).intValue(), "zero"),
+				() -> assertThrows(ArithmeticException.class, () -> fromBig(java.math.BigInteger.TEN.negate()).nextProbablePrime())
+				);
+	}
+
 }
@@ -0,0 +1,62 @@
+package com.vijayiyer97.math;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+class CombinatoricsTest {
+
+	Random random = new Random();
+
+	static java.math.BigInteger factorial(int n) {
+		java.math.BigInteger f = java.math.BigInteger.ONE;
+
+		for (int i = 2; i <= n; i++) {
+			f = f.multiply(java.math.BigInteger.valueOf(i));
+		}
+
+		return f;
+	}
+
+	@RepeatedTest(200)
+	void testFactorial() {
+		int n = random.nextInt(random.nextBoolean() ? 64 : 3000);
+
+		assertEquals(factorial(n), BigIntegerTest.toBig(Combinatorics.factorial(n)), "n = " + n);
+	}
+
+	@RepeatedTest(200)
+	void testBinomial() {
+		int n = random.nextInt(random.nextBoolean() ? 64 : 3000);
+		int k = random.nextInt(n + 3) - 1;
+		java.math.BigInteger expected = k < 0 || k > n ? java.math.BigInteger.ZERO
+				: factorial(n).divide(factorial(k).multiply(factorial(n - k)));
+
+		assertEquals(expected, BigIntegerTest.toBig(Combinatorics.binomial(n, k)), "n = " + n + ", k = " + k);
+	}
+
+	@RepeatedTest(100)
+	void testPrimorial() {
+		int n = random.nextInt(random.nextBoolean() ? 64 : 5000);
+		java.math.BigInteger expected = java.math.BigInteger.ONE;
+
+		for (int p = 2; p <= n; p++) {
+			if (java.math.BigInteger.valueOf(p).isProbablePrime(50)) {
+				expected = expected.multiply(java.math.BigInteger.valueOf(p));
+			}
+		}
+
+		assertEquals(expected, BigIntegerTest.toBig(Combinatorics.primorial(n)), "n = " + n);
+	}
+
+	@Test
+	void testNegative() {
+		assertThrows(ArithmeticException.class, () -> Combinatorics.factorial(-1));
+		assertThrows(ArithmeticException.class, () -> Combinatorics.binomial(-1, 0));
+		assertThrows(ArithmeticException.class, () -> Combinatorics.primorial(-1));
+	}
+
+}
@@ -0,0 +1,40 @@
+package com.vijayiyer97.math;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.RepeatedTest;
+
+class FixedBasePowTest {
+
+	Random random = new Random();
+
+	@RepeatedTest(200)
+	void testPow() {
+		java.math.BigInteger base = new java.math.BigInteger(random.nextInt(100), random).shiftLeft(random.nextInt(3) == 0 ? random.nextInt(40) : 0);
+		java.math.BigInteger signed = random.nextBoolean() ? base.negate() : base;
+		int maxExponent = random.nextInt(random.nextBoolean() ? 16 : 1000);
+		FixedBasePow pow = new FixedBasePow(BigIntegerTest.fromBig(signed), maxExponent);
+
+		for (int i = 0; i < 10; i++) {
+			int exponent = random.nextInt(maxExponent + 10);
+			assertEquals(signed.pow(exponent), BigIntegerTest.toBig(pow.pow(exponent)), "exponent " + exponent);
+		}
+
+		assertThrows(ArithmeticException.class, () -> pow.pow(-1));
+	}
+
+	@RepeatedTest(10)
+	void testSmallBases() {
+		int[] bases = { 2, 3, 10, 255, 65535 };
+		java.math.BigInteger base = java.math.BigInteger.valueOf(bases[random.nextInt(bases.length)]);
+		FixedBasePow pow = new FixedBasePow(BigIntegerTest.fromBig(base), Integer.MAX_VALUE >>> 16);
+
+		for (int i = 0; i < 10; i++) {
+			int exponent = random.nextInt(Integer.MAX_VALUE >>> 16);
+			assertEquals(base.pow(exponent), BigIntegerTest.toBig(pow.pow(exponent)), "exponent " + exponent);
+		}
+	}
+
+}
@@ -0,0 +1,102 @@
+package com.vijayiyer97.math;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.RepeatedTest;
+
+class ModContextTest {
+
+	static final int steps = 50;
+
+	Random random = new Random();
+
+	java.math.BigInteger randomBig(int maxBits) {
+		java.math.BigInteger val = new java.math.BigInteger(random.nextInt(maxBits + 1), random);
+		return random.nextBoolean() ? val.negate() : val;
+	}
+
+	@RepeatedTest(300)
+	void testOperations() {
+		java.math.BigInteger m = new java.math.BigInteger(random.nextInt(600) + 1, random).add(java.math.BigInteger.ONE);
+
+		if (random.nextBoolean()) {
+			m = m.shiftLeft(random.nextInt(70));
+		}
+
+		ModContext context = new ModContext(BigIntegerTest.fromBig(m));
+		java.math.BigInteger x = randomBig(1200);
+		ModContext.Residue acc = context.residue(BigIntegerTest.fromBig(x));
+		java.math.BigInteger expected = x.mod(m);
+
+		for (int i = 0; i < steps; i++) {
+			java.math.BigInteger y = randomBig(1200);
+			ModContext.Residue r = context.residue(BigIntegerTest.fromBig(y));
+
+			switch (random.nextInt(4)) {
+			case 0:
+				acc = context.addMod(acc, r);
+				expected = expected.add(y).mod(m);
+				break;
+			case 1:
+				acc = context.subtractMod(acc, r);
+				expected = expected.subtract(y).mod(m);
+				break;
+			case 2:
+				acc = context.mulMod(acc, r);
+				expected = expected.multiply(y).mod(m);
+				break;
+			default:
+				java.math.BigInteger e = randomBig(100);
+
+				if (e.signum() < 0 && !expected.gcd(m).equals(java.math.BigInteger.ONE)) {
+					final ModContext.Residue base = acc;
+					final BigInteger exponent = BigIntegerTest.fromBig(e);
+					assertThrows(ArithmeticException.class, () -> context.powMod(base, exponent));
+					e = e.negate();
+				}
+
+				acc = context.powMod(acc, BigIntegerTest.fromBig(e));
+				expected = expected.modPow(e, m);
+			}
+
+			assertEquals(expected, BigIntegerTest.toBig(acc.toBigInteger()));
+		}
+	}
+
+	@RepeatedTest(300)
+	void testBigIntegerOperations() {
+		java.math.BigInteger m = new java.math.BigInteger(random.nextInt(300) + 1, random).add(java.math.BigInteger.ONE);
+		ModContext context = new ModContext(BigIntegerTest.fromBig(m));
+
+		java.math.BigInteger x = randomBig(600);
+		java.math.BigInteger y = randomBig(600);
+		BigInteger a = BigIntegerTest.fromBig(x);
+		BigInteger b = BigIntegerTest.fromBig(y);
+
+		assertAll(
+				() -> assertEquals(x.add(y).mod(m), BigIntegerTest.toBig(context.addMod(a, b)), "add"),
+				() -> assertEquals(x.subtract(y).mod(m), BigIntegerTest.toBig(context.subtractMod(a, b)), "subtract"),
+				() -> assertEquals(x.multiply(y).mod(m), BigIntegerTest.toBig(context.mulMod(a, b)), "multiply"),
+				() -> assertEquals(x.modPow(y.abs(), m), BigIntegerTest.toBig(context.powMod(a, BigIntegerTest.fromBig(y.abs()))), "pow")
+				);
+
+		if (x.gcd(m).equals(java.math.BigInteger.ONE)) {
+			assertEquals(x.modInverse(m), BigIntegerTest.toBig(context.inverse(a)), "inverse");
+		} else {
+			assertThrows(ArithmeticException.class, () -> context.inverse(a));
+		}
+	}
+
+	@RepeatedTest(10)
+	void testForeignResidue() {
+		ModContext first = new ModContext(BigIntegerTest.fromBig(java.math.BigInteger.valueOf(101)));
+		ModContext second = new ModContext(BigIntegerTest.fromBig(java.math.BigInteger.valueOf(101)));
+		ModContext.Residue r = second.residue(BigIntegerTest.fromBig(java.math.BigInteger.TEN));
+
+		assertThrows(IllegalArgumentException.class, () -> first.mulMod(r, r));
+		assertThrows(ArithmeticException.class, () -> new ModContext(new BigInteger(0, new int[0])));
+	}
+
+}
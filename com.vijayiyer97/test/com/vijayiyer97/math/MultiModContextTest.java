@@ -0,0 +1,162 @@
+package com.vijayiyer97.math;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+class MultiModContextTest {
+
+	static final int steps = 30;
+
+	Random random = new Random();
+
+	java.math.BigInteger randomBig(int maxBits) {
+		java.math.BigInteger val = new java.math.BigInteger(random.nextInt(maxBits + 1), random);
+		return random.nextBoolean() ? val.negate() : val;
+	}
+
+	/**
+	 * Fraction-free Gaussian elimination, which divides exactly at every step.
+	 */
+	static java.math.BigInteger bareiss(java.math.BigInteger[][] matrix) {
+		int n = matrix.length;
+		java.math.BigInteger[][] a = new java.math.BigInteger[n][];
+		java.math.BigInteger previous = java.math.BigInteger.ONE;
+		int sign = 1;
+
+		for (int i = 0; i < n; i++) {
+			a[i] = matrix[i].clone();
+		}
+
+		for (int k = 0; k < n - 1; k++) {
+			int pivot = k;
+
+			while (pivot < n && a[pivot][k].signum() == 0) {
+				pivot++;
+			}
+
+			if (pivot == n) {
+				return java.math.BigInteger.ZERO;
+			} else if (pivot != k) {
+				java.math.BigInteger[] temp = a[pivot];
+				a[pivot] = a[k];
+				a[k] = temp;
+				sign = -sign;
+			}
+
+			for (int i = k + 1; i < n; i++) {
+				for (int j = k + 1; j < n; j++) {
+					a[i][j] = a[i][j].multiply(a[k][k]).subtract(a[i][k].multiply(a[k][j])).divide(previous);
+				}
+			}
+
+			previous = a[k][k];
+		}
+
+		return n == 0 ? java.math.BigInteger.ONE : sign < 0 ? a[n - 1][n - 1].negate() : a[n - 1][n - 1];
+	}
+
+	@RepeatedTest(200)
+	void testOperations() {
+		MultiModContext context = new MultiModContext(random.nextInt(3000) + 600);
+		java.math.BigInteger x = randomBig(20);
+		MultiModContext.Residues acc = context.residues(BigIntegerTest.fromBig(x));
+		java.math.BigInteger expected = x;
+
+		for (int i = 0; i < steps; i++) {
+			java.math.BigInteger y = randomBig(20);
+			MultiModContext.Residues r = context.residues(BigIntegerTest.fromBig(y));
+
+			switch (random.nextInt(4)) {
+			case 0:
+				acc = context.add(acc, r);
+				expected = expected.add(y);
+				break;
+			case 1:
+				acc = context.subtract(acc, r);
+				expected = expected.subtract(y);
+				break;
+			case 2:
+				acc = context.negate(acc);
+				expected = expected.negate();
+				break;
+			default:
+				acc = context.multiply(acc, r);
+				expected = expected.multiply(y);
+			}
+		}
+
+		assertEquals(expected, BigIntegerTest.toBig(acc.toBigInteger()));
+		assertEquals(expected, BigIntegerTest.toBig(context.value(acc)), "cached");
+	}
+
+	@RepeatedTest(100)
+	void testDeterminant() {
+		int n = random.nextInt(12);
+		int bits = 1 + random.nextInt(100);
+		java.math.BigInteger[][] matrix = new java.math.BigInteger[n][n];
+		BigInteger[][] values = new BigInteger[n][n];
+
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				matrix[i][j] = random.nextInt(4) == 0 ? java.math.BigInteger.ZERO : randomBig(bits);
+				values[i][j] = BigIntegerTest.fromBig(matrix[i][j]);
+			}
+		}
+
+		// Hadamard's bound: each row has norm below 2^(bits + log2(n) / 2).
+		MultiModContext context = new MultiModContext(n * (bits + 4) + 1);
+
+		assertEquals(bareiss(matrix), BigIntegerTest.toBig(context.determinant(values)));
+	}
+
+	@RepeatedTest(100)
+	void testPolynomial() {
+		java.math.BigInteger[] a = new java.math.BigInteger[random.nextInt(20)];
+		java.math.BigInteger[] b = new java.math.BigInteger[random.nextInt(20)];
+		BigInteger[] x = new BigInteger[a.length];
+		BigInteger[] y = new BigInteger[b.length];
+
+		for (int i = 0; i < a.length; i++) {
+			a[i] = randomBig(200);
+			x[i] = BigIntegerTest.fromBig(a[i]);
+		}
+
+		for (int j = 0; j < b.length; j++) {
+			b[j] = randomBig(200);
+			y[j] = BigIntegerTest.fromBig(b[j]);
+		}
+
+		BigInteger[] product = new MultiModContext(406).multiply(x, y);
+		assertEquals(a.length == 0 || b.length == 0 ? 0 : a.length + b.length - 1, product.length);
+
+		for (int k = 0; k < product.length; k++) {
+			java.math.BigInteger expected = java.math.BigInteger.ZERO;
+
+			for (int i = Math.max(0, k - b.length + 1); i <= Math.min(k, a.length - 1); i++) {
+				expected = expected.add(a[i].multiply(b[k - i]));
+			}
+
+			assertEquals(expected, BigIntegerTest.toBig(product[k]), "coefficient " + k);
+		}
+	}
+
+	@Test
+	void testErrors() {
+		MultiModContext first = new MultiModContext(64);
+		MultiModContext second = new MultiModContext(64);
+		MultiModContext.Residues r = second.residues(BigIntegerTest.fromBig(java.math.BigInteger.TEN));
+		BigInteger big = BigIntegerTest.fromBig(java.math.BigInteger.ONE.shiftLeft(64));
+
+		assertAll(
+				() -> assertThrows(IllegalArgumentException.class, () -> first.multiply(r, r)),
+				() -> assertThrows(ArithmeticException.class, () -> first.residues(big)),
+				() -> assertThrows(IllegalArgumentException.class, () -> first.determinant(new BigInteger[][] { { r.toBigInteger(), r.toBigInteger() } })),
+				() -> assertThrows(IllegalArgumentException.class, () -> new MultiModContext(-1))
+				);
+	}
+
+}
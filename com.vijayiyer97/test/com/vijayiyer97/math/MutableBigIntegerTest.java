@@ -0,0 +1,122 @@
+package com.vijayiyer97.math;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+class MutableBigIntegerTest {
+
+	static final int steps = 200;
+
+	Random random = new Random();
+
+	static java.math.BigInteger toBig(int signum, int[] mag) {
+		java.math.BigInteger result = java.math.BigInteger.ZERO;
+
+		for (int i = mag.length - 1; i >= 0; i--) {
+			result = result.shiftLeft(32).or(java.math.BigInteger.valueOf(mag[i] & 0xFFFFFFFFL));
+		}
+
+		return signum < 0 ? result.negate() : result;
+	}
+
+	static java.math.BigInteger toBig(MutableBigInteger val) {
+		return toBig(val.signum(), val.magnitude());
+	}
+
+	@RepeatedTest(200)
+	void testOperations() {
+		MutableBigInteger acc = new MutableBigInteger(random.nextLong());
+		java.math.BigInteger expected = toBig(acc);
+
+		for (int i = 0; i < steps; i++) {
+			int op = random.nextInt(6);
+			long x = random.nextInt(4) == 0 ? random.nextInt(3) - 1 : random.nextLong();
+			int m = random.nextInt(3) == 0 ? random.nextInt(5) - 2 : random.nextInt();
+			int c = random.nextInt();
+
+			switch (op) {
+			case 0:
+				acc.addTo(x);
+				expected = expected.add(java.math.BigInteger.valueOf(x));
+				break;
+			case 1:
+				acc.subtractFrom(x);
+				expected = expected.subtract(java.math.BigInteger.valueOf(x));
+				break;
+			case 2:
+				acc.multiplyAdd(m, c);
+				expected = expected.multiply(java.math.BigInteger.valueOf(m)).add(java.math.BigInteger.valueOf(c));
+				break;
+			case 3:
+				int n = random.nextInt(200) - 100;
+				acc.shiftInPlace(n);
+				java.math.BigInteger shifted = expected.abs();
+				shifted = n >= 0 ? shifted.shiftLeft(n) : shifted.shiftRight(-n);
+				expected = expected.signum() < 0 ? shifted.negate() : shifted;
+				break;
+			case 4:
+				if (m == 0) {
+					final int divisor = m;
+					assertThrows(ArithmeticException.class, () -> acc.divideByInt(divisor));
+				} else {
+					java.math.BigInteger[] qr = expected.divideAndRemainder(java.math.BigInteger.valueOf(m));
+					assertEquals(qr[1].intValue(), acc.divideByInt(m), "remainder");
+					expected = qr[0];
+				}
+				break;
+			default:
+				MutableBigInteger other = new MutableBigInteger(x);
+				other.multiplyAdd(m, c);
+				java.math.BigInteger y = java.math.BigInteger.valueOf(x).multiply(java.math.BigInteger.valueOf(m))
+						.add(java.math.BigInteger.valueOf(c));
+
+				if (random.nextBoolean()) {
+					acc.addTo(other);
+					expected = expected.add(y);
+				} else {
+					acc.subtractFrom(other);
+					expected = expected.subtract(y);
+				}
+			}
+
+			assertEquals(expected, toBig(acc), "operation " + op);
+			assertEquals(expected.signum(), acc.signum(), "signum");
+		}
+	}
+
+	@Test
+	void testMultiplyAddSigns() {
+		long[] starts = { 1, -1, 5, -5, 0xFFFFFFFFL, -0x100000000L };
+		int[] values = { 0, 1, -1, 5, -5, Integer.MAX_VALUE, Integer.MIN_VALUE };
+
+		for (long start : starts) {
+			for (int m : values) {
+				for (int c : values) {
+					MutableBigInteger acc = new MutableBigInteger(start);
+					acc.multiplyAdd(m, c);
+
+					java.math.BigInteger expected = java.math.BigInteger.valueOf(start).multiply(java.math.BigInteger.valueOf(m))
+							.add(java.math.BigInteger.valueOf(c));
+					assertEquals(expected, toBig(acc), start + " * " + m + " + " + c);
+				}
+			}
+		}
+	}
+
+	@RepeatedTest(100)
+	void testSelf() {
+		MutableBigInteger acc = new MutableBigInteger(random.nextLong());
+		java.math.BigInteger expected = toBig(acc);
+
+		acc.addTo(acc);
+		assertEquals(expected.shiftLeft(1), toBig(acc));
+
+		acc.subtractFrom(acc);
+		assertTrue(acc.isZero());
+	}
+
+}
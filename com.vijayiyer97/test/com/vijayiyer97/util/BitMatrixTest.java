@@ -0,0 +1,151 @@
+package com.vijayiyer97.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+class BitMatrixTest {
+
+	Random random = new Random();
+
+	int n;
+	int m;
+	boolean[][] expected;
+	BitMatrix a;
+
+	BitMatrix randomize(boolean[][] values, double density) {
+		BitMatrix matrix = new BitMatrix(values.length, values.length == 0 ? 0 : values[0].length);
+
+		for (int i = 0; i < values.length; i++) {
+			for (int j = 0; j < values[i].length; j++) {
+				values[i][j] = random.nextDouble() < density;
+
+				if (values[i][j]) {
+					matrix.set(i, j);
+				}
+			}
+		}
+
+		return matrix;
+	}
+
+	@BeforeEach
+	void setUp() throws Exception {
+		n = random.nextInt(150) + 1;
+		m = random.nextInt(150) + 1;
+		expected = new boolean[n][m];
+		a = randomize(expected, 0.5);
+	}
+
+	@RepeatedTest(100)
+	void testGetRow() {
+		int i = random.nextInt(n);
+		BitSet row = a.getRow(i);
+
+		for (int j = 0; j < m; j++) {
+			assertEquals(expected[i][j] ? 1 : 0, row.get(j));
+		}
+
+		BitMatrix b = new BitMatrix(n, m);
+		b.setRow(i, row);
+
+		assertAll(
+				() -> assertEquals(a.cardinality(i), b.cardinality()),
+				() -> assertEquals(row, b.getRow(i)),
+				() -> assertThrows(UnsupportedOperationException.class, () -> a.get(n, 0)),
+				() -> assertThrows(UnsupportedOperationException.class, () -> a.get(0, m))
+				);
+	}
+
+	@RepeatedTest(100)
+	void testRowOperations() {
+		int i = random.nextInt(n);
+		int j = random.nextInt(n);
+
+		BitMatrix and = a.clone();
+		BitMatrix or = a.clone();
+		BitMatrix xor = a.clone();
+
+		and.andRow(i, j);
+		or.orRow(i, j);
+		xor.xorRow(i, j);
+
+		for (int k = 0; k < m; k++) {
+			assertEquals(expected[i][k] & expected[j][k] ? 1 : 0, and.get(i, k));
+			assertEquals(expected[i][k] | expected[j][k] ? 1 : 0, or.get(i, k));
+			assertEquals(expected[i][k] ^ expected[j][k] ? 1 : 0, xor.get(i, k));
+		}
+	}
+
+	@RepeatedTest(100)
+	void testTranspose() {
+		BitMatrix t = a.transpose();
+
+		assertEquals(m, t.rows());
+		assertEquals(n, t.columns());
+
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < m; j++) {
+				assertEquals(a.get(i, j), t.get(j, i));
+			}
+		}
+
+		assertEquals(a, t.transpose());
+	}
+
+	@RepeatedTest(100)
+	void testMultiply() {
+		int p = random.nextInt(150) + 1;
+		boolean[][] values = new boolean[m][p];
+		BitMatrix b = randomize(values, 0.05);
+		BitMatrix c = a.multiply(b);
+
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < p; j++) {
+				boolean bit = false;
+
+				for (int k = 0; k < m && !bit; k++) {
+					bit = expected[i][k] && values[k][j];
+				}
+
+				assertEquals(bit ? 1 : 0, c.get(i, j));
+			}
+		}
+
+		assertThrows(UnsupportedOperationException.class, () -> a.multiply(new BitMatrix(m + 1, 1)));
+	}
+
+	@RepeatedTest(100)
+	void testTransitiveClosure() {
+		boolean[][] reach = new boolean[n][n];
+		BitMatrix g = randomize(reach, 2.0 / n);
+		BitMatrix closure = g.transitiveClosure();
+
+		for (int k = 0; k < n; k++) {
+			for (int i = 0; i < n; i++) {
+				for (int j = 0; j < n; j++) {
+					reach[i][j] |= reach[i][k] && reach[k][j];
+				}
+			}
+		}
+
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				assertEquals(reach[i][j] ? 1 : 0, closure.get(i, j));
+			}
+		}
+	}
+
+	@Test
+	void testIdentity() {
+		BitMatrix identity = BitMatrix.identity(m);
+
+		assertEquals(a, a.multiply(identity));
+		assertEquals(identity, identity.transpose());
+	}
+
+}
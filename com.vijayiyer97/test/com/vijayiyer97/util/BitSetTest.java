@@ -2,13 +2,35 @@ package com.vijayiyer97.util;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.Random;
+
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.RepeatedTest;
 import org.junit.jupiter.api.Test;
 
 class BitSetTest {
 
+	static final int size = 200;
+
+	Random random = new Random();
+
+	BitSet randomize(BitSet bitSet, int lim) {
+		bitSet.reset();
+
+		for (int i = 0; i < lim; i++) {
+			bitSet.append(random.nextInt(2));
+		}
+
+		return bitSet;
+	}
+
+	BitSet a;
+	BitSet b;
+
 	@BeforeEach
 	void setUp() throws Exception {
+		a = randomize(new BitSetLE(1, size), random.nextInt(size));
+		b = randomize(new BitSetBE(1, size), random.nextInt(size));
 	}
 
 	@Test
@@ -16,4 +38,139 @@ class BitSetTest {
 		fail("Not yet implemented"); // TODO
 	}
 
+	@RepeatedTest(1000)
+	void testSimilarity() {
+		int and = 0;
+		int or = 0;
+		int xor = 0;
+		int count = 0;
+
+		for (int i = 0; i < size; i++) {
+			int x = i < a.len ? a.get(i) : 0;
+			int y = i < b.len ? b.get(i) : 0;
+
+			and += x & y;
+			or += x | y;
+			xor += x ^ y;
+			count += x;
+		}
+
+		final int expected1 = and;
+		final int expected2 = or;
+		final int expected3 = xor;
+		final int expected4 = count;
+		final double expected5 = or == 0 ? 1.0 : (double) and / or;
+
+		String before = a.toString() + b.toString();
+
+		assertAll(
+				() -> assertEquals(expected1, a.andCardinality(b), "and"),
+				() -> assertEquals(expected2, a.orCardinality(b), "or"),
+				() -> assertEquals(expected3, a.hammingDistance(b), "hamming"),
+				() -> assertEquals(expected3, b.hammingDistance(a), "hamming"),
+				() -> assertEquals(expected4, a.cardinality(), "cardinality"),
+				() -> assertEquals(expected5, a.jaccard(b), 1e-12, "jaccard"),
+				() -> assertEquals(before, a.toString() + b.toString(), "operands modified")
+				);
+	}
+
+	@RepeatedTest(100)
+	void testTopKSimilar() {
+		BitSet[] corpus = new BitSet[random.nextInt(50) + 1];
+
+		for (int i = 0; i < corpus.length; i++) {
+			BitSet bitSet = i % 2 == 0 ? new BitSetLE(1, size) : new BitSetBE(1, size);
+			corpus[i] = randomize(bitSet, random.nextInt(size));
+		}
+
+		corpus[random.nextInt(corpus.length)] = a.clone();
+
+		int k = random.nextInt(corpus.length + 1);
+		int[] top = BitSet.topKSimilar(a, corpus, k);
+
+		assertEquals(k, top.length);
+
+		for (int i = 1; i < k; i++) {
+			assertTrue(a.jaccard(corpus[top[i - 1]]) >= a.jaccard(corpus[top[i]]));
+		}
+
+		if (k > 0) {
+			assertEquals(1.0, a.jaccard(corpus[top[0]]));
+		}
+	}
+
+	@RepeatedTest(1000)
+	void testSquare() {
+		java.math.BigInteger x = new java.math.BigInteger(a.toString(), 2);
+		java.math.BigInteger y = new java.math.BigInteger(b.toString(), 2);
+
+		assertAll(
+				() -> assertEquals(x.pow(2), new java.math.BigInteger(a.square().toString(), 2), "little-endian"),
+				() -> assertEquals(y.pow(2), new java.math.BigInteger(b.square().toString(), 2), "big-endian"),
+				() -> assertEquals(x.pow(2), new java.math.BigInteger(a.multiply(a.clone()).toString(), 2), "multiply")
+				);
+	}
+
+	@RepeatedTest(1000)
+	void testScalarArithmetic() {
+		BitSet x = random.nextBoolean() ? a : b;
+
+		if (random.nextBoolean() && x.signum() != 0) {
+			x = x.clone();
+			x.flipSign();
+		}
+
+		BitSet operand = x;
+		java.math.BigInteger big = new java.math.BigInteger(x.toString(), 2);
+		long l = random.nextInt(4) == 0 ? Long.MIN_VALUE : random.nextLong() >> random.nextInt(64);
+		int m = random.nextInt(4) == 0 ? Integer.MIN_VALUE : random.nextInt() >> random.nextInt(32);
+		int c = random.nextInt() >> random.nextInt(32);
+		java.math.BigInteger bl = java.math.BigInteger.valueOf(l);
+		java.math.BigInteger bm = java.math.BigInteger.valueOf(m);
+
+		assertAll(
+				() -> assertEquals(big.add(bl), new java.math.BigInteger(operand.add(l).toString(), 2), "add"),
+				() -> assertEquals(big.multiply(bl), new java.math.BigInteger(operand.multiply(l).toString(), 2), "multiply"),
+				() -> assertEquals(big.multiply(bm).add(java.math.BigInteger.valueOf(c)),
+						new java.math.BigInteger(operand.multiplyAdd(m, c).toString(), 2), "multiply-add")
+				);
+
+		if (m == 0) {
+			assertThrows(ArithmeticException.class, () -> operand.divide(m));
+			return;
+		}
+
+		assertAll(
+				() -> assertEquals(big.divide(bm), new java.math.BigInteger(operand.divide(m).toString(), 2), "divide"),
+				() -> assertEquals(big.remainder(bm).intValue(), operand.remainder(m), "remainder")
+				);
+	}
+
+	@RepeatedTest(1000)
+	void testDivideAndRemainder() {
+		java.math.BigInteger x = new java.math.BigInteger(a.toString(), 2);
+		java.math.BigInteger y = new java.math.BigInteger(b.toString(), 2);
+
+		if (y.signum() == 0) {
+			assertThrows(ArithmeticException.class, () -> a.divideAndRemainder(b));
+			return;
+		}
+
+		java.math.BigInteger[] expected = x.divideAndRemainder(y);
+		java.math.BigInteger[] negated = x.negate().divideAndRemainder(y);
+
+		BitSet negative = a.clone();
+		negative.flipSign();
+
+		BitSet[] test1 = a.divideAndRemainder(b);
+		BitSet[] test2 = negative.divideAndRemainder(b);
+
+		assertAll(
+				() -> assertEquals(expected[0], new java.math.BigInteger(test1[0].toString(), 2), "quotient"),
+				() -> assertEquals(expected[1], new java.math.BigInteger(test1[1].toString(), 2), "remainder"),
+				() -> assertEquals(negated[0], new java.math.BigInteger(test2[0].toString(), 2), "negative quotient"),
+				() -> assertEquals(negated[1], new java.math.BigInteger(test2[1].toString(), 2), "negative remainder")
+				);
+	}
+
 }
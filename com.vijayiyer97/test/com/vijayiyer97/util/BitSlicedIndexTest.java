@@ -0,0 +1,181 @@
+package com.vijayiyer97.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+class BitSlicedIndexTest {
+
+	Random random = new Random();
+
+	long[] column;
+	BitSlicedIndex index;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		column = new long[random.nextInt(500) + 1];
+
+		long offset = random.nextInt(2001) - 1000;
+		int range = random.nextInt(1000) + 1;
+
+		for (int i = 0; i < column.length; i++) {
+			column[i] = offset + random.nextInt(range);
+		}
+
+		index = new BitSlicedIndex(column);
+	}
+
+	void assertRows(BitSet expected, BitSet test) {
+		for (int row = 0; row < column.length; row++) {
+			assertEquals(expected.get(row), test.get(row), "row " + row);
+		}
+	}
+
+	@RepeatedTest(1000)
+	void testGet() {
+		int row = random.nextInt(column.length);
+
+		assertAll(
+				() -> assertEquals(column[row], index.get(row)),
+				() -> assertEquals(column[row] - Arrays.stream(column).min().getAsLong(),
+						(long) Integer.parseInt("0" + sliceBits(row), 2)),
+				() -> assertThrows(UnsupportedOperationException.class, () -> index.get(column.length))
+				);
+	}
+
+	String sliceBits(int row) {
+		String str = "";
+
+		for (int i = 0; i < index.depth(); i++) {
+			str = index.getSlice(i).get(row) + str;
+		}
+
+		return str;
+	}
+
+	@RepeatedTest(1000)
+	void testCompare() {
+		long value = column[random.nextInt(column.length)] + random.nextInt(3) - 1;
+
+		BitSet lt = new BitSetLE(1, column.length);
+		BitSet le = new BitSetLE(1, column.length);
+		BitSet eq = new BitSetLE(1, column.length);
+		BitSet ne = new BitSetLE(1, column.length);
+		BitSet gt = new BitSetLE(1, column.length);
+		BitSet ge = new BitSetLE(1, column.length);
+
+		for (int row = 0; row < column.length; row++) {
+			if (column[row] < value) {
+				lt.set(row);
+			}
+			if (column[row] <= value) {
+				le.set(row);
+			}
+			if (column[row] == value) {
+				eq.set(row);
+			}
+			if (column[row] != value) {
+				ne.set(row);
+			}
+			if (column[row] > value) {
+				gt.set(row);
+			}
+			if (column[row] >= value) {
+				ge.set(row);
+			}
+		}
+
+		assertRows(lt, index.lessThan(value));
+		assertRows(le, index.lessThanOrEqualTo(value));
+		assertRows(eq, index.equalTo(value));
+		assertRows(ne, index.notEqualTo(value));
+		assertRows(gt, index.greaterThan(value));
+		assertRows(ge, index.greaterThanOrEqualTo(value));
+		assertRows(new BitSetLE(1, column.length), index.lessThan(Long.MIN_VALUE));
+		assertRows(new BitSetLE(1, column.length), index.greaterThan(Long.MAX_VALUE));
+	}
+
+	@RepeatedTest(1000)
+	void testBetween() {
+		long lo = column[random.nextInt(column.length)];
+		long hi = lo + random.nextInt(200);
+
+		BitSet expected = new BitSetLE(1, column.length);
+
+		for (int row = 0; row < column.length; row++) {
+			if (column[row] >= lo && column[row] <= hi) {
+				expected.set(row);
+			}
+		}
+
+		assertRows(expected, index.between(lo, hi));
+	}
+
+	@RepeatedTest(1000)
+	void testSum() {
+		BitSet filter = new BitSetLE(1, column.length);
+		long expected1 = 0;
+		long expected2 = 0;
+
+		for (int row = 0; row < column.length; row++) {
+			expected1 += column[row];
+
+			if (random.nextBoolean()) {
+				filter.set(row);
+				expected2 += column[row];
+			}
+		}
+
+		assertEquals(expected1, index.sum());
+		assertEquals(expected2, index.sum(filter));
+	}
+
+	@Test
+	void testSumExtremes() {
+		BitSlicedIndex opposite = new BitSlicedIndex(new long[] { Long.MIN_VALUE, Long.MAX_VALUE });
+		BitSlicedIndex maxima = new BitSlicedIndex(new long[] { Long.MAX_VALUE, Long.MAX_VALUE - 1, Long.MIN_VALUE + 1 });
+		BitSlicedIndex minima = new BitSlicedIndex(new long[] { Long.MIN_VALUE, -1 });
+
+		assertAll(
+				() -> assertEquals(-1, opposite.sum(), "opposite"),
+				() -> assertEquals(Long.MAX_VALUE - 1, maxima.sum(), "maxima"),
+				() -> assertThrows(ArithmeticException.class, () -> minima.sum(), "minima"),
+				() -> assertThrows(ArithmeticException.class, () -> new BitSlicedIndex(new long[] { Long.MAX_VALUE, 1 }).sum(), "maximum")
+				);
+	}
+
+	@RepeatedTest(1000)
+	void testTopK() {
+		int k = random.nextInt(column.length + 1);
+		BitSet top = index.topK(k);
+
+		long[] sorted = column.clone();
+		Arrays.sort(sorted);
+
+		int count = 0;
+		long smallest = Long.MAX_VALUE;
+		long largest = Long.MIN_VALUE;
+
+		for (int row = 0; row < column.length; row++) {
+			if (top.get(row) == 1) {
+				count++;
+				smallest = Math.min(smallest, column[row]);
+			} else {
+				largest = Math.max(largest, column[row]);
+			}
+		}
+
+		assertEquals(k, count);
+
+		if (k > 0 && k < column.length) {
+			assertEquals(sorted[column.length - k], smallest);
+			assertTrue(largest <= smallest);
+		}
+	}
+
+}
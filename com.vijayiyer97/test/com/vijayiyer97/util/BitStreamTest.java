@@ -0,0 +1,143 @@
+package com.vijayiyer97.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+class BitStreamTest {
+
+	Random random = new Random();
+
+	long[] values = new long[1000];
+	int[] widths = new int[1000];
+
+	void randomize() {
+		for (int i = 0; i < values.length; i++) {
+			widths[i] = random.nextInt(65);
+			values[i] = widths[i] == 0 ? 0 : random.nextLong() >>> (64 - widths[i]);
+		}
+	}
+
+	@RepeatedTest(100)
+	void testBits() {
+		randomize();
+
+		BitOutput out = new BitOutput();
+
+		for (int i = 0; i < values.length; i++) {
+			out.writeBits(values[i], widths[i]);
+		}
+
+		BitInput in = new BitInput(out.toByteArray());
+		BitInput bitSetIn = new BitInput(out.toBitSet());
+
+		for (int i = 0; i < values.length; i++) {
+			assertEquals(values[i], in.readBits(widths[i]));
+			assertEquals(values[i], bitSetIn.readBits(widths[i]));
+		}
+
+		assertEquals(out.position(), bitSetIn.position());
+		assertFalse(bitSetIn.hasNext());
+		assertThrows(NoSuchElementException.class, () -> bitSetIn.readBit());
+	}
+
+	@RepeatedTest(100)
+	void testBitSet() {
+		BitSet bitSet = new BitSetLE(1, 100);
+		BitOutput out = new BitOutput();
+
+		for (int i = 0; i < 100; i++) {
+			int bit = random.nextInt(2);
+
+			bitSet.append(bit);
+			out.writeBit(bit);
+		}
+
+		BitSet test = out.toBitSet();
+
+		for (int i = 0; i < 100; i++) {
+			assertEquals(bitSet.get(i), test.get(i));
+		}
+	}
+
+	@RepeatedTest(100)
+	void testCodes() {
+		long[] small = new long[values.length];
+
+		for (int i = 0; i < small.length; i++) {
+			small[i] = random.nextLong() >>> (random.nextInt(63) + 1);
+		}
+
+		int k = random.nextInt(8);
+		long m = random.nextInt(100) + 1;
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		BitOutput out = new BitOutput(Channels.newChannel(bytes));
+
+		for (long value: small) {
+			long positive = value == 0 ? 1 : value;
+			long rice = value >>> 50;
+
+			out.writeVarint(value);
+			out.writeZigZag(value - (value >>> 1) * 3);
+			out.writeEliasGamma(positive);
+			out.writeEliasDelta(positive);
+			out.writeRice(rice, k);
+			out.writeGolomb(rice, m);
+			out.writeUnary(rice & 0xFF);
+		}
+
+		out.close();
+
+		BitInput in = new BitInput(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())));
+
+		for (long value: small) {
+			long positive = value == 0 ? 1 : value;
+			long rice = value >>> 50;
+
+			assertEquals(value, in.readVarint(), "varint");
+			assertEquals(value - (value >>> 1) * 3, in.readZigZag(), "zigzag");
+			assertEquals(positive, in.readEliasGamma(), "gamma");
+			assertEquals(positive, in.readEliasDelta(), "delta");
+			assertEquals(rice, in.readRice(k), "rice");
+			assertEquals(rice, in.readGolomb(m), "golomb");
+			assertEquals(rice & 0xFF, in.readUnary(), "unary");
+		}
+
+		in.close();
+	}
+
+	@Test
+	void testByteBuffer() {
+		ByteBuffer buffer = ByteBuffer.allocate(16);
+		BitOutput out = new BitOutput(buffer);
+
+		out.writeBits(0xABCDEFL, 24);
+		out.writeBits(-1L, 64);
+		out.writeBits(5, 3);
+		out.close();
+
+		assertEquals(12, buffer.position());
+		assertEquals((byte) 0xAB, buffer.get(0));
+		assertEquals((byte) 0xA0, buffer.get(11));
+
+		buffer.flip();
+		BitInput in = new BitInput(buffer);
+
+		assertAll(
+				() -> assertEquals(0xABCDEFL, in.readBits(24)),
+				() -> assertEquals(-1L, in.readBits(64)),
+				() -> assertEquals(5, in.readBits(3)),
+				() -> assertThrows(UnsupportedOperationException.class, () -> in.readBits(65))
+				);
+	}
+
+}
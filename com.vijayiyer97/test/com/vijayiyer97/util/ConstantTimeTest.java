@@ -0,0 +1,97 @@
+package com.vijayiyer97.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+class ConstantTimeTest {
+
+	Random random = new Random();
+
+	int[] randomArray(int length) {
+		int[] a = new int[length];
+
+		for (int i = 0; i < length; i++) {
+			a[i] = random.nextInt(4) == 0 ? -1 : random.nextInt(4) == 0 ? 0 : random.nextInt();
+		}
+
+		return a;
+	}
+
+	@RepeatedTest(500)
+	void testFixedWidth() {
+		int n = 1 + random.nextInt(20);
+		int[] a = randomArray(n);
+		int[] b = random.nextInt(8) == 0 ? a.clone() : randomArray(n);
+		java.math.BigInteger x = LimbArithmeticTest.toBig(a);
+		java.math.BigInteger y = LimbArithmeticTest.toBig(b);
+		java.math.BigInteger r = java.math.BigInteger.ONE.shiftLeft(32 * n);
+
+		int[] sum = new int[n];
+		int carry = ConstantTime.add(sum, a, b);
+		int[] difference = new int[n];
+		int borrow = ConstantTime.subtract(difference, a, b);
+
+		int[] c = a.clone();
+		int[] d = b.clone();
+		int bit = random.nextInt(2);
+		ConstantTime.conditionalSwap(c, d, bit);
+
+		int[] e = a.clone();
+		ConstantTime.conditionalCopy(e, b, bit);
+
+		assertAll(
+				() -> assertEquals(x.add(y), LimbArithmeticTest.toBig(sum).add(java.math.BigInteger.valueOf(carry).shiftLeft(32 * n)), "add"),
+				() -> assertEquals(x.subtract(y), LimbArithmeticTest.toBig(difference).subtract(java.math.BigInteger.valueOf(borrow).multiply(r)), "subtract"),
+				() -> assertEquals(x.multiply(y), LimbArithmeticTest.toBig(ConstantTime.multiply(a, b)), "multiply"),
+				() -> assertArrayEquals(bit == 1 ? b : a, c, "swap first"),
+				() -> assertArrayEquals(bit == 1 ? a : b, d, "swap second"),
+				() -> assertArrayEquals(bit == 1 ? b : a, e, "copy"),
+				() -> assertEquals(Arrays.equals(a, b) ? 1 : 0, ConstantTime.equal(a, b), "equal"),
+				() -> assertEquals(1, ConstantTime.equal(a, a.clone()), "equal to itself")
+				);
+	}
+
+	@RepeatedTest(300)
+	void testModular() {
+		int n = 1 + random.nextInt(12);
+		int[] m = randomArray(n);
+		m[0] |= 1;
+		m[n - 1] |= random.nextBoolean() ? 1 : 1 << 31;
+
+		if (n == 1 && m[0] == 1) {
+			m[0] = 3;
+		}
+
+		ConstantTime context = new ConstantTime(m);
+		java.math.BigInteger modulus = LimbArithmeticTest.toBig(m);
+		int[] a = randomArray(n);
+		int[] b = randomArray(n);
+		int[] e = randomArray(random.nextInt(8));
+		java.math.BigInteger x = LimbArithmeticTest.toBig(a);
+		java.math.BigInteger y = LimbArithmeticTest.toBig(b);
+
+		assertAll(
+				() -> assertEquals(x.multiply(y).mod(modulus), LimbArithmeticTest.toBig(context.modMultiply(a, b)), "multiply"),
+				() -> assertEquals(x.modPow(LimbArithmeticTest.toBig(e), modulus), LimbArithmeticTest.toBig(context.modPow(a, e)), "pow"),
+				() -> assertEquals(x.mod(modulus), LimbArithmeticTest.toBig(context.fromMontgomery(context.toMontgomery(a))), "round trip")
+				);
+	}
+
+	@Test
+	void testErrors() {
+		ConstantTime context = new ConstantTime(new int[] { 7, 0 });
+
+		assertAll(
+				() -> assertEquals(1, context.length(), "width"),
+				() -> assertThrows(IllegalArgumentException.class, () -> context.modMultiply(new int[2], new int[2])),
+				() -> assertThrows(ArithmeticException.class, () -> new ConstantTime(new int[] { 8 })),
+				() -> assertThrows(ArithmeticException.class, () -> new ConstantTime(new int[] { 1 }))
+				);
+	}
+
+}
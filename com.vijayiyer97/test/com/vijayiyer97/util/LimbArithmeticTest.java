@@ -0,0 +1,421 @@
+package com.vijayiyer97.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.RepeatedTest;
+
+class LimbArithmeticTest {
+
+	static final int size = 40;
+
+	Random random = new Random();
+
+	int[] randomMagnitude(int limbs) {
+		int[] mag = new int[limbs];
+
+		for (int i = 0; i < limbs; i++) {
+			// runs of all-ones and all-zeros limbs exercise carry and borrow propagation.
+			switch (random.nextInt(4)) {
+			case 0:
+				mag[i] = -1;
+				break;
+			case 1:
+				mag[i] = 0;
+				break;
+			default:
+				mag[i] = random.nextInt();
+			}
+		}
+
+		return mag;
+	}
+
+	static java.math.BigInteger toBig(int[] mag) {
+		java.math.BigInteger result = java.math.BigInteger.ZERO;
+
+		for (int i = mag.length - 1; i >= 0; i--) {
+			result = result.shiftLeft(32).or(java.math.BigInteger.valueOf(mag[i] & 0xFFFFFFFFL));
+		}
+
+		return result;
+	}
+
+	@RepeatedTest(1000)
+	void testAddSubtract() {
+		int[] a = randomMagnitude(random.nextInt(size));
+		int[] b = randomMagnitude(random.nextInt(size));
+		int[] aCopy = a.clone();
+		int[] bCopy = b.clone();
+
+		java.math.BigInteger x = toBig(a);
+		java.math.BigInteger y = toBig(b);
+		java.math.BigInteger max = x.max(y);
+		java.math.BigInteger min = x.min(y);
+
+		int[] big = x.compareTo(y) >= 0 ? a : b;
+		int[] small = big == a ? b : a;
+
+		assertAll(
+				() -> assertEquals(x.add(y), toBig(LimbArithmetic.add(a, b)), "add"),
+				() -> assertEquals(max.subtract(min), toBig(LimbArithmetic.subtract(big, small)), "subtract"),
+				() -> assertEquals(Integer.signum(x.compareTo(y)), Integer.signum(LimbArithmetic.compare(a, b)), "compare"),
+				() -> assertEquals(x.bitLength(), LimbArithmetic.bitLength(a), "bit length"),
+				() -> assertArrayEquals(aCopy, a, "operand modified"),
+				() -> assertArrayEquals(bCopy, b, "operand modified")
+				);
+
+		if (x.compareTo(y) != 0) {
+			assertThrows(ArithmeticException.class, () -> LimbArithmetic.subtract(small, big));
+		}
+	}
+
+	@RepeatedTest(200)
+	void testMultiply() {
+		int[] a = randomMagnitude(random.nextInt(8 * size));
+		int[] b = randomMagnitude(random.nextInt(8 * size));
+		int[] aCopy = a.clone();
+		int[] bCopy = b.clone();
+
+		java.math.BigInteger expected = toBig(a).multiply(toBig(b));
+
+		assertAll(
+				() -> assertEquals(expected, toBig(LimbArithmetic.multiply(a, b)), "multiply"),
+				() -> assertEquals(expected, toBig(LimbArithmetic.multiply(b, a)), "commuted"),
+				() -> assertEquals(toBig(a).pow(2), toBig(LimbArithmetic.square(a)), "square"),
+				() -> assertArrayEquals(aCopy, a, "operand modified"),
+				() -> assertArrayEquals(bCopy, b, "operand modified")
+				);
+	}
+
+	@RepeatedTest(200)
+	void testMultiplyThresholds() {
+		int karatsuba = LimbArithmetic.KARATSUBA_THRESHOLD;
+		int toom3 = LimbArithmetic.TOOM3_THRESHOLD;
+		int ntt = LimbArithmetic.NTT_THRESHOLD;
+		int karatsubaSquare = LimbArithmetic.KARATSUBA_SQUARE_THRESHOLD;
+		int toom3Square = LimbArithmetic.TOOM3_SQUARE_THRESHOLD;
+
+		// low thresholds send small operands through every recursive algorithm.
+		LimbArithmetic.KARATSUBA_THRESHOLD = 2;
+		LimbArithmetic.TOOM3_THRESHOLD = 3 + random.nextInt(8);
+		LimbArithmetic.NTT_THRESHOLD = 3 + random.nextInt(size);
+		LimbArithmetic.KARATSUBA_SQUARE_THRESHOLD = 2;
+		LimbArithmetic.TOOM3_SQUARE_THRESHOLD = 3 + random.nextInt(8);
+
+		try {
+			int[] a = randomMagnitude(random.nextInt(4 * size));
+			int[] b = randomMagnitude(random.nextInt(4 * size));
+
+			assertAll(
+					() -> assertEquals(toBig(a).multiply(toBig(b)), toBig(LimbArithmetic.multiply(a, b)), "multiply"),
+					() -> assertEquals(toBig(a).pow(2), toBig(LimbArithmetic.square(a)), "square")
+					);
+		} finally {
+			LimbArithmetic.KARATSUBA_THRESHOLD = karatsuba;
+			LimbArithmetic.TOOM3_THRESHOLD = toom3;
+			LimbArithmetic.NTT_THRESHOLD = ntt;
+			LimbArithmetic.KARATSUBA_SQUARE_THRESHOLD = karatsubaSquare;
+			LimbArithmetic.TOOM3_SQUARE_THRESHOLD = toom3Square;
+		}
+	}
+
+	@RepeatedTest(1000)
+	void testScalarArithmetic() {
+		int[] a = randomMagnitude(random.nextInt(size));
+		long b = random.nextLong() >>> random.nextInt(64);
+		int d = random.nextInt() | 1;
+		java.math.BigInteger x = toBig(a);
+		java.math.BigInteger y = new java.math.BigInteger(Long.toUnsignedString(b));
+
+		assertAll(
+				() -> assertEquals(x.add(y), toBig(LimbArithmetic.add(a, b)), "add"),
+				() -> assertEquals(x.multiply(y), toBig(LimbArithmetic.multiply(a, b)), "multiply"),
+				() -> assertEquals(Integer.signum(x.compareTo(y)), Integer.signum(LimbArithmetic.compare(a, b)), "compare"),
+				() -> assertEquals(x.mod(java.math.BigInteger.valueOf(d & 0xFFFFFFFFL)).intValue(),
+						LimbArithmetic.remainderByInt(a, a.length, d), "remainder")
+				);
+
+		if (x.compareTo(y) >= 0) {
+			assertEquals(x.subtract(y), toBig(LimbArithmetic.subtract(a, b)), "subtract");
+		} else {
+			assertThrows(ArithmeticException.class, () -> LimbArithmetic.subtract(a, b));
+		}
+	}
+
+	@RepeatedTest(200)
+	void testParallelMultiply() {
+		int parallel = LimbArithmetic.PARALLEL_THRESHOLD;
+		int toom3 = LimbArithmetic.TOOM3_THRESHOLD;
+		int ntt = LimbArithmetic.NTT_THRESHOLD;
+		int chunk = NumberTheoreticTransform.PARALLEL_CHUNK;
+
+		// small chunks split every stage of the transforms into tasks.
+		LimbArithmetic.PARALLEL_THRESHOLD = 1 + random.nextInt(size);
+		LimbArithmetic.TOOM3_THRESHOLD = 3 + random.nextInt(size);
+		LimbArithmetic.NTT_THRESHOLD = 3 + random.nextInt(4 * size);
+		NumberTheoreticTransform.PARALLEL_CHUNK = 1 << random.nextInt(8);
+
+		try {
+			int[] a = randomMagnitude(random.nextInt(8 * size));
+			int[] b = randomMagnitude(random.nextInt(8 * size));
+
+			assertAll(
+					() -> assertEquals(toBig(a).multiply(toBig(b)), toBig(LimbArithmetic.multiply(a, b)), "multiply"),
+					() -> assertEquals(toBig(a).pow(2), toBig(LimbArithmetic.square(a)), "square")
+					);
+		} finally {
+			LimbArithmetic.PARALLEL_THRESHOLD = parallel;
+			LimbArithmetic.TOOM3_THRESHOLD = toom3;
+			LimbArithmetic.NTT_THRESHOLD = ntt;
+			NumberTheoreticTransform.PARALLEL_CHUNK = chunk;
+		}
+	}
+
+	@RepeatedTest(1000)
+	void testShift() {
+		int[] a = randomMagnitude(random.nextInt(size));
+		int n = random.nextInt(8 * size);
+
+		assertAll(
+				() -> assertEquals(toBig(a).shiftLeft(n), toBig(LimbArithmetic.shiftLeft(a, n)), "shift left"),
+				() -> assertEquals(toBig(a).shiftRight(n), toBig(LimbArithmetic.shiftRight(a, n)), "shift right")
+				);
+	}
+
+	@RepeatedTest(2000)
+	void testDivideAndRemainder() {
+		int[] a = randomMagnitude(random.nextInt(2 * size));
+		int[] b = randomMagnitude(random.nextInt(size) + 1);
+
+		if (LimbArithmetic.length(b) == 0) {
+			assertThrows(ArithmeticException.class, () -> LimbArithmetic.divideAndRemainder(a, b));
+			return;
+		}
+
+		int[] aCopy = a.clone();
+		int[] bCopy = b.clone();
+
+		java.math.BigInteger[] expected = toBig(a).divideAndRemainder(toBig(b));
+		int[][] test = LimbArithmetic.divideAndRemainder(a, b);
+
+		assertAll(
+				() -> assertEquals(expected[0], toBig(test[0]), "quotient"),
+				() -> assertEquals(expected[1], toBig(test[1]), "remainder"),
+				() -> assertArrayEquals(aCopy, a, "operand modified"),
+				() -> assertArrayEquals(bCopy, b, "operand modified")
+				);
+	}
+
+	@RepeatedTest(500)
+	void testDivideThresholds() {
+		int burnikelZiegler = LimbArithmetic.BURNIKEL_ZIEGLER_THRESHOLD;
+		int offset = LimbArithmetic.BURNIKEL_ZIEGLER_OFFSET;
+		int newton = LimbArithmetic.NEWTON_THRESHOLD;
+
+		// low thresholds send small operands through recursive and reciprocal division.
+		LimbArithmetic.BURNIKEL_ZIEGLER_THRESHOLD = 2 + random.nextInt(4);
+		LimbArithmetic.BURNIKEL_ZIEGLER_OFFSET = random.nextInt(4);
+		LimbArithmetic.NEWTON_THRESHOLD = random.nextBoolean() ? 4 + random.nextInt(4 * size) : Integer.MAX_VALUE;
+
+		try {
+			int[] a = randomMagnitude(random.nextInt(4 * size));
+			int[] b = randomMagnitude(random.nextInt(2 * size) + 1);
+
+			if (LimbArithmetic.length(b) == 0) {
+				return;
+			}
+
+			java.math.BigInteger[] expected = toBig(a).divideAndRemainder(toBig(b));
+			int[][] test = LimbArithmetic.divideAndRemainder(a, b);
+
+			assertAll(
+					() -> assertEquals(expected[0], toBig(test[0]), "quotient"),
+					() -> assertEquals(expected[1], toBig(test[1]), "remainder")
+					);
+		} finally {
+			LimbArithmetic.BURNIKEL_ZIEGLER_THRESHOLD = burnikelZiegler;
+			LimbArithmetic.BURNIKEL_ZIEGLER_OFFSET = offset;
+			LimbArithmetic.NEWTON_THRESHOLD = newton;
+		}
+	}
+
+	@RepeatedTest(500)
+	void testModPow() {
+		int[] base = randomMagnitude(random.nextInt(2 * size));
+		int[] exponent = randomMagnitude(random.nextInt(4));
+		int[] modulus = randomMagnitude(random.nextInt(size) + 1);
+
+		// powers of two times an odd part exercise the split of even moduli.
+		if (random.nextBoolean()) {
+			modulus = LimbArithmetic.shiftLeft(modulus, random.nextInt(100));
+		}
+
+		if (LimbArithmetic.length(modulus) == 0) {
+			final int[] zero = modulus;
+			assertThrows(ArithmeticException.class, () -> LimbArithmetic.modPow(base, exponent, zero));
+			return;
+		}
+
+		java.math.BigInteger expected = toBig(base).modPow(toBig(exponent), toBig(modulus));
+
+		assertEquals(expected, toBig(LimbArithmetic.modPow(base, exponent, modulus)));
+	}
+
+	@RepeatedTest(200)
+	void testMontgomery() {
+		int[] modulus = randomMagnitude(random.nextInt(size) + 1);
+		modulus[0] |= 1;
+
+		if (LimbArithmetic.length(modulus) == 1 && modulus[0] == 1) {
+			assertThrows(ArithmeticException.class, () -> new Montgomery(new int[] { 1 }));
+			return;
+		}
+
+		Montgomery montgomery = new Montgomery(modulus);
+		java.math.BigInteger m = toBig(modulus);
+		int[] a = randomMagnitude(random.nextInt(2 * size));
+		int[] b = randomMagnitude(random.nextInt(2 * size));
+
+		int[] product = montgomery.multiply(montgomery.toMontgomery(a), montgomery.toMontgomery(b));
+
+		assertAll(
+				() -> assertEquals(toBig(a).mod(m), toBig(montgomery.fromMontgomery(montgomery.toMontgomery(a))), "round trip"),
+				() -> assertEquals(toBig(a).multiply(toBig(b)).mod(m), toBig(montgomery.fromMontgomery(product)), "multiply")
+				);
+	}
+
+	@RepeatedTest(500)
+	void testBarrett() {
+		int[] modulus = randomMagnitude(random.nextInt(size) + 1);
+
+		if (LimbArithmetic.length(modulus) == 0) {
+			assertThrows(ArithmeticException.class, () -> new Barrett(modulus));
+			return;
+		}
+
+		Barrett barrett = new Barrett(modulus);
+		java.math.BigInteger m = toBig(modulus);
+		int[] a = randomMagnitude(random.nextInt(3 * LimbArithmetic.length(modulus) + 1));
+
+		assertEquals(toBig(a).mod(m), toBig(barrett.reduce(a)));
+	}
+
+	@RepeatedTest(500)
+	void testModInverse() {
+		int[] a = randomMagnitude(random.nextInt(size));
+		int[] modulus = randomMagnitude(random.nextInt(size) + 1);
+		java.math.BigInteger m = toBig(modulus);
+
+		if (m.signum() == 0 || !toBig(a).gcd(m).equals(java.math.BigInteger.ONE)) {
+			assertThrows(ArithmeticException.class, () -> LimbArithmetic.modInverse(a, modulus));
+		} else {
+			assertEquals(toBig(a).modInverse(m), toBig(LimbArithmetic.modInverse(a, modulus)));
+		}
+	}
+
+	@RepeatedTest(500)
+	void testGcd() {
+		int[] common = randomMagnitude(random.nextInt(size / 2) + 1);
+		int[] a = LimbArithmetic.multiply(randomMagnitude(random.nextInt(4 * size)), common);
+		int[] b = random.nextInt(4) == 0 ? LimbArithmetic.multiply(a, randomMagnitude(2))
+				: LimbArithmetic.multiply(randomMagnitude(random.nextInt(4 * size)), common);
+
+		java.math.BigInteger g = toBig(a).gcd(toBig(b));
+
+		assertAll(
+				() -> assertEquals(g, toBig(LimbArithmetic.gcd(a, b)), "gcd"),
+				() -> assertEquals(g, toBig(LimbArithmetic.gcd(b, a)), "commuted")
+				);
+
+		if (LimbArithmetic.length(a) == 0) {
+			assertThrows(ArithmeticException.class, () -> LimbArithmetic.extendedGcd(a, b));
+			return;
+		}
+
+		int[][] gxy = LimbArithmetic.extendedGcd(a, b);
+		java.math.BigInteger x = toBig(gxy[1]);
+
+		assertAll(
+				() -> assertEquals(g, toBig(gxy[0]), "extended gcd"),
+				() -> assertEquals(g, toBig(a).multiply(x).subtract(toBig(b).multiply(toBig(gxy[2]))), "bezout"),
+				() -> assertTrue(x.signum() > 0 && (g.signum() == 0 || toBig(b).signum() == 0 || x.compareTo(toBig(b).divide(g)) <= 0), "cofactor range")
+				);
+	}
+
+	@RepeatedTest(300)
+	void testGcdThresholds() {
+		int halfGcd = LimbArithmetic.HALF_GCD_THRESHOLD;
+
+		// a low threshold sends small operands through the half-GCD method.
+		LimbArithmetic.HALF_GCD_THRESHOLD = 4 + random.nextInt(size);
+
+		try {
+			int[] common = randomMagnitude(random.nextInt(size) + 1);
+			int[] a = LimbArithmetic.multiply(randomMagnitude(random.nextInt(8 * size)), common);
+			int[] b = LimbArithmetic.multiply(randomMagnitude(random.nextInt(8 * size)), common);
+
+			assertEquals(toBig(a).gcd(toBig(b)), toBig(LimbArithmetic.gcd(a, b)));
+		} finally {
+			LimbArithmetic.HALF_GCD_THRESHOLD = halfGcd;
+		}
+	}
+
+	@RepeatedTest(500)
+	void testPow() {
+		int[] a = LimbArithmetic.shiftLeft(randomMagnitude(random.nextInt(size / 4)), random.nextInt(100));
+		int exponent = random.nextInt(random.nextBoolean() ? 8 : 200);
+
+		assertEquals(toBig(a).pow(exponent), toBig(LimbArithmetic.pow(a, exponent)));
+		assertThrows(ArithmeticException.class, () -> LimbArithmetic.pow(a, -1));
+	}
+
+	@RepeatedTest(500)
+	void testSqrt() {
+		int[] a = randomMagnitude(random.nextInt(4 * size));
+		java.math.BigInteger expected = toBig(a).sqrt();
+		int[][] sr = LimbArithmetic.sqrtAndRemainder(a);
+
+		assertAll(
+				() -> assertEquals(expected, toBig(LimbArithmetic.sqrt(a)), "sqrt"),
+				() -> assertEquals(expected, toBig(sr[0]), "root"),
+				() -> assertEquals(toBig(a).subtract(expected.pow(2)), toBig(sr[1]), "remainder")
+				);
+	}
+
+	@RepeatedTest(500)
+	void testNthRoot() {
+		int[] a = randomMagnitude(random.nextInt(4 * size));
+		int k = 1 + random.nextInt(random.nextBoolean() ? 8 : 200);
+		java.math.BigInteger x = toBig(a);
+		java.math.BigInteger root = toBig(LimbArithmetic.nthRoot(a, k));
+
+		assertAll(
+				() -> assertTrue(root.pow(k).compareTo(x) <= 0, "lower bound"),
+				() -> assertTrue(root.add(java.math.BigInteger.ONE).pow(k).compareTo(x) > 0, "upper bound")
+				);
+		assertThrows(ArithmeticException.class, () -> LimbArithmetic.nthRoot(a, 0));
+	}
+
+	@RepeatedTest(200)
+	void testPerfectPowers() {
+		int[] r = LimbArithmetic.add(randomMagnitude(random.nextInt(size)), LimbArithmetic.ONE);
+		int k = 2 + random.nextInt(5);
+		int[] a = r;
+
+		for (int i = 1; i < k; i++) {
+			a = LimbArithmetic.multiply(a, r);
+		}
+
+		// perfect powers and their predecessors are where a root estimate is most easily off by one.
+		int[] power = a;
+		int[] below = LimbArithmetic.subtract(a, LimbArithmetic.ONE);
+
+		assertAll(
+				() -> assertEquals(toBig(r), toBig(LimbArithmetic.nthRoot(power, k)), "exact"),
+				() -> assertEquals(toBig(r).subtract(java.math.BigInteger.ONE), toBig(LimbArithmetic.nthRoot(below, k)), "below")
+				);
+	}
+
+}
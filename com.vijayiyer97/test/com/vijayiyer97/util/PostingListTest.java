@@ -0,0 +1,98 @@
+package com.vijayiyer97.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.RepeatedTest;
+
+class PostingListTest {
+
+	Random random = new Random();
+
+	TreeSet<Integer> randomize(int universe, int n) {
+		TreeSet<Integer> docs = new TreeSet<>();
+
+		for (int i = 0; i < n; i++) {
+			docs.add(random.nextInt(universe));
+		}
+
+		return docs;
+	}
+
+	PostingList of(TreeSet<Integer> docs) {
+		return PostingList.of(docs.stream().mapToInt(Integer::intValue).toArray());
+	}
+
+	int[] toArray(TreeSet<Integer> docs) {
+		return docs.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	@RepeatedTest(1000)
+	void testOf() {
+		int universe = random.nextInt(10000) + 1;
+		TreeSet<Integer> docs = randomize(universe, random.nextInt(universe));
+		PostingList list = of(docs);
+		int doc = random.nextInt(universe);
+
+		assertAll(
+				() -> assertArrayEquals(toArray(docs), list.toArray()),
+				() -> assertEquals(docs.size(), list.cardinality()),
+				() -> assertEquals(docs.contains(doc), list.contains(doc)),
+				() -> assertEquals(list, PostingList.valueOf(list.toBitSet())),
+				() -> assertEquals(!docs.isEmpty() && docs.size() * 32 >= docs.last() + 1, list.isDense())
+				);
+	}
+
+	@RepeatedTest(1000)
+	void testAnd() {
+		int universe = random.nextInt(100000) + 1;
+		TreeSet<Integer> a = randomize(universe, random.nextInt(universe / 10 + 1));
+		TreeSet<Integer> b = randomize(universe, random.nextInt(universe));
+
+		TreeSet<Integer> expected = new TreeSet<>(a);
+		expected.retainAll(b);
+
+		assertArrayEquals(toArray(expected), of(a).and(of(b)).toArray());
+		assertArrayEquals(toArray(expected), of(b).and(of(a)).toArray());
+	}
+
+	@RepeatedTest(1000)
+	void testOr() {
+		int universe = random.nextInt(100000) + 1;
+		TreeSet<Integer> a = randomize(universe, random.nextInt(universe / 10 + 1));
+		TreeSet<Integer> b = randomize(universe, random.nextInt(universe));
+
+		TreeSet<Integer> expected = new TreeSet<>(a);
+		expected.addAll(b);
+
+		assertArrayEquals(toArray(expected), of(a).or(of(b)).toArray());
+		assertArrayEquals(toArray(expected), of(b).or(of(a)).toArray());
+	}
+
+	@RepeatedTest(1000)
+	void testMultiTerm() {
+		int universe = random.nextInt(10000) + 1;
+		int n = random.nextInt(5) + 1;
+		PostingList[] lists = new PostingList[n];
+		TreeSet<Integer> intersection = null;
+		TreeSet<Integer> union = new TreeSet<>();
+
+		for (int i = 0; i < n; i++) {
+			TreeSet<Integer> docs = randomize(universe, random.nextInt(universe) + 1);
+			lists[i] = of(docs);
+			union.addAll(docs);
+
+			if (intersection == null) {
+				intersection = new TreeSet<>(docs);
+			} else {
+				intersection.retainAll(docs);
+			}
+		}
+
+		assertArrayEquals(toArray(intersection), PostingList.intersection(lists).toArray());
+		assertArrayEquals(toArray(union), PostingList.union(lists).toArray());
+	}
+
+}
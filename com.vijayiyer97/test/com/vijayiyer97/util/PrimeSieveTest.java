@@ -0,0 +1,83 @@
+package com.vijayiyer97.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+class PrimeSieveTest {
+
+	Random random = new Random();
+
+	static boolean[] primality(int limit) {
+		boolean[] prime = new boolean[limit + 1];
+
+		for (int n = 2; n <= limit; n++) {
+			prime[n] = true;
+
+			for (int d = 2; d * d <= n; d++) {
+				if (n % d == 0) {
+					prime[n] = false;
+					break;
+				}
+			}
+		}
+
+		return prime;
+	}
+
+	@RepeatedTest(200)
+	void testSieve() {
+		int segment = PrimeSieve.SEGMENT_BITS;
+
+		// small segments split even short ranges into many tasks.
+		PrimeSieve.SEGMENT_BITS = 64 << random.nextInt(6);
+
+		try {
+			int limit = random.nextInt(random.nextBoolean() ? 200 : 40000);
+			boolean[] prime = primality(limit);
+			PrimeSieve sieve = new PrimeSieve(limit);
+			int[] primes = sieve.primes().toArray();
+			int count = 0;
+
+			for (int n = 0; n <= limit; n++) {
+				assertEquals(prime[n], sieve.isPrime(n), "n = " + n);
+
+				if (prime[n]) {
+					assertEquals(n, primes[count++]);
+				}
+			}
+
+			assertEquals(count, primes.length, "enumeration");
+			assertEquals(count, sieve.count(), "count");
+			assertEquals(count, sieve.longPrimes().parallel().count(), "parallel enumeration");
+			assertThrows(IllegalArgumentException.class, () -> sieve.isPrime(limit + 1));
+		} finally {
+			PrimeSieve.SEGMENT_BITS = segment;
+		}
+	}
+
+	@Test
+	void testLargeSieve() {
+		PrimeSieve sieve = new PrimeSieve(100_000_000L);
+
+		assertAll(
+				() -> assertEquals(5761455, sieve.count(), "pi(10^8)"),
+				() -> assertEquals(5761455, sieve.longPrimes().parallel().count(), "parallel enumeration"),
+				() -> assertEquals(99999989L, sieve.longPrimes().max().getAsLong(), "largest prime"),
+				() -> assertEquals(new PrimeSieve(1000).count(), new PrimeSieve(1000).toBitSet().cardinality() + 1, "bit set")
+				);
+	}
+
+	@Test
+	void testLimitRange() {
+		assertAll(
+				() -> assertThrows(IllegalArgumentException.class, () -> new PrimeSieve(-1)),
+				() -> assertThrows(IllegalArgumentException.class, () -> new PrimeSieve(Long.MAX_VALUE)),
+				() -> assertThrows(IllegalArgumentException.class, () -> new PrimeSieve(128L * Integer.MAX_VALUE))
+				);
+	}
+
+}
@@ -0,0 +1,66 @@
+package com.vijayiyer97.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+class ResidueNumberSystemTest {
+
+	Random random = new Random();
+
+	static int[] fromBig(java.math.BigInteger val) {
+		int[] mag = new int[(val.bitLength() + 31) / 32];
+
+		for (int i = 0; i < mag.length; i++) {
+			mag[i] = val.shiftRight(32 * i).intValue();
+		}
+
+		return mag;
+	}
+
+	@RepeatedTest(200)
+	void testArithmetic() {
+		int work = ResidueNumberSystem.PARALLEL_WORK;
+
+		// no work threshold splits every operation into tasks.
+		ResidueNumberSystem.PARALLEL_WORK = random.nextBoolean() ? 0 : work;
+
+		try {
+			ResidueNumberSystem system = new ResidueNumberSystem(random.nextInt(2000));
+			java.math.BigInteger m = LimbArithmeticTest.toBig(system.modulus());
+			java.math.BigInteger x = new java.math.BigInteger((int) system.capacity(), random);
+			java.math.BigInteger y = new java.math.BigInteger((int) system.capacity(), random);
+			int[] a = system.residues(fromBig(x));
+			int[] b = system.residues(fromBig(y));
+
+			assertAll(
+					() -> assertTrue(m.bitLength() > system.capacity() + 2, "modulus"),
+					() -> assertEquals(system.length(), a.length, "length"),
+					() -> assertEquals(x, LimbArithmeticTest.toBig(system.reconstruct(a)), "reconstruct"),
+					() -> assertEquals(x.add(y).mod(m), LimbArithmeticTest.toBig(system.reconstruct(system.add(a, b))), "add"),
+					() -> assertEquals(x.subtract(y).mod(m), LimbArithmeticTest.toBig(system.reconstruct(system.subtract(a, b))), "subtract"),
+					() -> assertEquals(x.negate().mod(m), LimbArithmeticTest.toBig(system.reconstruct(system.negate(a))), "negate"),
+					() -> assertEquals(x.multiply(y).mod(m), LimbArithmeticTest.toBig(system.reconstruct(system.multiply(a, b))), "multiply")
+					);
+		} finally {
+			ResidueNumberSystem.PARALLEL_WORK = work;
+		}
+	}
+
+	@Test
+	void testPrimes() {
+		ResidueNumberSystem system = new ResidueNumberSystem(1000);
+		int[] primes = system.primes();
+
+		for (int i = 0; i < primes.length; i++) {
+			assertTrue(java.math.BigInteger.valueOf(primes[i]).isProbablePrime(100), "prime " + primes[i]);
+			assertTrue(i == 0 || primes[i] < primes[i - 1], "decreasing");
+		}
+
+		assertThrows(IllegalArgumentException.class, () -> new ResidueNumberSystem(-1));
+	}
+
+}